@@ -2,8 +2,10 @@ package app.mobile.BK_sharing;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class BkSharingApplication {
 
 	public static void main(String[] args) {
@@ -12,8 +12,10 @@ import java.time.LocalDateTime;
 @Table(name = "AuditLog")
 @Data
 public class AuditLog {
+    // Pooled sequence so inserts can be batched (see Document)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_log_seq")
+    @SequenceGenerator(name = "audit_log_seq", sequenceName = "audit_log_seq", allocationSize = 50)
     private Long auditId;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,230 @@
+package app.mobile.BK_sharing.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the {@link LocalCache}s of every node sharing the database coherent. Each eviction requested on this
+ * node (the services' {@code @CacheEvict}s) is published to the other nodes, which evict the same entry from
+ * their own cache. Messages go over LISTEN/NOTIFY on PostgreSQL and through a polled table elsewhere; either
+ * way they are sent in the transaction making the change, so other nodes only evict once it has committed.
+ * <p>
+ * Other in-memory state can use the same messages through {@link #publish} and {@link #subscribe}: a topic
+ * takes the place of the cache name, and subscribers on the other nodes are handed the key.
+ * <p>
+ * When messages may have been lost (the listening connection dropped) every local cache is cleared and
+ * every subscriber is handed a null key.
+ * With {@code app.cache.invalidation.enabled=false} caches are only evicted on the node making the change.
+ */
+@Service
+@Slf4j
+public class CacheInvalidationBus implements LocalCache.EvictionListener {
+
+    private static final String ALL = "*";
+    private static final int MAX_MESSAGE_LENGTH = 500;
+
+    private final CacheManager cacheManager;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final boolean enabled;
+    private final String channel;
+    private final Duration pollInterval;
+    private final String schema;
+
+    private final Counter sent;
+    private final Counter received;
+    private final Counter failed;
+
+    // Tells this node's own messages apart when they come back
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+
+    private final Map<String, List<Consumer<Object>>> subscribers = new ConcurrentHashMap<>();
+
+    private InvalidationTransport transport;
+
+    public CacheInvalidationBus(CacheManager cacheManager,
+                                DataSource dataSource,
+                                JdbcTemplate jdbcTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.cache.invalidation.enabled:true}") boolean enabled,
+                                @Value("${app.cache.invalidation.channel:cache_invalidation}") String channel,
+                                @Value("${app.cache.invalidation.poll-interval:1s}") Duration pollInterval,
+                                @Value("${spring.jpa.properties.hibernate.default_schema:}") String schema) {
+        this.cacheManager = cacheManager;
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.channel = channel;
+        this.pollInterval = pollInterval;
+        this.schema = schema;
+        this.sent = meterRegistry.counter("cache.invalidation.messages", "direction", "sent");
+        this.received = meterRegistry.counter("cache.invalidation.messages", "direction", "received");
+        this.failed = meterRegistry.counter("cache.invalidation.failures");
+    }
+
+    @PostConstruct
+    public void start() throws SQLException {
+        if (!enabled) {
+            log.info("Cache invalidation bus disabled, caches are only evicted locally");
+            return;
+        }
+
+        // 1. Pick the transport the database supports
+        boolean postgres;
+        try (Connection connection = dataSource.getConnection()) {
+            postgres = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+        }
+        transport = postgres
+                ? new PostgresNotifyTransport(dataSource, jdbcTemplate, channel, pollInterval)
+                : new PollingTableTransport(jdbcTemplate, schema, pollInterval);
+
+        // 2. Listen before publishing anything
+        transport.start(this::receive, this::clearAll);
+        for (String name : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(name) instanceof LocalCache cache) {
+                cache.setEvictionListener(this);
+            }
+        }
+        log.info("Cache invalidation bus started on node {} using {}", nodeId,
+                postgres ? "LISTEN/NOTIFY" : "the cache_invalidation table");
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (transport != null) {
+            transport.stop();
+        }
+    }
+
+    /**
+     * Publishes an eviction requested on this node.
+     */
+    @Override
+    public void evicted(String cacheName, Object key) {
+        publish(cacheName, key);
+    }
+
+    /**
+     * Publishes a change to the subscribers of {@code topic} on the other nodes, from within the transaction
+     * making it if there is one. Keys are ids or short strings; a null key means anything may have changed.
+     */
+    public void publish(String topic, Object key) {
+        if (transport == null) {
+            return;
+        }
+        String message = nodeId + "|" + topic + "|" + encode(key);
+        if (message.length() > MAX_MESSAGE_LENGTH) {
+            message = nodeId + "|" + topic + "|" + ALL;
+        }
+        try {
+            transport.publish(message);
+            sent.increment();
+        } catch (RuntimeException e) {
+            // Other nodes keep the entry until it expires
+            failed.increment();
+            log.warn("Failed to publish cache invalidation {}: {}", message, e.getMessage());
+        }
+    }
+
+    /**
+     * Hands {@code subscriber} the key of every change published under {@code topic} by the other nodes,
+     * on the thread receiving messages. Topics must not be cache names.
+     */
+    public void subscribe(String topic, Consumer<Object> subscriber) {
+        subscribers.computeIfAbsent(topic, name -> new CopyOnWriteArrayList<>()).add(subscriber);
+    }
+
+    // Helper method to apply an eviction or change published by another node
+    private void receive(String message) {
+        String[] parts = message.split("\\|", 3);
+        if (parts.length < 3 || parts[0].equals(nodeId)) {
+            return;
+        }
+        List<Consumer<Object>> topicSubscribers = subscribers.get(parts[1]);
+        if (topicSubscribers != null) {
+            received.increment();
+            notify(parts[1], topicSubscribers, decode(parts[2]));
+            return;
+        }
+        if (!(cacheManager.getCache(parts[1]) instanceof LocalCache cache)) {
+            log.debug("Ignoring invalidation for unknown cache {}", parts[1]);
+            return;
+        }
+        received.increment();
+
+        Object key = decode(parts[2]);
+        if (key == null) {
+            cache.clearLocally();
+        } else {
+            cache.evictLocally(key);
+        }
+    }
+
+    private void clearAll() {
+        log.info("Cache invalidations may have been missed, clearing local caches and telling subscribers");
+        for (String name : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(name) instanceof LocalCache cache) {
+                cache.clearLocally();
+            }
+        }
+        subscribers.forEach((topic, topicSubscribers) -> notify(topic, topicSubscribers, null));
+    }
+
+    // A failing subscriber must not stop the others, nor the messages after this one
+    private void notify(String topic, List<Consumer<Object>> topicSubscribers, Object key) {
+        for (Consumer<Object> subscriber : topicSubscribers) {
+            try {
+                subscriber.accept(key);
+            } catch (RuntimeException e) {
+                failed.increment();
+                log.warn("Failed to apply change {} of {}: {}", key, topic, e.getMessage());
+            }
+        }
+    }
+
+    // Keys are ids or fixed strings; anything else invalidates the whole cache on the other nodes
+    private static String encode(Object key) {
+        if (key instanceof Long id) {
+            return "L:" + id;
+        }
+        if (key instanceof Integer id) {
+            return "I:" + id;
+        }
+        if (key instanceof String text) {
+            return "S:" + text;
+        }
+        return ALL;
+    }
+
+    private static Object decode(String key) {
+        if (key.startsWith("L:")) {
+            return Long.valueOf(key.substring(2));
+        }
+        if (key.startsWith("I:")) {
+            return Integer.valueOf(key.substring(2));
+        }
+        if (key.startsWith("S:")) {
+            return key.substring(2);
+        }
+        return null;
+    }
+}
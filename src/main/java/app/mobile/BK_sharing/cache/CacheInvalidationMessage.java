@@ -0,0 +1,26 @@
+package app.mobile.BK_sharing.cache;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Cache invalidation message, for databases without LISTEN/NOTIFY (see PollingTableTransport)
+@Entity
+@Table(name = "cache_invalidation")
+@Data
+@NoArgsConstructor
+public class CacheInvalidationMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "message", nullable = false, length = 500)
+    private String message;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,20 @@
+package app.mobile.BK_sharing.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries cache invalidation messages between the nodes sharing a database.
+ * A message published inside a transaction must only reach the other nodes if that transaction commits.
+ */
+interface InvalidationTransport {
+
+    void publish(String message);
+
+    /**
+     * Starts delivering messages published by any node (this one included) to {@code receiver}.
+     * {@code onGap} is called when messages may have been missed, e.g. after losing the connection.
+     */
+    void start(Consumer<String> receiver, Runnable onGap);
+
+    void stop();
+}
@@ -0,0 +1,83 @@
+package app.mobile.BK_sharing.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Caffeine cache whose evictions follow the transaction requesting them and are shared with other nodes.
+ * <p>
+ * Evictions requested inside a transaction are applied once it commits, and nothing is evicted for a change
+ * that is rolled back. This does not stop every stale entry: a reader that loaded the old row before the
+ * commit can still put it after the eviction, and that entry is then served until it expires
+ * ({@code app.cache.ttl}).
+ * Every requested eviction is also passed to the {@link EvictionListener}, if one is set, so other
+ * nodes can evict too (see {@link CacheInvalidationBus}); evictions coming from them use {@link #evictLocally}.
+ */
+public class LocalCache extends CaffeineCache {
+
+    private volatile EvictionListener evictionListener;
+
+    // Told about every eviction requested on this node, from within the transaction making the change if there is one
+    public interface EvictionListener {
+
+        // A null key means the whole cache was cleared
+        void evicted(String cacheName, Object key);
+    }
+
+    public LocalCache(String name, Cache<Object, Object> cache) {
+        super(name, cache, false);
+    }
+
+    @Override
+    public void evict(Object key) {
+        notifyListener(key);
+        afterCommit(() -> evictLocally(key));
+    }
+
+    @Override
+    public void clear() {
+        notifyListener(null);
+        afterCommit(this::clearLocally);
+    }
+
+    /**
+     * Removes an entry right away, without telling the listener.
+     */
+    public void evictLocally(Object key) {
+        getNativeCache().invalidate(key);
+    }
+
+    /**
+     * Removes every entry right away, without telling the listener.
+     */
+    public void clearLocally() {
+        getNativeCache().invalidateAll();
+    }
+
+    public void setEvictionListener(EvictionListener evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    private void notifyListener(Object key) {
+        EvictionListener listener = evictionListener;
+        if (listener != null) {
+            listener.evicted(getName(), key);
+        }
+    }
+
+    // Helper method to run an eviction after the current transaction commits, or now outside of one
+    private static void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+}
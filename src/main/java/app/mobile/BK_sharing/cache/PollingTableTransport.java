@@ -0,0 +1,107 @@
+package app.mobile.BK_sharing.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * For databases without LISTEN/NOTIFY: messages are rows of cache_invalidation, inserted in the publishing
+ * transaction and polled by every node. Ids are not committed in order, so each poll also looks back
+ * over the last {@value #LOOKBACK} ids and skips the ones already seen. Rows are deleted after a day.
+ */
+@Slf4j
+class PollingTableTransport implements InvalidationTransport {
+
+    private static final long LOOKBACK = 1000;
+    private static final Duration RETENTION = Duration.ofDays(1);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+    private final Duration pollInterval;
+
+    // Ids up to this were published before this node started
+    private long baseline;
+    private long highest;
+    // Ids above the lookback floor already delivered
+    private final NavigableSet<Long> seen = new TreeSet<>();
+
+    private volatile boolean running;
+    private Thread poller;
+
+    PollingTableTransport(JdbcTemplate jdbcTemplate, String schema, Duration pollInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = schema.isBlank() ? "cache_invalidation" : schema + ".cache_invalidation";
+        this.pollInterval = pollInterval;
+    }
+
+    @Override
+    public void publish(String message) {
+        jdbcTemplate.update("INSERT INTO " + table + " (message, created_at) VALUES (?, ?)",
+                message, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    @Override
+    public void start(Consumer<String> receiver, Runnable onGap) {
+        // Only messages published from now on
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        baseline = max == null ? 0 : max;
+        highest = baseline;
+
+        running = true;
+        poller = new Thread(() -> poll(receiver), "cache-invalidation-poller");
+        poller.setDaemon(true);
+        poller.start();
+    }
+
+    private void poll(Consumer<String> receiver) {
+        long lastCleanup = 0;
+        while (running) {
+            try {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                        "SELECT id, message FROM " + table + " WHERE id > ? ORDER BY id", floor());
+                for (Map<String, Object> row : rows) {
+                    long id = ((Number) row.get("id")).longValue();
+                    if (seen.add(id)) {
+                        highest = Math.max(highest, id);
+                        receiver.accept((String) row.get("message"));
+                    }
+                }
+                seen.headSet(floor(), true).clear();
+
+                if (System.currentTimeMillis() - lastCleanup > RETENTION.toMillis() / 24) {
+                    jdbcTemplate.update("DELETE FROM " + table + " WHERE created_at < ?",
+                            Timestamp.valueOf(LocalDateTime.now().minus(RETENTION)));
+                    lastCleanup = System.currentTimeMillis();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to poll cache invalidations, retrying: {}", e.getMessage());
+            }
+
+            try {
+                Thread.sleep(pollInterval.toMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private long floor() {
+        return Math.max(baseline, highest - LOOKBACK);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (poller != null) {
+            poller.interrupt();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package app.mobile.BK_sharing.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * PostgreSQL LISTEN/NOTIFY. pg_notify is transactional, so a notification sent inside a transaction is
+ * delivered when it commits and dropped if it rolls back. Listening holds one pooled connection per node.
+ * Notifications sent while the listening connection is down are lost, which is reported as a gap.
+ */
+@Slf4j
+class PostgresNotifyTransport implements InvalidationTransport {
+
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final String channel;
+    private final Duration pollInterval;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    PostgresNotifyTransport(DataSource dataSource, JdbcTemplate jdbcTemplate, String channel, Duration pollInterval) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.channel = channel;
+        this.pollInterval = pollInterval;
+    }
+
+    @Override
+    public void publish(String message) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", (RowCallbackHandler) row -> { }, channel, message);
+    }
+
+    @Override
+    public void start(Consumer<String> receiver, Runnable onGap) {
+        running = true;
+        listener = new Thread(() -> listen(receiver, onGap), "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    private void listen(Consumer<String> receiver, Runnable onGap) {
+        long backoff = pollInterval.toMillis();
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN \"" + channel + "\"");
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                if (connectedBefore) {
+                    onGap.run();
+                }
+                connectedBefore = true;
+                backoff = pollInterval.toMillis();
+                log.info("Listening for cache invalidations on channel {}", channel);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollInterval.toMillis());
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receiver.accept(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener failed, reconnecting in {} ms: {}", backoff, e.getMessage());
+                if (!sleep(backoff)) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF.toMillis());
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
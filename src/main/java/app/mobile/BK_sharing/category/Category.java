@@ -1,6 +1,7 @@
 package app.mobile.BK_sharing.category;
 
 import app.mobile.BK_sharing.document.entity.Document;
+import app.mobile.BK_sharing.search.SearchIndexListener;
 import app.mobile.BK_sharing.user.User;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -12,6 +13,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(SearchIndexListener.class)
 @Table(name = "category")
 @Getter
 @Setter
@@ -35,6 +37,10 @@ public class Category {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
      @ManyToOne(fetch = FetchType.LAZY)
      @JoinColumn(name = "created_by", referencedColumnName = "user_id", nullable = false)
      private User createdBy;
@@ -9,9 +9,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -66,11 +68,19 @@ public class CategoryController {
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "20") int limit,
             @RequestParam(defaultValue = "categoryName") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDirection
+            @RequestParam(defaultValue = "asc") String sortDirection,
+            WebRequest webRequest
     ) {
         log.info("GET /api/v1/categories - Getting all categories, page: {}, limit: {}", page, limit);
 
         try {
+            // The stamp is cached with the categories, so an unchanged listing gets 304 without a query.
+            // It is read before the data: if they race, the client just refetches next time.
+            String eTag = categoryService.getCategoriesStamp().eTag("categories");
+            if (webRequest.checkNotModified(eTag)) {
+                return null;
+            }
+
             // Create pageable object
             Sort sort = sortDirection.equalsIgnoreCase("desc")
                     ? Sort.by(sortBy).descending()
@@ -115,7 +125,10 @@ public class CategoryController {
             paginationInfo.setTotalPages(categoriesPage.getTotalPages());
             response.setPagination(paginationInfo);
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .eTag(eTag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(response);
         } catch (Exception e) {
             log.error("Error getting categories: {}", e.getMessage(), e);
 
@@ -1,5 +1,6 @@
 package app.mobile.BK_sharing.category;
 
+import app.mobile.BK_sharing.dto.ChangeStamp;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -25,6 +26,10 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     // Check if category name exists (excluding a specific category)
     boolean existsByCategoryNameAndCategoryIdNot(String categoryName, Long categoryId);
 
+    // Fields loaded into the in-memory search index (see SearchIndexService)
+    @Query("SELECT c.categoryId, c.categoryName FROM Category c")
+    List<Object[]> findSearchFields();
+
     // Search categories by name (contains)
     List<Category> findByCategoryNameContainingIgnoreCase(String keyword);
 
@@ -45,4 +50,8 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
             "WHERE c.categoryId = :categoryId " +
             "GROUP BY c.categoryId, c.categoryName, c.description")
     Optional<Object[]> findCategoryWithDocumentCountById(@Param("categoryId") Long categoryId);
-}
\ No newline at end of file
+
+    // Row count and last change of the category table, for ETags
+    @Query("SELECT new app.mobile.BK_sharing.dto.ChangeStamp(COUNT(c), MAX(c.updatedAt)) FROM Category c")
+    ChangeStamp findChangeStamp();
+}
@@ -1,6 +1,7 @@
 package app.mobile.BK_sharing.category;
 
 import app.mobile.BK_sharing.category.dto.*;
+import app.mobile.BK_sharing.dto.ChangeStamp;
 import app.mobile.BK_sharing.user.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -18,6 +19,9 @@ public interface CategoryService {
     // Get all categories with pagination
     Page<CategoryDTO> getAllCategories(Pageable pageable);
 
+    // Get the change stamp of all categories, for ETags
+    ChangeStamp getCategoriesStamp();
+
     // Get category by ID
     CategoryDTO getCategoryById(Long categoryId);
 
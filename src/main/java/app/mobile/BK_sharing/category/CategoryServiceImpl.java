@@ -3,10 +3,15 @@ package app.mobile.BK_sharing.category;
 import app.mobile.BK_sharing.category.dto.CategoryDTO;
 import app.mobile.BK_sharing.category.dto.CreateCategoryDTO;
 import app.mobile.BK_sharing.category.dto.UpdateCategoryDTO;
+import app.mobile.BK_sharing.config.CacheConfig;
+import app.mobile.BK_sharing.dto.ChangeStamp;
+import app.mobile.BK_sharing.search.SearchIndexService;
 import app.mobile.BK_sharing.user.User;
 import app.mobile.BK_sharing.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -21,11 +26,15 @@ import java.util.stream.Collectors;
 @Slf4j
 public class CategoryServiceImpl implements CategoryService {
 
+    private static final int SEARCH_RESULT_LIMIT = 50;
+
     private final CategoryRepository categoryRepository;
+    private final SearchIndexService searchIndexService;
     private final UserRepository userRepository;
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true)
     public CategoryDTO createCategory(CreateCategoryDTO createCategoryDTO, Long createdByUserId) {
         log.info("Creating new category: {} by user: {}", createCategoryDTO.getCategoryName(), createdByUserId);
 
@@ -53,6 +62,7 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES, key = "'all'")
     public List<CategoryDTO> getAllCategories() {
         log.info("Fetching all categories");
         return categoryRepository.findAll().stream()
@@ -70,6 +80,14 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES, key = "'stamp'")
+    public ChangeStamp getCategoriesStamp() {
+        return categoryRepository.findChangeStamp();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES, key = "#categoryId")
     public CategoryDTO getCategoryById(Long categoryId) {
         log.info("Fetching category by ID: {}", categoryId);
         Category category = categoryRepository.findById(categoryId)
@@ -96,13 +114,16 @@ public class CategoryServiceImpl implements CategoryService {
             return getAllCategories();
         }
 
-        return categoryRepository.findByCategoryNameContainingIgnoreCase(keyword).stream()
+        // Typo-tolerant match on the category name from the in-memory trigram index
+        List<Long> categoryIds = searchIndexService.searchCategories(keyword, SEARCH_RESULT_LIMIT);
+        return SearchIndexService.inRankOrder(categoryIds, categoryRepository.findAllById(categoryIds), Category::getCategoryId).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true)
     public CategoryDTO updateCategory(Long categoryId, UpdateCategoryDTO updateCategoryDTO) {
         log.info("Updating category with ID: {}", categoryId);
 
@@ -136,6 +157,7 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true)
     public void deleteCategory(Long categoryId) {
         log.info("Deleting category with ID: {}", categoryId);
 
@@ -0,0 +1,44 @@
+package app.mobile.BK_sharing.config;
+
+import app.mobile.BK_sharing.cache.LocalCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.stream.Stream;
+
+/**
+ * Caches for reference data that is read on every screen but changes a few times a day.
+ * Services evict on every create, update and delete; evictions take effect when the transaction commits
+ * (see {@link LocalCache}). Entries also expire after {@code app.cache.ttl} as a safety net.
+ * Caffeine records the statistics that the actuator publishes as the cache.gets, cache.puts,
+ * cache.evictions and cache.size meters, tagged with the cache name.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String CATEGORIES = "categories";
+    public static final String COURSES = "courses";
+    public static final String USERS = "users";
+    public static final String USER_SUMMARIES = "userSummaries";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${app.cache.ttl:10m}") Duration ttl,
+                                     @Value("${app.cache.max-entries:10000}") int maxEntries) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(Stream.of(CATEGORIES, COURSES, USERS, USER_SUMMARIES)
+                .map(name -> new LocalCache(name, Caffeine.newBuilder()
+                        .maximumSize(maxEntries)
+                        .expireAfterWrite(ttl)
+                        .recordStats()
+                        .build()))
+                .toList());
+        return cacheManager;
+    }
+}
@@ -1,10 +1,13 @@
 package app.mobile.BK_sharing.course;
 
+import app.mobile.BK_sharing.course.dto.CourseDto;
 import app.mobile.BK_sharing.course.dto.CourseRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
 import java.util.List;
@@ -18,30 +21,38 @@ public class CourseController {
 
     // Create a new course
     @PostMapping
-    public ResponseEntity<Course> createCourse(@Valid @RequestBody CourseRequest request) {
+    public ResponseEntity<CourseDto> createCourse(@Valid @RequestBody CourseRequest request) {
         Course createdCourse = courseService.createCourse(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdCourse);
+        return ResponseEntity.status(HttpStatus.CREATED).body(CourseDto.fromEntity(createdCourse));
     }
 
-    // Get all courses
+    // Get all courses; 304 if unchanged since the client's copy (If-None-Match), without a query
     @GetMapping
-    public ResponseEntity<List<Course>> getAllCourses() {
-        List<Course> courses = courseService.getAllCourses();
-        return ResponseEntity.ok(courses);
+    public ResponseEntity<List<CourseDto>> getAllCourses(WebRequest webRequest) {
+        String eTag = courseService.getCoursesStamp().eTag("courses");
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
+        List<CourseDto> courses = courseService.getAllCourses();
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(courses);
     }
 
     // Get course by ID
     @GetMapping("/{id}")
-    public ResponseEntity<Course> getCourseById(@PathVariable Long id) {
-        Course course = courseService.getCourseById(id);
+    public ResponseEntity<CourseDto> getCourseById(@PathVariable Long id) {
+        CourseDto course = courseService.getCourse(id);
         return ResponseEntity.ok(course);
     }
 
     // Update course
     @PutMapping("/{id}")
-    public ResponseEntity<Course> updateCourse(@PathVariable Long id, @Valid @RequestBody CourseRequest request) {
+    public ResponseEntity<CourseDto> updateCourse(@PathVariable Long id, @Valid @RequestBody CourseRequest request) {
         Course updatedCourse = courseService.updateCourse(id, request);
-        return ResponseEntity.ok(updatedCourse);
+        return ResponseEntity.ok(CourseDto.fromEntity(updatedCourse));
 
     }
 
@@ -54,9 +65,16 @@ public class CourseController {
 
     // Get course by course code
     @GetMapping("/code/{courseCode}")
-    public ResponseEntity<Course> getCourseByCode(@PathVariable String courseCode) {
+    public ResponseEntity<CourseDto> getCourseByCode(@PathVariable String courseCode) {
         Course course = courseService.getCourseByCode(courseCode);
-        return ResponseEntity.ok(course);
+        return ResponseEntity.ok(CourseDto.fromEntity(course));
+    }
+
+    // Search courses by code or name (tolerates typos and missing accents)
+    @GetMapping("/search")
+    public ResponseEntity<List<CourseDto>> searchCourses(@RequestParam String keyword) {
+        List<Course> courses = courseService.searchCourses(keyword);
+        return ResponseEntity.ok(courses.stream().map(CourseDto::fromEntity).toList());
     }
 
     // Check if course code exists
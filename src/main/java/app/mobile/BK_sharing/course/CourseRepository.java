@@ -1,5 +1,7 @@
 package app.mobile.BK_sharing.course;
 
+import app.mobile.BK_sharing.course.dto.CourseDto;
+import app.mobile.BK_sharing.dto.ChangeStamp;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -31,7 +33,19 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
             "ORDER BY documentCount DESC")
     List<Object[]> findCoursesWithDocumentCount();
 
+    // All courses as DTOs, without loading the creators
+    @Query("SELECT new app.mobile.BK_sharing.course.dto.CourseDto(c.courseId, c.courseCode, c.courseName, " +
+            "c.description, c.createdAt, c.createdBy.userId) FROM Course c ORDER BY c.courseId")
+    List<CourseDto> findAllSummaries();
+
+    // Fields loaded into the in-memory search index (see SearchIndexService)
+    @Query("SELECT c.courseId, c.courseCode, c.courseName FROM Course c")
+    List<Object[]> findSearchFields();
+
     // Check if course code exists
     boolean existsByCourseCode(String courseCode);
 
-}
\ No newline at end of file
+    // Row count and last change of the course table, for ETags
+    @Query("SELECT new app.mobile.BK_sharing.dto.ChangeStamp(COUNT(c), MAX(c.updatedAt)) FROM Course c")
+    ChangeStamp findChangeStamp();
+}
@@ -1,10 +1,16 @@
 package app.mobile.BK_sharing.course;
 
+import app.mobile.BK_sharing.config.CacheConfig;
+import app.mobile.BK_sharing.course.dto.CourseDto;
 import app.mobile.BK_sharing.course.dto.CourseRequest;
+import app.mobile.BK_sharing.dto.ChangeStamp;
+import app.mobile.BK_sharing.search.SearchIndexService;
 import app.mobile.BK_sharing.user.User;
 import app.mobile.BK_sharing.user.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,9 +21,13 @@ import java.util.List;
 @Transactional
 public class CourseService {
 
+    private static final int SEARCH_RESULT_LIMIT = 50;
+
     private final CourseRepository courseRepository;
+    private final SearchIndexService searchIndexService;
     private final UserRepository userRepository;
 
+    @CacheEvict(cacheNames = CacheConfig.COURSES, allEntries = true)
     public Course createCourse(CourseRequest request) {
         // Find the user who created the course
         User createdBy = userRepository.findById(request.getCreatedById())
@@ -40,8 +50,22 @@ public class CourseService {
     }
 
     @Transactional(readOnly = true)
-    public List<Course> getAllCourses() {
-        return courseRepository.findAll();
+    @Cacheable(cacheNames = CacheConfig.COURSES, key = "'all'")
+    public List<CourseDto> getAllCourses() {
+        return courseRepository.findAllSummaries();
+    }
+
+    // Cached with the courses, so a conditional GET of the listing needs no query
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.COURSES, key = "'stamp'")
+    public ChangeStamp getCoursesStamp() {
+        return courseRepository.findChangeStamp();
+    }
+
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.COURSES, key = "#id")
+    public CourseDto getCourse(Long id) {
+        return CourseDto.fromEntity(getCourseById(id));
     }
 
     @Transactional(readOnly = true)
@@ -56,6 +80,7 @@ public class CourseService {
                 .orElseThrow(() -> new EntityNotFoundException("Course not found with code: " + courseCode));
     }
 
+    @CacheEvict(cacheNames = CacheConfig.COURSES, allEntries = true)
     public Course updateCourse(Long id, CourseRequest request) {
         Course course = getCourseById(id);
 
@@ -73,11 +98,19 @@ public class CourseService {
         return courseRepository.save(course);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.COURSES, allEntries = true)
     public void deleteCourse(Long id) {
         Course course = getCourseById(id);
         courseRepository.delete(course);
     }
 
+    // Typo-tolerant match on course code or name, best matches first
+    @Transactional(readOnly = true)
+    public List<Course> searchCourses(String keyword) {
+        List<Long> courseIds = searchIndexService.searchCourses(keyword, SEARCH_RESULT_LIMIT);
+        return SearchIndexService.inRankOrder(courseIds, courseRepository.findAllById(courseIds), Course::getCourseId);
+    }
+
     @Transactional(readOnly = true)
     public boolean existsByCourseCode(String courseCode) {
         return courseRepository.existsByCourseCode(courseCode);
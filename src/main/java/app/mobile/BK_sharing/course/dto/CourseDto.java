@@ -0,0 +1,26 @@
+package app.mobile.BK_sharing.course.dto;
+
+import app.mobile.BK_sharing.course.Course;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// What the course endpoints return: the course without its creator and documents, safe to cache
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseDto {
+    private Long courseId;
+    private String courseCode;
+    private String courseName;
+    private String description;
+    private LocalDateTime createdAt;
+    private Long createdById;
+
+    public static CourseDto fromEntity(Course course) {
+        return new CourseDto(course.getCourseId(), course.getCourseCode(), course.getCourseName(),
+                course.getDescription(), course.getCreatedAt(), course.getCreatedBy().getUserId());
+    }
+}
@@ -0,0 +1,71 @@
+package app.mobile.BK_sharing.document;
+
+import app.mobile.BK_sharing.document.dto.CreateUploadSessionRequest;
+import app.mobile.BK_sharing.document.dto.DocumentResponseDto;
+import app.mobile.BK_sharing.document.dto.UploadSessionResponseDto;
+import app.mobile.BK_sharing.dto.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// Resumable uploads for files larger than the multipart limit, or for clients on unreliable connections
+@RestController
+@RequestMapping("/api/v1/documents/uploads")
+@RequiredArgsConstructor
+public class ChunkedUploadController {
+    private final ChunkedUploadService chunkedUploadService;
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<UploadSessionResponseDto>> createSession(
+            @Valid @RequestBody CreateUploadSessionRequest request) throws IOException {
+
+        UploadSessionResponseDto session = chunkedUploadService.createSession(request);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Upload session created successfully", session));
+    }
+
+    // The raw request body is the chunk, read as a stream
+    @PutMapping(value = "/{sessionId}/chunks/{index}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<ApiResponse<UploadSessionResponseDto>> uploadChunk(
+            @PathVariable String sessionId,
+            @PathVariable int index,
+            HttpServletRequest request) throws IOException {
+
+        try (InputStream body = request.getInputStream()) {
+            UploadSessionResponseDto session = chunkedUploadService.putChunk(sessionId, index, body);
+            return ResponseEntity.ok(ApiResponse.success("Chunk uploaded successfully", session));
+        }
+    }
+
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<ApiResponse<UploadSessionResponseDto>> getSession(
+            @PathVariable String sessionId) {
+
+        UploadSessionResponseDto session = chunkedUploadService.getSession(sessionId);
+        return ResponseEntity.ok(ApiResponse.success("Upload session retrieved successfully", session));
+    }
+
+    @PostMapping("/{sessionId}/commit")
+    public ResponseEntity<ApiResponse<DocumentResponseDto>> commit(
+            @PathVariable String sessionId) throws IOException {
+
+        DocumentResponseDto document = chunkedUploadService.commit(sessionId);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Document uploaded successfully", document));
+    }
+
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<ApiResponse<Void>> abort(
+            @PathVariable String sessionId) {
+
+        chunkedUploadService.abort(sessionId);
+        return ResponseEntity.ok(ApiResponse.success("Upload session aborted successfully", null));
+    }
+}
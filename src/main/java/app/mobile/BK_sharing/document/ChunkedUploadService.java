@@ -0,0 +1,347 @@
+package app.mobile.BK_sharing.document;
+
+import app.mobile.BK_sharing.document.dto.CreateUploadSessionRequest;
+import app.mobile.BK_sharing.document.dto.DocumentResponseDto;
+import app.mobile.BK_sharing.document.dto.UploadSessionResponseDto;
+import app.mobile.BK_sharing.document.entity.UploadSession;
+import app.mobile.BK_sharing.document.repository.UploadSessionRepository;
+import app.mobile.BK_sharing.exception.DuplicateResourceException;
+import app.mobile.BK_sharing.exception.ResourceNotFoundException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Resumable uploads for large documents.
+ * The client creates a session, PUTs numbered chunks in any order (resending any that failed),
+ * then commits. Chunks are streamed straight to disk, so memory use per request is one copy buffer,
+ * and the committed file goes through the normal uploadDocument flow.
+ * <p>
+ * A commit first claims the session (ACTIVE to COMMITTING with a conditional update), so concurrent commits
+ * cannot both create a document; the document and the COMMITTED status are then written in one transaction.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChunkedUploadService {
+
+    private static final String CHUNK_SUFFIX = ".chunk";
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final DocumentServiceImpl documentService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.upload.session-dir}")
+    private String sessionDir;
+
+    @Value("${app.file.upload-dir}")
+    private String uploadDir;
+
+    @Value("${app.upload.default-chunk-size:5MB}")
+    private DataSize defaultChunkSize;
+
+    @Value("${app.upload.min-chunk-size:256KB}")
+    private DataSize minChunkSize;
+
+    @Value("${app.upload.max-chunk-size:16MB}")
+    private DataSize maxChunkSize;
+
+    @Value("${app.upload.max-file-size:500MB}")
+    private DataSize maxFileSize;
+
+    // Sessions not committed within this time are deleted with their chunks
+    @Value("${app.upload.session-ttl:24h}")
+    private Duration sessionTtl;
+
+    private Path sessionRoot;
+
+    @PostConstruct
+    public void init() throws IOException {
+        sessionRoot = Path.of(sessionDir).toAbsolutePath().normalize();
+        if (sessionRoot.startsWith(Path.of(uploadDir).toAbsolutePath().normalize())) {
+            throw new IllegalStateException("app.upload.session-dir must not be inside app.file.upload-dir: " + sessionRoot);
+        }
+        Files.createDirectories(sessionRoot);
+    }
+
+    public UploadSessionResponseDto createSession(CreateUploadSessionRequest request) throws IOException {
+        // 1. Validate sizes
+        if (request.getTotalSize() > maxFileSize.toBytes()) {
+            throw new IllegalArgumentException("File size must be less than " + maxFileSize.toMegabytes() + "MB");
+        }
+        if (!request.getFileName().contains(".")) {
+            throw new IllegalArgumentException("File name must have an extension");
+        }
+
+        long chunkSize = request.getChunkSize() != null ? request.getChunkSize() : defaultChunkSize.toBytes();
+        if (chunkSize < minChunkSize.toBytes() || chunkSize > maxChunkSize.toBytes()) {
+            throw new IllegalArgumentException("Chunk size must be between " + minChunkSize.toBytes()
+                    + " and " + maxChunkSize.toBytes() + " bytes");
+        }
+
+        // 2. Create the session and its chunk directory
+        UploadSession session = new UploadSession();
+        session.setSessionId(UUID.randomUUID().toString());
+        session.setUserId(request.getUserId());
+        session.setTitle(request.getTitle());
+        session.setDescription(request.getDescription());
+        if (request.getCategoryIds() != null) {
+            session.setCategoryIds(request.getCategoryIds().stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(",")));
+        }
+        session.setCourseId(request.getCourseId());
+        session.setFileName(request.getFileName());
+        session.setContentType(request.getContentType());
+        session.setTotalSize(request.getTotalSize());
+        session.setChunkSize((int) chunkSize);
+        session.setChunkCount((int) ((request.getTotalSize() + chunkSize - 1) / chunkSize));
+        session.setExpiresAt(LocalDateTime.now().plus(sessionTtl));
+
+        Files.createDirectories(sessionPath(session.getSessionId()));
+        UploadSession saved = uploadSessionRepository.save(session);
+
+        log.info("Upload session {} created: {} bytes in {} chunks", saved.getSessionId(),
+                saved.getTotalSize(), saved.getChunkCount());
+        return toResponse(saved);
+    }
+
+    public UploadSessionResponseDto putChunk(String sessionId, int index, InputStream body) throws IOException {
+        UploadSession session = getActiveSession(sessionId);
+
+        if (index < 0 || index >= session.getChunkCount()) {
+            throw new IllegalArgumentException("Chunk index must be between 0 and " + (session.getChunkCount() - 1));
+        }
+
+        // Stream the body to a temporary file, refusing anything longer than the expected chunk
+        long expectedSize = chunkSize(session, index);
+        Path chunk = sessionPath(sessionId).resolve(index + CHUNK_SUFFIX);
+        Path partial = sessionPath(sessionId).resolve(index + CHUNK_SUFFIX + "." + UUID.randomUUID() + ".part");
+
+        try {
+            long written;
+            try (OutputStream out = Files.newOutputStream(partial, StandardOpenOption.CREATE_NEW)) {
+                written = copyAtMost(body, out, expectedSize + 1);
+            }
+            if (written != expectedSize) {
+                throw new IllegalArgumentException("Chunk " + index + " must be " + expectedSize
+                        + " bytes but was " + (written > expectedSize ? "larger" : written + " bytes"));
+            }
+
+            // Resending a chunk simply replaces it
+            Files.move(partial, chunk, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+
+        return toResponse(session);
+    }
+
+    public UploadSessionResponseDto getSession(String sessionId) {
+        return toResponse(findSession(sessionId));
+    }
+
+    public DocumentResponseDto commit(String sessionId) throws IOException {
+        UploadSession session = findSession(sessionId);
+
+        // Committing twice returns the document created the first time
+        if (session.getStatus() == UploadSession.Status.COMMITTED) {
+            return documentService.getDocumentById(session.getDocumentId());
+        }
+        checkNotExpired(session);
+
+        List<Integer> missing = missingChunks(session);
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Upload is incomplete, missing chunks: " + missing);
+        }
+
+        // 1. Claim the session, so only one request turns it into a document
+        if (!updateStatus(sessionId, UploadSession.Status.ACTIVE, UploadSession.Status.COMMITTING)) {
+            UploadSession current = findSession(sessionId);
+            if (current.getStatus() == UploadSession.Status.COMMITTED) {
+                return documentService.getDocumentById(current.getDocumentId());
+            }
+            checkNotExpired(current);
+            throw new DuplicateResourceException("Upload session is already being committed: " + sessionId);
+        }
+
+        try {
+            // 2. Concatenate the chunks into one file
+            Path assembled = sessionPath(sessionId).resolve("assembled");
+            assemble(session, assembled);
+
+            // 3. Hand the file to the regular upload flow and mark the session committed in the same transaction
+            List<Long> categoryIds = session.getCategoryIds() == null || session.getCategoryIds().isBlank()
+                    ? null
+                    : Arrays.stream(session.getCategoryIds().split(",")).map(Long::valueOf).toList();
+
+            DocumentResponseDto document = transactionTemplate.execute(status -> {
+                DocumentResponseDto created = documentService.uploadDocument(
+                        new AssembledMultipartFile(assembled, session.getFileName(), session.getContentType()),
+                        session.getTitle(),
+                        session.getDescription(),
+                        session.getUserId(),
+                        categoryIds,
+                        session.getCourseId()
+                );
+                // Only fails if the session expired and was cleaned up meanwhile
+                if (uploadSessionRepository.markCommitted(sessionId, created.getDocumentId()) == 0) {
+                    throw new IllegalStateException("Upload session was deleted while committing: " + sessionId);
+                }
+                return created;
+            });
+
+            // 4. Drop the chunks
+            deleteSessionFiles(sessionId);
+
+            log.info("Upload session {} committed as document {}", sessionId, document.getDocumentId());
+            return document;
+        } catch (IOException | RuntimeException e) {
+            // Give the session back, so the client can fix it up and commit again
+            updateStatus(sessionId, UploadSession.Status.COMMITTING, UploadSession.Status.ACTIVE);
+            throw e;
+        }
+    }
+
+    public void abort(String sessionId) {
+        findSession(sessionId);
+        // Never pull the chunks from under a commit in progress
+        Integer deleted = transactionTemplate.execute(status ->
+                uploadSessionRepository.deleteBySessionIdAndStatusNot(sessionId, UploadSession.Status.COMMITTING));
+        if (deleted == null || deleted == 0) {
+            throw new DuplicateResourceException("Upload session is being committed: " + sessionId);
+        }
+        deleteSessionFiles(sessionId);
+        log.info("Upload session {} aborted", sessionId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.upload.cleanup-interval:1h}")
+    public void deleteExpiredSessions() {
+        List<UploadSession> expired = uploadSessionRepository.findByExpiresAtBefore(LocalDateTime.now());
+        for (UploadSession session : expired) {
+            deleteSessionFiles(session.getSessionId());
+            uploadSessionRepository.delete(session);
+        }
+        if (!expired.isEmpty()) {
+            log.info("Deleted {} expired upload session(s)", expired.size());
+        }
+    }
+
+    // Helper method to concatenate chunk files with FileChannel transfers (no copy through the heap)
+    private void assemble(UploadSession session, Path target) throws IOException {
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (int index = 0; index < session.getChunkCount(); index++) {
+                Path chunk = sessionPath(session.getSessionId()).resolve(index + CHUNK_SUFFIX);
+                try (FileChannel in = FileChannel.open(chunk, StandardOpenOption.READ)) {
+                    long position = 0;
+                    long size = in.size();
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            }
+        }
+    }
+
+    // Helper method to copy at most limit bytes, returning how many were copied
+    private long copyAtMost(InputStream in, OutputStream out, long limit) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        int read;
+        while (total < limit && (read = in.read(buffer, 0, (int) Math.min(buffer.length, limit - total))) != -1) {
+            out.write(buffer, 0, read);
+            total += read;
+        }
+        return total;
+    }
+
+    private long chunkSize(UploadSession session, int index) {
+        long offset = (long) index * session.getChunkSize();
+        return Math.min(session.getChunkSize(), session.getTotalSize() - offset);
+    }
+
+    private List<Integer> missingChunks(UploadSession session) {
+        List<Integer> missing = new ArrayList<>();
+        if (session.getStatus() == UploadSession.Status.COMMITTED) {
+            return missing;
+        }
+        Path dir = sessionPath(session.getSessionId());
+        for (int index = 0; index < session.getChunkCount(); index++) {
+            if (!Files.exists(dir.resolve(index + CHUNK_SUFFIX))) {
+                missing.add(index);
+            }
+        }
+        return missing;
+    }
+
+    private UploadSession findSession(String sessionId) {
+        return uploadSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload session", "id", sessionId));
+    }
+
+    private UploadSession getActiveSession(String sessionId) {
+        UploadSession session = findSession(sessionId);
+        if (session.getStatus() != UploadSession.Status.ACTIVE) {
+            throw new IllegalArgumentException("Upload session no longer accepts chunks: " + sessionId);
+        }
+        checkNotExpired(session);
+        return session;
+    }
+
+    // Expired sessions wait for the cleanup job, but take no more chunks or commits
+    private void checkNotExpired(UploadSession session) {
+        if (!session.getExpiresAt().isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Upload session has expired: " + session.getSessionId());
+        }
+    }
+
+    // Helper method to change the status only if nobody else changed it first
+    private boolean updateStatus(String sessionId, UploadSession.Status from, UploadSession.Status to) {
+        Integer updated = transactionTemplate.execute(status ->
+                uploadSessionRepository.updateStatus(sessionId, from, to, LocalDateTime.now()));
+        return updated != null && updated == 1;
+    }
+
+    private Path sessionPath(String sessionId) {
+        Path path = sessionRoot.resolve(UUID.fromString(sessionId).toString());
+        if (!path.getParent().equals(sessionRoot)) {
+            throw new IllegalArgumentException("Invalid upload session: " + sessionId);
+        }
+        return path;
+    }
+
+    private void deleteSessionFiles(String sessionId) {
+        try {
+            FileSystemUtils.deleteRecursively(sessionPath(sessionId));
+        } catch (IOException e) {
+            log.warn("Failed to delete files of upload session {}: {}", sessionId, e.getMessage());
+        }
+    }
+
+    private UploadSessionResponseDto toResponse(UploadSession session) {
+        return new UploadSessionResponseDto(session, missingChunks(session));
+    }
+}
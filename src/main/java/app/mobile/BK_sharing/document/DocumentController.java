@@ -1,27 +1,37 @@
 package app.mobile.BK_sharing.document;
 
+import app.mobile.BK_sharing.document.dto.DocumentContent;
 import app.mobile.BK_sharing.document.dto.DocumentResponseDto;
 import app.mobile.BK_sharing.document.dto.DocumentUploadRequest;
 import app.mobile.BK_sharing.document.entity.Document;
 import app.mobile.BK_sharing.document.repository.DocumentRepository;
 import app.mobile.BK_sharing.dto.ApiResponse;
+import app.mobile.BK_sharing.dto.CursorPage;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/documents")
 @RequiredArgsConstructor
 public class DocumentController {
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final DocumentServiceImpl documentService;
     private final DocumentRepository documentRepository;
 
@@ -62,12 +72,22 @@ public class DocumentController {
 //        return ResponseEntity.ok(ApiResponse.success("Documents retrieved successfully", documents));
 //    }
 
+    // If-None-Match gets 304 after one small query, without loading the document
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<DocumentResponseDto>> getDocumentById(
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            WebRequest webRequest) {
+
+        String eTag = documentService.getDocumentStamp(id).eTag("document-" + id);
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
 
         DocumentResponseDto document = documentService.getDocumentById(id);
-        return ResponseEntity.ok(ApiResponse.success("Document retrieved successfully", document));
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(ApiResponse.success("Document retrieved successfully", document));
     }
 
     @PutMapping("/{id}")
@@ -90,7 +110,7 @@ public class DocumentController {
         } else {
             // Update metadata only (no new version)
             updatedDocument = documentService.updateDocumentMetadata(
-                    id, title, description, categoryIds, courseId);
+                    id, title, description, categoryIds, courseId, userId);
         }
 
         return ResponseEntity.ok(ApiResponse.success("Document updated successfully", updatedDocument));
@@ -118,6 +138,24 @@ public class DocumentController {
         return ResponseEntity.ok(ApiResponse.success("Search results retrieved successfully", documents));
     }
 
+    // Paged listing with any combination of filters, newest first
+    @GetMapping("/filter")
+    public ResponseEntity<ApiResponse<Page<DocumentResponseDto>>> filterDocuments(
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Long uploadedById,
+            @RequestParam(required = false) Boolean approved,
+            @RequestParam(required = false) Document.FileType fileType,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE),
+                Sort.by(Sort.Direction.DESC, "createdAt", "documentId"));
+        Page<DocumentResponseDto> documents = documentService.filterDocuments(
+                title, categoryId, uploadedById, approved, fileType, pageable);
+        return ResponseEntity.ok(ApiResponse.success("Documents retrieved successfully", documents));
+    }
+
     @PutMapping("/{id}/approve")
     public ResponseEntity<ApiResponse<DocumentResponseDto>> approveDocument(
             @PathVariable Long id,
@@ -144,12 +182,77 @@ public class DocumentController {
         return ResponseEntity.ok(ApiResponse.success("Download URL retrieved successfully", document.getFilePath()));
     }
 
+    // Streams the file itself. Range requests get 206 partial content, and If-None-Match /
+    // If-Modified-Since get 304 without touching storage. Bytes are served from the local blob cache.
+    @GetMapping("/{id}/content")
+    public ResponseEntity<Resource> getDocumentContent(
+            @PathVariable Long id,
+            WebRequest webRequest) {
+
+        DocumentContent content = documentService.getDocumentContent(id);
+        long lastModified = content.lastModified() != null ? content.lastModified().toEpochMilli() : -1;
+        if (webRequest.checkNotModified(content.eTag(), lastModified)) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .eTag(content.eTag())
+                .lastModified(lastModified)
+                .cacheControl(CacheControl.noCache())
+                .contentType(content.contentType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                        .filename(content.fileName(), StandardCharsets.UTF_8)
+                        .build()
+                        .toString())
+                .body(documentService.loadDocumentContent(content));
+    }
+
     @GetMapping("/user/{userId}/recent")
     public ResponseEntity<ApiResponse<List<DocumentResponseDto>>> getRecentDocuments(
             @RequestParam(defaultValue = "10") int limit) {
 
-        Pageable pageable = PageRequest.of(0, limit, Sort.by("createdAt").descending());
-        Page<DocumentResponseDto> documents = documentService.getAllDocuments(pageable);
-        return ResponseEntity.ok(ApiResponse.success("Recent documents retrieved successfully", documents.getContent()));
+        // First page of the recent feed: no offset scan and no count query
+        List<DocumentResponseDto> documents = documentService.getLatestDocuments(limit);
+        return ResponseEntity.ok(ApiResponse.success("Recent documents retrieved successfully", documents));
+    }
+
+    // Cursor-paginated feeds, newest first. Pass nextCursor from the previous response to continue.
+    @GetMapping("/feed")
+    public ResponseEntity<ApiResponse<CursorPage<DocumentResponseDto>>> getRecentFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        CursorPage<DocumentResponseDto> documents = documentService.getRecentDocuments(cursor, limit);
+        return ResponseEntity.ok(ApiResponse.success("Recent documents retrieved successfully", documents));
+    }
+
+    @GetMapping("/feed/user/{userId}")
+    public ResponseEntity<ApiResponse<CursorPage<DocumentResponseDto>>> getUserFeed(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        CursorPage<DocumentResponseDto> documents = documentService.getUserFeed(userId, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.success("User documents retrieved successfully", documents));
+    }
+
+    @GetMapping("/feed/course/{courseId}")
+    public ResponseEntity<ApiResponse<CursorPage<DocumentResponseDto>>> getCourseFeed(
+            @PathVariable Long courseId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        CursorPage<DocumentResponseDto> documents = documentService.getCourseFeed(courseId, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.success("Course documents retrieved successfully", documents));
+    }
+
+    @GetMapping("/feed/category/{categoryId}")
+    public ResponseEntity<ApiResponse<CursorPage<DocumentResponseDto>>> getCategoryFeed(
+            @PathVariable Long categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        CursorPage<DocumentResponseDto> documents = documentService.getCategoryFeed(categoryId, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.success("Category documents retrieved successfully", documents));
     }
 }
\ No newline at end of file
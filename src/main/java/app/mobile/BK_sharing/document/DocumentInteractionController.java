@@ -0,0 +1,69 @@
+package app.mobile.BK_sharing.document;
+
+import app.mobile.BK_sharing.document.dto.DocumentStatsDto;
+import app.mobile.BK_sharing.document.dto.PopularDocumentDto;
+import app.mobile.BK_sharing.document.dto.RecordInteractionRequest;
+import app.mobile.BK_sharing.document.entity.DocumentInteraction;
+import app.mobile.BK_sharing.dto.ApiResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+// Views and downloads are queued and written in batches, so a 202 means recorded, not yet stored.
+// Statistics and popularity come from the daily rollups.
+@RestController
+@RequestMapping("/api/v1/documents")
+@RequiredArgsConstructor
+public class DocumentInteractionController {
+    private static final int MAX_POPULAR = 100;
+
+    private final InteractionIngestService interactionIngestService;
+    private final InteractionRollupService interactionRollupService;
+
+    @PostMapping("/{documentId}/interactions")
+    public ResponseEntity<ApiResponse<Void>> recordInteraction(
+            @PathVariable Long documentId,
+            @Valid @RequestBody RecordInteractionRequest request) {
+
+        if (!interactionIngestService.documentExists(documentId)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error("Document not found with id: " + documentId));
+        }
+
+        if (!interactionIngestService.record(documentId, request.getUserId(), request.getType())) {
+            long retryAfterSeconds = Math.max(1, interactionIngestService.retryAfter().toSeconds());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .body(ApiResponse.error("Too many interactions, please retry later"));
+        }
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Interaction recorded successfully", null));
+    }
+
+    @GetMapping("/{documentId}/stats")
+    public ResponseEntity<ApiResponse<DocumentStatsDto>> getDocumentStats(
+            @PathVariable Long documentId,
+            @RequestParam(defaultValue = "30") int days) {
+
+        DocumentStatsDto stats = interactionRollupService.getDocumentStats(documentId, days);
+        return ResponseEntity.ok(ApiResponse.success("Document statistics retrieved successfully", stats));
+    }
+
+    // Most downloaded (or with rankBy=View, most viewed) approved documents over the last days
+    @GetMapping("/popular")
+    public ResponseEntity<ApiResponse<List<PopularDocumentDto>>> getPopularDocuments(
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(defaultValue = "Download") DocumentInteraction.InteractionType rankBy,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        List<PopularDocumentDto> documents = interactionRollupService.getPopularDocuments(
+                days, rankBy, Math.max(1, Math.min(limit, MAX_POPULAR)));
+        return ResponseEntity.ok(ApiResponse.success("Popular documents retrieved successfully", documents));
+    }
+}
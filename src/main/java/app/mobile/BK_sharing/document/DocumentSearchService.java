@@ -0,0 +1,121 @@
+package app.mobile.BK_sharing.document;
+
+import app.mobile.BK_sharing.document.dto.DocumentResponseDto;
+import app.mobile.BK_sharing.document.entity.Document;
+import app.mobile.BK_sharing.document.repository.DocumentRepository;
+import app.mobile.BK_sharing.utils.TextNormalizer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Ranked full-text search over document titles and descriptions.
+ * <p>
+ * Title and description are stored folded (see {@link TextNormalizer}), so queries match with or without
+ * Vietnamese accents. On PostgreSQL a generated tsvector column over the folded text (added by the V3
+ * migration) is indexed with GIN and queried with prefix terms, ranked by ts_rank_cd. Other databases (H2 in tests),
+ * and PostgreSQL databases the migrations have not run on, fall back to LIKE.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentSearchService {
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private final DocumentRepository documentRepository;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${spring.jpa.properties.hibernate.default_schema:}")
+    private String schema;
+
+    private boolean fullTextSupported;
+
+    @PostConstruct
+    public void init() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean postgres = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+            fullTextSupported = postgres && hasSearchVector(connection);
+            if (postgres && !fullTextSupported) {
+                log.warn("document.search_vector is missing (the Flyway migrations have not run), falling back to LIKE");
+            }
+        }
+
+        backfillSearchText();
+        log.info("Document search uses {}", fullTextSupported ? "PostgreSQL full-text index" : "LIKE fallback");
+    }
+
+    @Transactional(readOnly = true)
+    public List<DocumentResponseDto> search(String keyword, int limit) {
+        List<String> words = TextNormalizer.tokens(keyword);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+
+        if (!fullTextSupported) {
+            String pattern = "% " + String.join("% ", words) + "%";
+            return documentRepository.searchByFoldedText(pattern, PageRequest.of(0, limit));
+        }
+
+        // Every word must match, each as a prefix so results show up while the user is still typing
+        String tsquery = words.stream()
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+        List<Long> rankedIds = documentRepository.searchRankedIds(tsquery, limit);
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+
+        // Load the rows in one query and put them back in rank order
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < rankedIds.size(); i++) {
+            rank.put(rankedIds.get(i), i);
+        }
+        return documentRepository.findSummariesByIds(rankedIds).stream()
+                .sorted(Comparator.comparing(dto -> rank.get(dto.getDocumentId())))
+                .toList();
+    }
+
+    // Helper method to fill the folded columns of documents saved before they existed
+    private void backfillSearchText() {
+        int updated = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                List<Document> documents = documentRepository.findBySearchTitleIsNull(
+                        PageRequest.of(0, BACKFILL_BATCH_SIZE));
+                documents.forEach(Document::updateSearchText);
+                return documents.size();
+            });
+            updated += batch;
+        } while (batch == BACKFILL_BATCH_SIZE);
+
+        if (updated > 0) {
+            log.info("Filled search text for {} document(s)", updated);
+        }
+    }
+
+    // Helper method to check for the column the V3 migration adds, which ddl-auto does not create
+    private boolean hasSearchVector(Connection connection) throws SQLException {
+        String documentSchema = schema.isBlank() ? connection.getSchema() : schema;
+        try (ResultSet columns = connection.getMetaData().getColumns(null, documentSchema, "document", "search_vector")) {
+            return columns.next();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package app.mobile.BK_sharing.document;
 
 import app.mobile.BK_sharing.document.dto.DocumentResponseDto;
 import app.mobile.BK_sharing.document.entity.Document;
+import app.mobile.BK_sharing.dto.ChangeStamp;
 import app.mobile.BK_sharing.user.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -14,8 +15,16 @@ public interface DocumentService {
 
     DocumentResponseDto uploadDocument(MultipartFile file, String title, String description, Long userId, List<Long> categoriesId, Long courseId);
     DocumentResponseDto getDocumentById(Long id);
+    ChangeStamp getDocumentStamp(Long id);
     List<DocumentResponseDto> getAllDocuments();
     Page<DocumentResponseDto> getAllDocuments(Pageable pageable);
+    Page<DocumentResponseDto> filterDocuments(
+            String title,
+            Long categoryId,
+            Long uploadedById,
+            Boolean isApproved,
+            Document.FileType fileType,
+            Pageable pageable);
     List<DocumentResponseDto> getDocumentsByUser(Long userId);
     DocumentResponseDto approveDocument(Long documentId, Long approvedByUserId);
     DocumentResponseDto rejectDocument(Long documentId);
@@ -25,7 +34,8 @@ public interface DocumentService {
             String title,
             String description,
             List<Long> categoryIds,
-            Long courseId);
+            Long courseId,
+            Long userId);
     DocumentResponseDto updateDocumentWithFile(
             Long documentId,
             MultipartFile file,
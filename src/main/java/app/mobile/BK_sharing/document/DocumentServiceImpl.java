@@ -4,40 +4,59 @@ import app.mobile.BK_sharing.category.Category;
 import app.mobile.BK_sharing.category.CategoryRepository;
 import app.mobile.BK_sharing.course.Course;
 import app.mobile.BK_sharing.course.CourseRepository;
+import app.mobile.BK_sharing.document.dto.DocumentContent;
 import app.mobile.BK_sharing.document.dto.DocumentResponseDto;
 import app.mobile.BK_sharing.document.entity.Document;
 import app.mobile.BK_sharing.document.entity.DocumentVersion;
 import app.mobile.BK_sharing.document.repository.DocumentRepository;
 import app.mobile.BK_sharing.document.repository.DocumentVersionRepository;
-import app.mobile.BK_sharing.storage.SupabaseStorageService;
+import app.mobile.BK_sharing.dto.ChangeStamp;
+import app.mobile.BK_sharing.dto.CursorPage;
+import app.mobile.BK_sharing.notification.NotificationFanoutService;
+import app.mobile.BK_sharing.storage.BlobCache;
+import app.mobile.BK_sharing.storage.BlobStorageService;
+import app.mobile.BK_sharing.storage.StorageBackend;
 import app.mobile.BK_sharing.user.User;
 import app.mobile.BK_sharing.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class DocumentServiceImpl implements DocumentService {
+    private static final int MAX_FEED_PAGE_SIZE = 100;
+    private static final int SEARCH_RESULT_LIMIT = 50;
+
     private final DocumentRepository documentRepository;
-    private final SupabaseStorageService storageService;
+    private final BlobStorageService blobStorageService;
+    private final BlobCache blobCache;
+    private final DocumentSearchService documentSearchService;
     private final UserRepository userRepository; // To fetch the uploader
     private final CategoryRepository categoryRepository;
     private final CourseRepository courseRepository;
     private final DocumentVersionRepository documentVersionRepository;
     private final app.mobile.BK_sharing.document.service.DocumentVersionService documentVersionService;
+    private final NotificationFanoutService notificationFanoutService;
 
     @Override
     @Transactional
@@ -55,8 +74,8 @@ public class DocumentServiceImpl implements DocumentService {
                 throw new RuntimeException("File is empty");
             }
 
-            // 2. Upload to Supabase and get PUBLIC URL
-            String publicUrl = storageService.uploadFile(file);
+            // 2. Upload to storage (or reuse an identical stored file) and get PUBLIC URL
+            String publicUrl = blobStorageService.store(file);
 
             // 3. Create Document entity
             Document doc = new Document();
@@ -129,6 +148,7 @@ public class DocumentServiceImpl implements DocumentService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public DocumentResponseDto getDocumentById(Long id) {
         Document document = documentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Document not found with ID: " + id));
@@ -136,19 +156,118 @@ public class DocumentServiceImpl implements DocumentService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public ChangeStamp getDocumentStamp(Long id) {
+        return documentRepository.findChangeStampById(id)
+                .orElseThrow(() -> new RuntimeException("Document not found with ID: " + id));
+    }
+
+    public DocumentContent getDocumentContent(Long id) {
+        Document document = documentRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Document not found with ID: " + id));
+
+        // Stored file names are content hashes (or UUIDs for older files), so the name is a strong validator
+        String storedName = StorageBackend.extractFilename(document.getFilePath());
+        String extension = storedName.contains(".") ? storedName.substring(storedName.lastIndexOf(".")) : "";
+
+        LocalDateTime modified = document.getUpdatedAt() != null ? document.getUpdatedAt() : document.getCreatedAt();
+        return new DocumentContent(
+                document.getFilePath(),
+                document.getTitle() + extension,
+                MediaTypeFactory.getMediaType(storedName).orElse(MediaType.APPLICATION_OCTET_STREAM),
+                "\"" + storedName + "\"",
+                modified != null ? modified.atZone(ZoneId.systemDefault()).toInstant() : null
+        );
+    }
+
+    // Local copy of the document file, downloaded into the blob cache on first read
+    public Resource loadDocumentContent(DocumentContent content) {
+        try {
+            return blobCache.getResource(content.fileUrl());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read file: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<DocumentResponseDto> getAllDocuments() {
-        List<Document> documents = documentRepository.findAll();
-        return documents.stream()
-                .map(DocumentResponseDto::new)
-                .collect(Collectors.toList());
+        return documentRepository.findAllSummaries();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<DocumentResponseDto> getAllDocuments(Pageable pageable) {
-        return documentRepository.findAll(pageable)
+        return documentRepository.findAllSummaries(pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<DocumentResponseDto> filterDocuments(
+            String title,
+            Long categoryId,
+            Long uploadedById,
+            Boolean isApproved,
+            Document.FileType fileType,
+            Pageable pageable) {
+        return documentRepository.findDocumentsByFilters(title, categoryId, uploadedById, isApproved, fileType, pageable)
                 .map(DocumentResponseDto::new);
     }
 
+    // Keyset-paginated feeds, newest first. cursor is the nextCursor of the previous page (null for the first page).
+    @Transactional(readOnly = true)
+    public CursorPage<DocumentResponseDto> getRecentDocuments(String cursor, int limit) {
+        DocumentCursor after = DocumentCursor.decode(cursor);
+        return toCursorPage(documentRepository.findFeed(
+                after.createdAt(), after.documentId(), feedPage(limit)), limit);
+    }
+
+    // Newest documents for /user/{userId}/recent, which has always taken any limit, so the feed's cap does not apply
+    @Transactional(readOnly = true)
+    public List<DocumentResponseDto> getLatestDocuments(int limit) {
+        DocumentCursor first = DocumentCursor.decode(null);
+        return documentRepository.findFeed(first.createdAt(), first.documentId(), PageRequest.of(0, limit));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<DocumentResponseDto> getUserFeed(Long userId, String cursor, int limit) {
+        DocumentCursor after = DocumentCursor.decode(cursor);
+        return toCursorPage(documentRepository.findFeedByUploader(
+                userId, after.createdAt(), after.documentId(), feedPage(limit)), limit);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<DocumentResponseDto> getCourseFeed(Long courseId, String cursor, int limit) {
+        DocumentCursor after = DocumentCursor.decode(cursor);
+        return toCursorPage(documentRepository.findFeedByCourse(
+                courseId, after.createdAt(), after.documentId(), feedPage(limit)), limit);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<DocumentResponseDto> getCategoryFeed(Long categoryId, String cursor, int limit) {
+        DocumentCursor after = DocumentCursor.decode(cursor);
+        return toCursorPage(documentRepository.findFeedByCategory(
+                categoryId, after.createdAt(), after.documentId(), feedPage(limit)), limit);
+    }
+
+    // Helper method to ask for one row more than the page size, which tells whether another page exists
+    private Pageable feedPage(int limit) {
+        if (limit < 1 || limit > MAX_FEED_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_FEED_PAGE_SIZE);
+        }
+        return PageRequest.of(0, limit + 1);
+    }
+
+    private CursorPage<DocumentResponseDto> toCursorPage(List<DocumentResponseDto> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null, false);
+        }
+        List<DocumentResponseDto> items = rows.subList(0, limit);
+        DocumentResponseDto last = items.get(limit - 1);
+        String nextCursor = new DocumentCursor(last.getCreatedAt(), last.getDocumentId()).encode();
+        return new CursorPage<>(new ArrayList<>(items), nextCursor, true);
+    }
+
     @Transactional
     public DocumentResponseDto updateDocumentWithFile(
             Long documentId,
@@ -161,8 +280,15 @@ public class DocumentServiceImpl implements DocumentService {
             Document document = documentRepository.findById(documentId)
                     .orElseThrow(() -> new RuntimeException("Document not found with ID: " + documentId));
 
-            // 2. Upload new file to Supabase
-            String newPublicUrl = storageService.uploadFile(file);
+            // 2. Upload new file to storage (or reuse an identical stored file)
+            String newPublicUrl = blobStorageService.store(file);
+
+            // The document holds one reference per distinct file, so re-uploading content it
+            // already has (current file or an older version) must not add another one
+            if (newPublicUrl.equals(document.getFilePath())
+                    || documentVersionRepository.existsByDocumentDocumentIdAndFilePath(documentId, newPublicUrl)) {
+                blobStorageService.release(newPublicUrl);
+            }
 
             // 3. Get user who is making the update
             User editor = userRepository.findById(userId)
@@ -212,7 +338,8 @@ public class DocumentServiceImpl implements DocumentService {
             String title,
             String description,
             List<Long> categoryIds,
-            Long courseId) {
+            Long courseId,
+            Long userId) {
 
         // 1. Get existing document
         Document document = documentRepository.findById(documentId)
@@ -238,7 +365,10 @@ public class DocumentServiceImpl implements DocumentService {
             }
 
             // Update categories
+            // The category links live in the join table, so touch updatedAt to make the document itself
+            // dirty: otherwise no update event fires and the facet index never sees the change
             document.setCategories(categories);
+            document.setUpdatedAt(LocalDateTime.now());
         }
 
         // 5. Update course if provided
@@ -265,6 +395,11 @@ public class DocumentServiceImpl implements DocumentService {
             );
         }
 
+        // 8. Let the document's followers (but not the user editing it) know, once committed and off the request thread
+        if (Boolean.TRUE.equals(updatedDocument.getIsApproved())) {
+            notificationFanoutService.documentUpdated(updatedDocument, userId);
+        }
+
         log.info("Document metadata updated for document ID: {}", documentId);
         return new DocumentResponseDto(updatedDocument);
     }
@@ -275,26 +410,23 @@ public class DocumentServiceImpl implements DocumentService {
         Document document = documentRepository.findById(documentId)
                 .orElseThrow(() -> new RuntimeException("Document not found with ID: " + documentId));
 
-        // 2. Delete from storage (optional - decide based on your requirements)
-        try {
-            storageService.deleteFile(document.getFilePath());
+        // 2. Release the document's stored files
+        // Files no other document references are queued in the deletion outbox and removed after commit
+        Set<String> filePaths = new LinkedHashSet<>();
+        filePaths.add(document.getFilePath());
 
-            // If deleting all versions, delete all version files too
-            if (deleteAllVersions) {
-                List<DocumentVersion> versions = documentVersionRepository
-                        .findByDocumentDocumentIdOrderByVersionNumberDesc(documentId);
+        // If deleting all versions, delete all version files too
+        if (deleteAllVersions) {
+            List<DocumentVersion> versions = documentVersionRepository
+                    .findByDocumentDocumentIdOrderByVersionNumberDesc(documentId);
 
-                for (DocumentVersion version : versions) {
-                    if (!version.getFilePath().equals(document.getFilePath())) {
-                        storageService.deleteFile(version.getFilePath());
-                    }
-                }
+            for (DocumentVersion version : versions) {
+                filePaths.add(version.getFilePath());
             }
-        } catch (IOException e) {
-            log.warn("Failed to delete file from storage: {}", e.getMessage());
-            // Continue with database deletion even if storage deletion fails
         }
 
+        filePaths.forEach(blobStorageService::release);
+
         // 3. Delete document versions if requested
         if (deleteAllVersions) {
             documentVersionRepository.deleteByDocumentDocumentId(documentId);
@@ -321,13 +453,12 @@ public class DocumentServiceImpl implements DocumentService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<DocumentResponseDto> getDocumentsByUser(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
-        List<Document> documents = documentRepository.findByUploadedByUserId(user.getUserId());
-        return documents.stream()
-                .map(DocumentResponseDto::new)
-                .collect(Collectors.toList());
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found with ID: " + userId);
+        }
+        return documentRepository.findSummariesByUploader(userId);
     }
 
     @Override
@@ -345,6 +476,9 @@ public class DocumentServiceImpl implements DocumentService {
         Document approved = documentRepository.save(document);
         log.info("Document approved. ID: {}, Approved by: {}", documentId, approver.getUsername());
 
+        // Notifications go out once committed and off the request thread
+        notificationFanoutService.documentApproved(approved, approver.getUserId());
+
         return new DocumentResponseDto(approved);
     }
 
@@ -364,19 +498,14 @@ public class DocumentServiceImpl implements DocumentService {
     }
 
     // Get only approved documents (for public access)
+    @Transactional(readOnly = true)
     public List<DocumentResponseDto> getApprovedDocuments() {
-        List<Document> documents = documentRepository.findByIsApprovedTrue();
-        return documents.stream()
-                .map(DocumentResponseDto::new)
-                .collect(Collectors.toList());
+        return documentRepository.findApprovedSummaries();
     }
 
-    // Search documents by title
+    // Search documents by title and description, best matches first
     public List<DocumentResponseDto> searchDocuments(String keyword) {
-        List<Document> documents = documentRepository.findByTitleContainingIgnoreCase(keyword);
-        return documents.stream()
-                .map(DocumentResponseDto::new)
-                .collect(Collectors.toList());
+        return documentSearchService.search(keyword, SEARCH_RESULT_LIMIT);
     }
 
     // Simple file type detection
@@ -1,10 +1,12 @@
 package app.mobile.BK_sharing.document.controller;
 
-import app.mobile.BK_sharing.document.entity.DocumentVersion;
+import app.mobile.BK_sharing.document.dto.DocumentVersionDto;
 import app.mobile.BK_sharing.document.service.DocumentVersionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -15,24 +17,34 @@ public class DocumentVersionController {
 
     private final DocumentVersionService documentVersionService;
 
-    // Get all versions for a document
+    // Get all versions for a document; 304 if none were added since the client's copy (If-None-Match)
     @GetMapping("/document/{documentId}")
-    public ResponseEntity<List<DocumentVersion>> getDocumentVersions(@PathVariable Long documentId) {
-        List<DocumentVersion> versions = documentVersionService.getVersionsByDocumentId(documentId);
-        return ResponseEntity.ok(versions);
+    public ResponseEntity<List<DocumentVersionDto>> getDocumentVersions(@PathVariable Long documentId, WebRequest webRequest) {
+        String eTag = documentVersionService.getVersionsStamp(documentId).eTag("versions-" + documentId);
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
+        List<DocumentVersionDto> versions = documentVersionService.getVersionsByDocumentId(documentId).stream()
+                .map(DocumentVersionDto::fromEntity)
+                .toList();
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(versions);
     }
 
     // Get specific version
     @GetMapping("/{versionId}")
-    public ResponseEntity<DocumentVersion> getVersionById(@PathVariable Long versionId) {
-        DocumentVersion version = documentVersionService.getVersionById(versionId);
+    public ResponseEntity<DocumentVersionDto> getVersionById(@PathVariable Long versionId) {
+        DocumentVersionDto version = DocumentVersionDto.fromEntity(documentVersionService.getVersionById(versionId));
         return ResponseEntity.ok(version);
     }
 
     // Get latest version for a document
     @GetMapping("/document/{documentId}/latest")
-    public ResponseEntity<DocumentVersion> getLatestVersion(@PathVariable Long documentId) {
-        DocumentVersion latestVersion = documentVersionService.getLatestVersion(documentId);
+    public ResponseEntity<DocumentVersionDto> getLatestVersion(@PathVariable Long documentId) {
+        DocumentVersionDto latestVersion = DocumentVersionDto.fromEntity(documentVersionService.getLatestVersion(documentId));
         return ResponseEntity.ok(latestVersion);
     }
 
@@ -3,6 +3,7 @@ package app.mobile.BK_sharing.document.service;
 import app.mobile.BK_sharing.document.entity.Document;
 import app.mobile.BK_sharing.document.entity.DocumentVersion;
 import app.mobile.BK_sharing.document.repository.DocumentVersionRepository;
+import app.mobile.BK_sharing.dto.ChangeStamp;
 import app.mobile.BK_sharing.user.User;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
@@ -61,6 +62,11 @@ public class DocumentVersionService {
         return documentVersionRepository.findByDocumentDocumentIdOrderByVersionNumberDesc(documentId);
     }
 
+    @Transactional(readOnly = true)
+    public ChangeStamp getVersionsStamp(Long documentId) {
+        return documentVersionRepository.findChangeStampByDocumentId(documentId);
+    }
+
     @Transactional(readOnly = true)
     public DocumentVersion getVersionById(Long versionId) {
         return documentVersionRepository.findById(versionId)
@@ -0,0 +1,240 @@
+package app.mobile.BK_sharing.document;
+
+import app.mobile.BK_sharing.document.entity.DocumentInteraction;
+import app.mobile.BK_sharing.document.repository.DocumentInteractionRepository;
+import app.mobile.BK_sharing.document.repository.DocumentRepository;
+import app.mobile.BK_sharing.trending.TrendingService;
+import app.mobile.BK_sharing.user.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records document views and downloads without a database write on the request thread.
+ * Events go into a bounded in-memory queue and a single flusher thread writes them in batches,
+ * as soon as {@code app.interactions.batch-size} events are waiting or {@code app.interactions.flush-interval}
+ * has passed since the first one arrived.
+ * <p>
+ * When the queue is full new events are rejected rather than blocking the caller, and counted as dropped.
+ * Accepted events are also counted right away by {@link InteractionRollupService}, and stored ones are
+ * scored by {@link TrendingService}.
+ * Events still queued when the application stops are written before shutdown; events queued when the
+ * process dies are lost, which is acceptable for view counts.
+ */
+@Service
+@Slf4j
+public class InteractionIngestService {
+
+    // How long shutdown waits for the last batches on top of one flush interval
+    private static final Duration SHUTDOWN_GRACE = Duration.ofSeconds(10);
+
+    public record InteractionEvent(Long documentId, Long userId, DocumentInteraction.InteractionType type, LocalDateTime at) {
+    }
+
+    private final DocumentInteractionRepository interactionRepository;
+    private final DocumentRepository documentRepository;
+    private final UserRepository userRepository;
+    private final InteractionRollupService rollupService;
+    private final TrendingService trendingService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<InteractionEvent> queue;
+    private final int batchSize;
+    private final Duration flushInterval;
+
+    private final Counter accepted;
+    private final Counter dropped;
+    private final Counter persisted;
+    private final Counter failed;
+    private final Timer flushTimer;
+
+    // Drops since the flusher last reported them, so a full queue logs once per flush rather than once per event
+    private final AtomicLong unreportedDrops = new AtomicLong();
+
+    private Thread flusher;
+    private volatile boolean running;
+
+    public InteractionIngestService(DocumentInteractionRepository interactionRepository,
+                                    DocumentRepository documentRepository,
+                                    UserRepository userRepository,
+                                    InteractionRollupService rollupService,
+                                    TrendingService trendingService,
+                                    TransactionTemplate transactionTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.interactions.queue-capacity:65536}") int queueCapacity,
+                                    @Value("${app.interactions.batch-size:500}") int batchSize,
+                                    @Value("${app.interactions.flush-interval:1s}") Duration flushInterval) {
+        this.interactionRepository = interactionRepository;
+        this.documentRepository = documentRepository;
+        this.userRepository = userRepository;
+        this.rollupService = rollupService;
+        this.trendingService = trendingService;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+
+        this.accepted = meterRegistry.counter("interactions.ingest.events", "result", "accepted");
+        this.dropped = meterRegistry.counter("interactions.ingest.events", "result", "dropped");
+        this.persisted = meterRegistry.counter("interactions.ingest.events", "result", "persisted");
+        this.failed = meterRegistry.counter("interactions.ingest.events", "result", "failed");
+        this.flushTimer = meterRegistry.timer("interactions.ingest.flush");
+        Gauge.builder("interactions.ingest.queue.size", queue, BlockingQueue::size)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = new Thread(this::run, "interaction-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (flusher != null) {
+            // The flusher wakes up within one flush interval, then writes whatever is left
+            flusher.join(flushInterval.plus(SHUTDOWN_GRACE).toMillis());
+        }
+    }
+
+    /**
+     * Queues an interaction for the next batch. Returns false, without waiting, when the queue is full.
+     */
+    public boolean record(Long documentId, Long userId, DocumentInteraction.InteractionType type) {
+        InteractionEvent event = new InteractionEvent(documentId, userId, type, LocalDateTime.now());
+        if (queue.offer(event)) {
+            accepted.increment();
+            rollupService.add(event);
+            return true;
+        }
+        dropped.increment();
+        unreportedDrops.incrementAndGet();
+        return false;
+    }
+
+    public boolean documentExists(Long documentId) {
+        return documentRepository.existsById(documentId);
+    }
+
+    // How long a client turned away by a full queue should wait: at least one flush
+    public Duration retryAfter() {
+        return flushInterval;
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<InteractionEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            write(batch);
+        }
+
+        // Shutting down: write out the rest of the queue
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+        }
+    }
+
+    // Helper method to fill the batch until it is full or one flush interval has passed since the first event
+    private void collect(List<InteractionEvent> batch) throws InterruptedException {
+        InteractionEvent first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+
+        long deadline = System.nanoTime() + flushInterval.toNanos();
+        while (running && batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                break;
+            }
+            InteractionEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void write(List<InteractionEvent> batch) {
+        long drops = unreportedDrops.getAndSet(0);
+        if (drops > 0) {
+            log.warn("Dropped {} interaction event(s): queue full ({} waiting)", drops, queue.size());
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<InteractionEvent> stored = flushTimer.record(() -> store(batch));
+        trendingService.record(stored);
+        batch.clear();
+    }
+
+    // Helper method to insert a batch, returning the events that were stored
+    private List<InteractionEvent> store(List<InteractionEvent> batch) {
+        try {
+            save(batch);
+            persisted.increment(batch.size());
+            return List.copyOf(batch);
+        } catch (RuntimeException e) {
+            // One bad event (document deleted meanwhile, unknown user) fails the whole batch: keep the rest
+            log.warn("Batch of {} interaction(s) failed, retrying one by one: {}", batch.size(), e.getMessage());
+            List<InteractionEvent> stored = new ArrayList<>(batch.size());
+            for (InteractionEvent event : batch) {
+                try {
+                    save(List.of(event));
+                    persisted.increment();
+                    stored.add(event);
+                } catch (RuntimeException ex) {
+                    failed.increment();
+                    rollupService.discard(event);
+                    log.debug("Discarding interaction {}: {}", event, ex.getMessage());
+                }
+            }
+            return stored;
+        }
+    }
+
+    // Helper method to insert events in one transaction; references avoid loading the document and user rows
+    private void save(List<InteractionEvent> events) {
+        transactionTemplate.executeWithoutResult(status -> interactionRepository.saveAll(events.stream()
+                .map(event -> {
+                    DocumentInteraction interaction = new DocumentInteraction();
+                    interaction.setDocument(documentRepository.getReferenceById(event.documentId()));
+                    interaction.setUser(userRepository.getReferenceById(event.userId()));
+                    interaction.setInteractionType(event.type());
+                    interaction.setInteractionAt(event.at());
+                    return interaction;
+                })
+                .toList()));
+    }
+}
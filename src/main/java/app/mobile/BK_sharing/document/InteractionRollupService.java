@@ -0,0 +1,234 @@
+package app.mobile.BK_sharing.document;
+
+import app.mobile.BK_sharing.document.dto.DailyStatsDto;
+import app.mobile.BK_sharing.document.dto.DocumentResponseDto;
+import app.mobile.BK_sharing.document.dto.DocumentStatsDto;
+import app.mobile.BK_sharing.document.dto.PopularDocumentDto;
+import app.mobile.BK_sharing.document.entity.DocumentDailyStats;
+import app.mobile.BK_sharing.document.entity.DocumentInteraction;
+import app.mobile.BK_sharing.document.repository.DocumentDailyStatsRepository;
+import app.mobile.BK_sharing.document.repository.DocumentInteractionRepository;
+import app.mobile.BK_sharing.document.repository.DocumentRepository;
+import app.mobile.BK_sharing.search.SearchIndexService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Per-document, per-day view/download counters (document_daily_stats).
+ * Every accepted interaction is counted in memory on the request thread with {@link LongAdder}s, which
+ * stay cheap under contention, and the deltas are added to the table every {@code app.interactions.rollup.flush-interval}.
+ * Popularity and view/download statistics read the table, never document_interaction.
+ * <p>
+ * Unique users cannot be added up the same way: every node sees only its own users, and a user active on
+ * two days is one user over the range. They are counted with COUNT(DISTINCT) over the stored interactions
+ * of the one document asked for, so they lag the other counts until the ingest flusher has stored the events.
+ * Deltas not yet flushed when the process dies are lost.
+ */
+@Service
+@Slf4j
+public class InteractionRollupService {
+
+    private static final int MAX_DAYS = 365;
+
+    private final DocumentDailyStatsRepository dailyStatsRepository;
+    private final DocumentInteractionRepository interactionRepository;
+    private final DocumentRepository documentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    private final Counter flushedRows;
+
+    private final ConcurrentHashMap<DocumentDailyStats.Key, Counters> pending = new ConcurrentHashMap<>();
+
+    // Counts not yet written to document_daily_stats
+    private static final class Counters {
+        final LongAdder views = new LongAdder();
+        final LongAdder downloads = new LongAdder();
+    }
+
+    public InteractionRollupService(DocumentDailyStatsRepository dailyStatsRepository,
+                                    DocumentInteractionRepository interactionRepository,
+                                    DocumentRepository documentRepository,
+                                    TransactionTemplate transactionTemplate,
+                                    EntityManager entityManager,
+                                    MeterRegistry meterRegistry) {
+        this.dailyStatsRepository = dailyStatsRepository;
+        this.interactionRepository = interactionRepository;
+        this.documentRepository = documentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.flushedRows = meterRegistry.counter("interactions.rollup.flushed");
+    }
+
+    /**
+     * Counts an accepted interaction.
+     */
+    public void add(InteractionIngestService.InteractionEvent event) {
+        Counters counters = counters(event.documentId(), event.at().toLocalDate());
+        (event.type() == DocumentInteraction.InteractionType.Download ? counters.downloads : counters.views).increment();
+    }
+
+    /**
+     * Takes back the view or download of an interaction that could not be stored.
+     */
+    public void discard(InteractionIngestService.InteractionEvent event) {
+        Counters counters = counters(event.documentId(), event.at().toLocalDate());
+        (event.type() == DocumentInteraction.InteractionType.Download ? counters.downloads : counters.views).decrement();
+    }
+
+    private Counters counters(Long documentId, LocalDate day) {
+        return pending.computeIfAbsent(new DocumentDailyStats.Key(documentId, day), key -> new Counters());
+    }
+
+    @Scheduled(fixedDelayString = "${app.interactions.rollup.flush-interval:10s}")
+    @PreDestroy
+    public synchronized void flush() {
+        // 1. Take the deltas; increments racing with this land in the next flush.
+        // Counters of past days get no more events and go; each is removed before it is read, so a late event
+        // for that day lands in new counters instead of ones nobody reads again
+        LocalDate today = LocalDate.now();
+        Map<DocumentDailyStats.Key, long[]> deltas = new HashMap<>();
+        pending.forEach((key, counters) -> {
+            if (key.getStatDate().isBefore(today)) {
+                pending.remove(key, counters);
+            }
+            long[] delta = {counters.views.sumThenReset(), counters.downloads.sumThenReset()};
+            if (delta[0] != 0 || delta[1] != 0) {
+                deltas.put(key, delta);
+            }
+        });
+
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        // 2. Add them to the stored rows; if that fails, keep them for the next flush
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(deltas));
+            flushedRows.increment(deltas.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush {} interaction rollup(s), retrying later: {}", deltas.size(), e.getMessage());
+            deltas.forEach((key, delta) -> {
+                Counters counters = pending.computeIfAbsent(key, k -> new Counters());
+                counters.views.add(delta[0]);
+                counters.downloads.add(delta[1]);
+            });
+        }
+    }
+
+    // Helper method to increment existing rows (one locked select, batched updates) and insert the missing ones
+    private void apply(Map<DocumentDailyStats.Key, long[]> deltas) {
+        Set<Long> documentIds = deltas.keySet().stream().map(DocumentDailyStats.Key::getDocumentId).collect(Collectors.toSet());
+        Set<LocalDate> days = deltas.keySet().stream().map(DocumentDailyStats.Key::getStatDate).collect(Collectors.toSet());
+        Map<DocumentDailyStats.Key, DocumentDailyStats> existing = dailyStatsRepository.findForUpdate(documentIds, days).stream()
+                .collect(Collectors.toMap(DocumentDailyStats::getId, Function.identity()));
+
+        deltas.forEach((key, delta) -> {
+            DocumentDailyStats stats = existing.get(key);
+            if (stats == null) {
+                entityManager.persist(new DocumentDailyStats(key, delta[0], delta[1]));
+            } else {
+                stats.setViews(stats.getViews() + delta[0]);
+                stats.setDownloads(stats.getDownloads() + delta[1]);
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public DocumentStatsDto getDocumentStats(Long documentId, int days) {
+        if (days < 1 || days > MAX_DAYS) {
+            throw new IllegalArgumentException("Days must be between 1 and " + MAX_DAYS);
+        }
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(days - 1);
+
+        // 1. Stored rollups
+        TreeMap<LocalDate, DailyStatsDto> byDay = new TreeMap<>();
+        for (DocumentDailyStats stats : dailyStatsRepository.findByDocumentIdAndDays(documentId, from, to)) {
+            byDay.put(stats.getId().getStatDate(),
+                    new DailyStatsDto(stats.getId().getStatDate(), stats.getViews(), stats.getDownloads(), 0));
+        }
+
+        // 2. Plus what has not been flushed yet
+        pending.forEach((key, counters) -> {
+            LocalDate day = key.getStatDate();
+            if (key.getDocumentId().equals(documentId) && !day.isBefore(from) && !day.isAfter(to)) {
+                DailyStatsDto stats = byDay.computeIfAbsent(day, d -> new DailyStatsDto(d, 0, 0, 0));
+                stats.setViews(stats.getViews() + counters.views.sum());
+                stats.setDownloads(stats.getDownloads() + counters.downloads.sum());
+            }
+        });
+
+        // 3. Distinct users from the stored interactions, per day and over the whole range
+        LocalDateTime since = from.atStartOfDay();
+        for (Object[] row : interactionRepository.countUsersPerDaySince(documentId, since)) {
+            DailyStatsDto stats = byDay.get((LocalDate) row[0]);
+            if (stats != null) {
+                stats.setUniqueUsers((Long) row[1]);
+            }
+        }
+
+        List<DailyStatsDto> activeDays = byDay.values().stream()
+                .filter(stats -> stats.getViews() > 0 || stats.getDownloads() > 0)
+                .toList();
+        return new DocumentStatsDto(documentId, from, to,
+                activeDays.stream().mapToLong(DailyStatsDto::getViews).sum(),
+                activeDays.stream().mapToLong(DailyStatsDto::getDownloads).sum(),
+                interactionRepository.countUsersSince(documentId, since),
+                activeDays);
+    }
+
+    /**
+     * Approved documents with the most downloads (or views) over the last {@code days} days, from the rollups.
+     */
+    @Transactional(readOnly = true)
+    public List<PopularDocumentDto> getPopularDocuments(int days, DocumentInteraction.InteractionType rankBy, int limit) {
+        if (days < 1 || days > MAX_DAYS) {
+            throw new IllegalArgumentException("Days must be between 1 and " + MAX_DAYS);
+        }
+        LocalDate from = LocalDate.now().minusDays(days - 1);
+        PageRequest top = PageRequest.of(0, limit);
+        List<Object[]> ranked = rankBy == DocumentInteraction.InteractionType.View
+                ? dailyStatsRepository.findMostViewedSince(from, top)
+                : dailyStatsRepository.findMostDownloadedSince(from, top);
+        if (ranked.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> documentIds = new ArrayList<>(ranked.size());
+        Map<Long, Object[]> countsById = new HashMap<>();
+        for (Object[] row : ranked) {
+            documentIds.add((Long) row[0]);
+            countsById.put((Long) row[0], row);
+        }
+
+        return SearchIndexService.inRankOrder(documentIds, documentRepository.findSummariesByIds(documentIds),
+                        DocumentResponseDto::getDocumentId).stream()
+                .map(document -> {
+                    Object[] counts = countsById.get(document.getDocumentId());
+                    return new PopularDocumentDto(document, ((Number) counts[1]).longValue(), ((Number) counts[2]).longValue());
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,34 @@
+package app.mobile.BK_sharing.document.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CreateUploadSessionRequest {
+    @NotBlank(message = "File name is required")
+    private String fileName;
+
+    private String contentType;
+
+    @NotNull(message = "Total size is required")
+    @Positive(message = "Total size must be positive")
+    private Long totalSize;
+
+    private Integer chunkSize; // Optional, the server default is used when missing
+
+    @NotBlank(message = "Title is required")
+    private String title;
+
+    private String description;
+
+    private List<Long> categoryIds; // Multiple categories
+
+    private Long courseId; // Single course
+
+    @NotNull(message = "User ID is required")
+    private Long userId;
+}
@@ -0,0 +1,17 @@
+package app.mobile.BK_sharing.document.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyStatsDto {
+    private LocalDate date;
+    private long views;
+    private long downloads;
+    private long uniqueUsers; // Distinct users that day
+}
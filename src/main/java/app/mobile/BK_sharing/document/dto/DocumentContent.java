@@ -0,0 +1,14 @@
+package app.mobile.BK_sharing.document.dto;
+
+import org.springframework.http.MediaType;
+
+import java.time.Instant;
+
+// What the content endpoint needs to answer conditional requests before any bytes are read
+public record DocumentContent(
+        String fileUrl,
+        String fileName,
+        MediaType contentType,
+        String eTag,
+        Instant lastModified) {
+}
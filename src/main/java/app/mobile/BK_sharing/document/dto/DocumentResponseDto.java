@@ -21,6 +21,28 @@ public class DocumentResponseDto {
     private List<DocumentVersion> versions; // Add versions
     private Integer versionCount;
 
+    // Constructor used by the listing projections in DocumentRepository (no entity is loaded)
+    public DocumentResponseDto(
+            Long documentId,
+            String title,
+            String description,
+            Document.FileType fileType,
+            String filePath,
+            Long fileSize,
+            Long uploadedById,
+            String uploadedByUsername,
+            LocalDateTime createdAt) {
+        this.documentId = documentId;
+        this.title = title;
+        this.description = description;
+        this.fileType = fileType.name();
+        this.filePath = filePath;
+        this.fileSize = fileSize;
+        this.uploadedById = uploadedById;
+        this.uploadedByUsername = uploadedByUsername;
+        this.createdAt = createdAt;
+    }
+
     // Add constructor from Document entity
     public DocumentResponseDto(Document document) {
         this.documentId = document.getDocumentId();
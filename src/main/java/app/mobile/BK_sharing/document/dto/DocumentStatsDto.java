@@ -0,0 +1,21 @@
+package app.mobile.BK_sharing.document.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentStatsDto {
+    private Long documentId;
+    private LocalDate from;
+    private LocalDate to;
+    private long views;
+    private long downloads;
+    private long uniqueUsers; // Distinct users over the whole range, so a user active on two days counts once
+    private List<DailyStatsDto> days; // Only days with activity, oldest first
+}
@@ -0,0 +1,29 @@
+package app.mobile.BK_sharing.document.dto;
+
+import app.mobile.BK_sharing.document.entity.DocumentVersion;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A document version without its document and editor entities
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentVersionDto {
+    private Long versionId;
+    private Long documentId;
+    private Integer versionNumber;
+    private String filePath;
+    private Long editedById;
+    private LocalDateTime editedAt;
+    private String changeDescription;
+    private Long fileSize;
+
+    public static DocumentVersionDto fromEntity(DocumentVersion version) {
+        return new DocumentVersionDto(version.getVersionId(), version.getDocument().getDocumentId(),
+                version.getVersionNumber(), version.getFilePath(), version.getEditedBy().getUserId(),
+                version.getEditedAt(), version.getChangeDescription(), version.getFileSize());
+    }
+}
@@ -0,0 +1,14 @@
+package app.mobile.BK_sharing.document.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PopularDocumentDto {
+    private DocumentResponseDto document;
+    private long views;
+    private long downloads;
+}
@@ -0,0 +1,14 @@
+package app.mobile.BK_sharing.document.dto;
+
+import app.mobile.BK_sharing.document.entity.DocumentInteraction;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class RecordInteractionRequest {
+    @NotNull(message = "User ID is required")
+    private Long userId;
+
+    @NotNull(message = "Interaction type is required")
+    private DocumentInteraction.InteractionType type; // View or Download
+}
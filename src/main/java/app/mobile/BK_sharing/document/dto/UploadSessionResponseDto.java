@@ -0,0 +1,34 @@
+package app.mobile.BK_sharing.document.dto;
+
+import app.mobile.BK_sharing.document.entity.UploadSession;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class UploadSessionResponseDto {
+    private String sessionId;
+    private String fileName;
+    private Long totalSize;
+    private Integer chunkSize;
+    private Integer chunkCount;
+    private Integer receivedChunks;
+    private List<Integer> missingChunks; // Chunks the client still has to send (or resend)
+    private String status;
+    private Long documentId;
+    private LocalDateTime expiresAt;
+
+    public UploadSessionResponseDto(UploadSession session, List<Integer> missingChunks) {
+        this.sessionId = session.getSessionId();
+        this.fileName = session.getFileName();
+        this.totalSize = session.getTotalSize();
+        this.chunkSize = session.getChunkSize();
+        this.chunkCount = session.getChunkCount();
+        this.receivedChunks = session.getChunkCount() - missingChunks.size();
+        this.missingChunks = missingChunks;
+        this.status = session.getStatus().name();
+        this.documentId = session.getDocumentId();
+        this.expiresAt = session.getExpiresAt();
+    }
+}
@@ -2,7 +2,9 @@ package app.mobile.BK_sharing.document.entity;
 
 import app.mobile.BK_sharing.category.Category;
 import app.mobile.BK_sharing.course.Course;
+import app.mobile.BK_sharing.search.SearchIndexListener;
 import app.mobile.BK_sharing.user.User;
+import app.mobile.BK_sharing.utils.TextNormalizer;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -17,15 +19,24 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "document")
+@EntityListeners(SearchIndexListener.class)
+@Table(name = "document", indexes = {
+        // Keyset feeds (see DocumentRepository.findFeed*)
+        @Index(name = "idx_document_feed", columnList = "created_at DESC, document_id DESC"),
+        @Index(name = "idx_document_uploader_feed", columnList = "uploaded_by, created_at DESC, document_id DESC"),
+        @Index(name = "idx_document_course_feed", columnList = "course_id, created_at DESC, document_id DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Document {
 
+    // Pooled sequence instead of IDENTITY: ids are handed out 50 at a time without a round trip each,
+    // which lets Hibernate batch the inserts (see hibernate.jdbc.batch_size)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "document_seq")
+    @SequenceGenerator(name = "document_seq", sequenceName = "document_seq", allocationSize = 50)
     @Column(name = "document_id")
     private Long documentId;
 
@@ -49,7 +60,9 @@ public class Document {
     @JoinTable(
             name = "document_categories",  // Join table name
             joinColumns = @JoinColumn(name = "document_id"),  // This entity's key
-            inverseJoinColumns = @JoinColumn(name = "category_id")  // Other entity's key
+            inverseJoinColumns = @JoinColumn(name = "category_id"),  // Other entity's key
+            // Serves the category EXISTS filter and feed without touching document rows
+            indexes = @Index(name = "idx_document_categories_category", columnList = "category_id, document_id")
     )
     private List<Category> categories = new ArrayList<>();
 
@@ -68,6 +81,16 @@ public class Document {
     @JoinColumn(name = "approved_by", referencedColumnName = "user_id")
     private User approvedBy;
 
+    // Folded copies of title and description for full-text search (see DocumentSearchService).
+    // On PostgreSQL a generated tsvector column and GIN index are built from them.
+    @JsonIgnore
+    @Column(name = "search_title", length = 255)
+    private String searchTitle;
+
+    @JsonIgnore
+    @Column(name = "search_description", columnDefinition = "TEXT")
+    private String searchDescription;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -76,6 +99,13 @@ public class Document {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    @PrePersist
+    @PreUpdate
+    public void updateSearchText() {
+        this.searchTitle = TextNormalizer.fold(title);
+        this.searchDescription = TextNormalizer.fold(description);
+    }
+
     // Enum for file type
     public enum FileType {
         PDF("PDF"),
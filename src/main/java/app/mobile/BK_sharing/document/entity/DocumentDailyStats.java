@@ -0,0 +1,43 @@
+package app.mobile.BK_sharing.document.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// Per-document, per-day interaction counts kept up to date by InteractionRollupService,
+// so popularity queries never count document_interaction rows
+@Entity
+@Table(name = "document_daily_stats", indexes = {
+        @Index(name = "idx_document_daily_stats_day", columnList = "stat_date, document_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentDailyStats {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "views", nullable = false)
+    private long views;
+
+    @Column(name = "downloads", nullable = false)
+    private long downloads;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = "document_id", nullable = false)
+        private Long documentId;
+
+        @Column(name = "stat_date", nullable = false)
+        private LocalDate statDate;
+    }
+}
@@ -5,7 +5,6 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
@@ -16,8 +15,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class DocumentInteraction {
 
+    // Pooled sequence so inserts can be batched (see Document)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "document_interaction_seq")
+    @SequenceGenerator(name = "document_interaction_seq", sequenceName = "document_interaction_seq", allocationSize = 50)
     @Column(name = "interaction_id")
     private Long interactionId;
 
@@ -33,10 +34,17 @@ public class DocumentInteraction {
     @Column(name = "interaction_type", nullable = false)
     private InteractionType interactionType;
 
-    @CreationTimestamp
+    // When the interaction happened, which for queued events is earlier than the insert
     @Column(name = "interaction_at", nullable = false)
     private LocalDateTime interactionAt;
 
+    @PrePersist
+    public void defaultInteractionAt() {
+        if (interactionAt == null) {
+            interactionAt = LocalDateTime.now();
+        }
+    }
+
     // Enum for interaction type
     public enum InteractionType {
         View("View"),
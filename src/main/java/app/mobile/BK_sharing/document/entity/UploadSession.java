@@ -0,0 +1,73 @@
+package app.mobile.BK_sharing.document.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+// A resumable upload: the file arrives as numbered chunks on disk and becomes a document on commit
+@Entity
+@Table(name = "upload_session")
+@Data
+@NoArgsConstructor
+public class UploadSession {
+
+    @Id
+    @Column(name = "session_id", length = 36)
+    private String sessionId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "title", nullable = false, length = 255)
+    private String title;
+
+    @Column(name = "description", columnDefinition = "TEXT")
+    private String description;
+
+    // Comma separated category IDs
+    @Column(name = "category_ids", length = 500)
+    private String categoryIds;
+
+    @Column(name = "course_id")
+    private Long courseId;
+
+    @Column(name = "file_name", nullable = false, length = 255)
+    private String fileName;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "total_size", nullable = false)
+    private Long totalSize;
+
+    @Column(name = "chunk_size", nullable = false)
+    private Integer chunkSize;
+
+    @Column(name = "chunk_count", nullable = false)
+    private Integer chunkCount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status = Status.ACTIVE;
+
+    // Set once the session is committed
+    @Column(name = "document_id")
+    private Long documentId;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public enum Status {
+        ACTIVE,
+        // Claimed by the commit request that is turning it into a document
+        COMMITTING,
+        COMMITTED
+    }
+}
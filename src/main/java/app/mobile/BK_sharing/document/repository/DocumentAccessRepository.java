@@ -2,6 +2,8 @@ package app.mobile.BK_sharing.document.repository;
 
 import app.mobile.BK_sharing.document.entity.DocumentAccess;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -21,4 +23,9 @@ public interface DocumentAccessRepository extends JpaRepository<DocumentAccess,
     List<DocumentAccess> findByGrantedByUserId(Integer userId);
 
     void deleteByDocumentDocumentIdAndUserUserId(Integer documentId, Integer userId);
+
+    // Active users allowed to view the document
+    @Query("SELECT a.user.userId FROM DocumentAccess a " +
+            "WHERE a.document.documentId = :documentId AND a.canView = true AND a.user.isActive = true")
+    List<Long> findActiveViewerIds(@Param("documentId") Long documentId);
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package app.mobile.BK_sharing.document.repository;
+
+import app.mobile.BK_sharing.document.entity.DocumentDailyStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DocumentDailyStatsRepository extends JpaRepository<DocumentDailyStats, DocumentDailyStats.Key> {
+
+    @Query("SELECT s FROM DocumentDailyStats s WHERE s.id.documentId = :documentId " +
+            "AND s.id.statDate BETWEEN :from AND :to ORDER BY s.id.statDate")
+    List<DocumentDailyStats> findByDocumentIdAndDays(
+            @Param("documentId") Long documentId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    // Everything since a day, to rebuild the trending scores on startup
+    @Query("SELECT s FROM DocumentDailyStats s WHERE s.id.statDate >= :from")
+    List<DocumentDailyStats> findSince(@Param("from") LocalDate from);
+
+    // Rows a rollup flush is about to increment, locked so that concurrent flushes from other instances queue up
+    // behind each other instead of overwriting each other's counts. May return extra rows; callers match by key.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM DocumentDailyStats s WHERE s.id.documentId IN :documentIds AND s.id.statDate IN :days")
+    List<DocumentDailyStats> findForUpdate(
+            @Param("documentIds") Collection<Long> documentIds,
+            @Param("days") Collection<LocalDate> days);
+
+    // Approved documents ranked by downloads (then views) since a day: [documentId, views, downloads]
+    @Query("SELECT s.id.documentId, SUM(s.views), SUM(s.downloads) FROM DocumentDailyStats s, Document d " +
+            "WHERE d.documentId = s.id.documentId AND d.isApproved = true AND s.id.statDate >= :from " +
+            "GROUP BY s.id.documentId ORDER BY SUM(s.downloads) DESC, SUM(s.views) DESC, s.id.documentId DESC")
+    List<Object[]> findMostDownloadedSince(@Param("from") LocalDate from, Pageable pageable);
+
+    // Approved documents ranked by views (then downloads) since a day: [documentId, views, downloads]
+    @Query("SELECT s.id.documentId, SUM(s.views), SUM(s.downloads) FROM DocumentDailyStats s, Document d " +
+            "WHERE d.documentId = s.id.documentId AND d.isApproved = true AND s.id.statDate >= :from " +
+            "GROUP BY s.id.documentId ORDER BY SUM(s.views) DESC, SUM(s.downloads) DESC, s.id.documentId DESC")
+    List<Object[]> findMostViewedSince(@Param("from") LocalDate from, Pageable pageable);
+}
@@ -2,27 +2,40 @@ package app.mobile.BK_sharing.document.repository;
 
 import app.mobile.BK_sharing.document.entity.DocumentInteraction;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface DocumentInteractionRepository extends JpaRepository<DocumentInteraction, Integer> {
+public interface DocumentInteractionRepository extends JpaRepository<DocumentInteraction, Long> {
 
-    List<DocumentInteraction> findByDocumentDocumentId(Integer documentId);
+    List<DocumentInteraction> findByDocumentDocumentId(Long documentId);
 
-    List<DocumentInteraction> findByUserUserId(Integer userId);
+    List<DocumentInteraction> findByUserUserId(Long userId);
 
-    Long countByDocumentDocumentId(Integer documentId);
+    Long countByDocumentDocumentId(Long documentId);
 
-    Long countByDocumentDocumentIdAndInteractionType(Integer documentId, DocumentInteraction.InteractionType type);
+    Long countByDocumentDocumentIdAndInteractionType(Long documentId, DocumentInteraction.InteractionType type);
 
-    Long countByUserUserIdAndInteractionType(Integer userId, DocumentInteraction.InteractionType type);
+    Long countByUserUserIdAndInteractionType(Long userId, DocumentInteraction.InteractionType type);
 
     List<DocumentInteraction> findByInteractionAtBetween(LocalDateTime start, LocalDateTime end);
 
-    List<DocumentInteraction> findByDocumentDocumentIdAndInteractionType(Integer documentId, DocumentInteraction.InteractionType type);
+    List<DocumentInteraction> findByDocumentDocumentIdAndInteractionType(Long documentId, DocumentInteraction.InteractionType type);
 
-    List<DocumentInteraction> findByUserUserIdAndInteractionType(Integer userId, DocumentInteraction.InteractionType type);
-}
\ No newline at end of file
+    List<DocumentInteraction> findByUserUserIdAndInteractionType(Long userId, DocumentInteraction.InteractionType type);
+
+    // Distinct users of a document per day since a time: [day, users] (see InteractionRollupService)
+    @Query("SELECT CAST(i.interactionAt AS LocalDate), COUNT(DISTINCT i.user.userId) FROM DocumentInteraction i " +
+            "WHERE i.document.documentId = :documentId AND i.interactionAt >= :since " +
+            "GROUP BY CAST(i.interactionAt AS LocalDate)")
+    List<Object[]> countUsersPerDaySince(@Param("documentId") Long documentId, @Param("since") LocalDateTime since);
+
+    // Distinct users of a document since a time
+    @Query("SELECT COUNT(DISTINCT i.user.userId) FROM DocumentInteraction i " +
+            "WHERE i.document.documentId = :documentId AND i.interactionAt >= :since")
+    long countUsersSince(@Param("documentId") Long documentId, @Param("since") LocalDateTime since);
+}
@@ -1,37 +1,150 @@
 package app.mobile.BK_sharing.document.repository;
 
 import app.mobile.BK_sharing.category.Category;
+import app.mobile.BK_sharing.document.dto.DocumentResponseDto;
 import app.mobile.BK_sharing.document.entity.Document;
+import app.mobile.BK_sharing.dto.ChangeStamp;
 import app.mobile.BK_sharing.user.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface DocumentRepository extends JpaRepository<Document, Long> {
+public interface DocumentRepository extends JpaRepository<Document, Long>, JpaSpecificationExecutor<Document> {
+
+    // Read-only listings select straight into the response DTO: only its columns are read
+    // and no managed entities (or dirty-checking snapshots) are created per row
+    String SUMMARY_SELECT = "SELECT new app.mobile.BK_sharing.document.dto.DocumentResponseDto(" +
+            "d.documentId, d.title, d.description, d.fileType, d.filePath, d.fileSize, " +
+            "u.userId, u.username, d.createdAt) " +
+            "FROM Document d JOIN d.uploadedBy u ";
+
+    @Query(SUMMARY_SELECT)
+    List<DocumentResponseDto> findAllSummaries();
+
+    @Query(value = SUMMARY_SELECT,
+            countQuery = "SELECT COUNT(d) FROM Document d")
+    Page<DocumentResponseDto> findAllSummaries(Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE d.isApproved = true")
+    List<DocumentResponseDto> findApprovedSummaries();
+
+    @Query(SUMMARY_SELECT + "WHERE u.userId = :userId")
+    List<DocumentResponseDto> findSummariesByUploader(@Param("userId") Long userId);
+
+    // Fields loaded into the in-memory suggestion trie (see SearchIndexService); only approved documents are suggested
+    @Query("SELECT d.documentId, d.title FROM Document d WHERE d.isApproved = true")
+    List<Object[]> findSuggestionFields();
+
+    // Fields loaded into the in-memory facet index (see DocumentFacetService)
+    @Query("SELECT d.documentId, c.courseId, d.fileType, d.isApproved FROM Document d LEFT JOIN d.course c")
+    List<Object[]> findFacetFields();
+
+    @Query("SELECT d.documentId, c.courseId, d.fileType, d.isApproved FROM Document d LEFT JOIN d.course c " +
+            "WHERE d.documentId IN :ids")
+    List<Object[]> findFacetFieldsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT d.documentId, c.categoryId FROM Document d JOIN d.categories c")
+    List<Object[]> findCategoryLinks();
+
+    @Query("SELECT d.documentId, c.categoryId FROM Document d JOIN d.categories c WHERE d.documentId IN :ids")
+    List<Object[]> findCategoryLinksByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(SUMMARY_SELECT + "WHERE d.documentId IN :ids")
+    List<DocumentResponseDto> findSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    // Full-text search on PostgreSQL: the GIN index on search_vector finds the matches, ranked with
+    // title words weighted above description words. The tsquery is built by DocumentSearchService.
+    @Query(nativeQuery = true, value = "SELECT d.document_id FROM {h-schema}document d " +
+            "WHERE d.search_vector @@ to_tsquery('simple', :tsquery) " +
+            "ORDER BY ts_rank_cd(d.search_vector, to_tsquery('simple', :tsquery)) DESC, d.created_at DESC " +
+            "LIMIT :limit")
+    List<Long> searchRankedIds(@Param("tsquery") String tsquery, @Param("limit") int limit);
+
+    // Portable fallback for databases without tsvector (H2 in tests): every word must appear, title matches first
+    @Query(SUMMARY_SELECT + "WHERE CONCAT(' ', d.searchTitle, ' ', COALESCE(d.searchDescription, '')) LIKE :pattern " +
+            "ORDER BY CASE WHEN CONCAT(' ', d.searchTitle) LIKE :pattern THEN 0 ELSE 1 END, d.createdAt DESC")
+    List<DocumentResponseDto> searchByFoldedText(@Param("pattern") String pattern, Pageable pageable);
+
+    // Documents saved before search columns existed
+    List<Document> findBySearchTitleIsNull(Pageable pageable);
+
+    // Keyset feeds, newest first: each page starts strictly after the (createdAt, documentId) of the
+    // last row of the previous page, so deep pages cost the same as the first and need no count query.
+    // Pass the page size (plus one, to detect a next page) as an unsorted Pageable.
+    String AFTER_CURSOR = "(d.createdAt < :createdAt OR (d.createdAt = :createdAt AND d.documentId < :documentId)) ";
+    String FEED_ORDER = "ORDER BY d.createdAt DESC, d.documentId DESC";
+
+    @Query(SUMMARY_SELECT + "WHERE " + AFTER_CURSOR + FEED_ORDER)
+    List<DocumentResponseDto> findFeed(
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("documentId") Long documentId,
+            Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE u.userId = :userId AND " + AFTER_CURSOR + FEED_ORDER)
+    List<DocumentResponseDto> findFeedByUploader(
+            @Param("userId") Long userId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("documentId") Long documentId,
+            Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE d.course.courseId = :courseId AND " + AFTER_CURSOR + FEED_ORDER)
+    List<DocumentResponseDto> findFeedByCourse(
+            @Param("courseId") Long courseId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("documentId") Long documentId,
+            Pageable pageable);
+
+    // EXISTS instead of a join so no DISTINCT is needed and the feed order can use the index
+    @Query(SUMMARY_SELECT + "WHERE EXISTS (SELECT 1 FROM d.categories c WHERE c.categoryId = :categoryId) AND "
+            + AFTER_CURSOR + FEED_ORDER)
+    List<DocumentResponseDto> findFeedByCategory(
+            @Param("categoryId") Long categoryId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("documentId") Long documentId,
+            Pageable pageable);
+
+    // List queries fetch the uploader in the same statement: DocumentResponseDto reads its
+    // username, which would otherwise lazy-load one user per row (N+1)
+    @Override
+    @EntityGraph(attributePaths = "uploadedBy")
+    List<Document> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "uploadedBy")
+    Page<Document> findAll(Pageable pageable);
 
     // CORRECTED: Find documents by title (contains, case-insensitive)
+    @EntityGraph(attributePaths = "uploadedBy")
     List<Document> findByTitleContainingIgnoreCase(String title);
 
     // CORRECTED: Find documents by category (using JOIN query)
+    @EntityGraph(attributePaths = "uploadedBy")
     @Query("SELECT DISTINCT d FROM Document d JOIN d.categories c WHERE c.categoryId = :categoryId")
     List<Document> findByCategoryId(@Param("categoryId") Long categoryId);
 
     // CORRECTED: Find documents by category with pagination
+    @EntityGraph(attributePaths = "uploadedBy")
     @Query("SELECT DISTINCT d FROM Document d JOIN d.categories c WHERE c.categoryId = :categoryId")
     Page<Document> findByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
 
     // Find documents by uploader
+    @EntityGraph(attributePaths = "uploadedBy")
     List<Document> findByUploadedByUserId(Long userId);
 
     // Find documents by uploader with pagination
+    @EntityGraph(attributePaths = "uploadedBy")
     Page<Document> findByUploadedByUserId(Long userId, Pageable pageable);
 
     // Find documents by approval status
@@ -54,8 +167,10 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
     List<Document> findByFileType(Document.FileType fileType);
 
     // Find approved documents
+    @EntityGraph(attributePaths = "uploadedBy")
     List<Document> findByIsApprovedTrue();
 
+    @EntityGraph(attributePaths = "uploadedBy")
     Page<Document> findByIsApprovedTrue(Pageable pageable);
 
     // Find pending documents (not approved)
@@ -74,25 +189,25 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
     // Count documents by approval status
     Long countByIsApproved(Boolean isApproved);
 
-    // CORRECTED: Find documents with pagination and optional filters
-    @Query("SELECT DISTINCT d FROM Document d " +
-            "LEFT JOIN d.categories c " +
-            "WHERE " +
-            "(:title IS NULL OR LOWER(d.title) LIKE LOWER(CONCAT('%', :title, '%'))) AND " +
-            "(:categoryId IS NULL OR c.categoryId = :categoryId) AND " +
-            "(:uploadedById IS NULL OR d.uploadedBy.userId = :uploadedById) AND " +
-            "(:isApproved IS NULL OR d.isApproved = :isApproved) AND " +
-            "(:fileType IS NULL OR d.fileType = :fileType)")
-    Page<Document> findDocumentsByFilters(
-            @Param("title") String title,
-            @Param("categoryId") Long categoryId,
-            @Param("uploadedById") Long uploadedById,
-            @Param("isApproved") Boolean isApproved,
-            @Param("fileType") Document.FileType fileType,
+    // Find documents with pagination and optional filters (see DocumentSpecifications)
+    default Page<Document> findDocumentsByFilters(
+            String title,
+            Long categoryId,
+            Long uploadedById,
+            Boolean isApproved,
+            Document.FileType fileType,
             Pageable pageable
-    );
+    ) {
+        return findAll(DocumentSpecifications.byFilters(title, categoryId, uploadedById, isApproved, fileType), pageable);
+    }
+
+    // Specification queries fetch the uploader with the page, as the DTOs read its username
+    @Override
+    @EntityGraph(attributePaths = "uploadedBy")
+    Page<Document> findAll(Specification<Document> specification, Pageable pageable);
 
     // Find recent documents
+    @EntityGraph(attributePaths = "uploadedBy")
     @Query("SELECT d FROM Document d ORDER BY d.createdAt DESC")
     List<Document> findRecentDocuments(Pageable pageable);
 
@@ -150,6 +265,7 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
     );
 
     // Search by title or description
+    @EntityGraph(attributePaths = "uploadedBy")
     @Query("SELECT d FROM Document d WHERE " +
             "LOWER(d.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(d.description) LIKE LOWER(CONCAT('%', :keyword, '%'))")
@@ -160,8 +276,15 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
     List<Document> findByCategoryIds(@Param("categoryIds") List<Long> categoryIds);
 
     // Find documents by course
+    @EntityGraph(attributePaths = "uploadedBy")
     List<Document> findByCourseCourseId(Long courseId);
 
     // Find documents by course with pagination
+    @EntityGraph(attributePaths = "uploadedBy")
     Page<Document> findByCourseCourseId(Long courseId, Pageable pageable);
-}
\ No newline at end of file
+
+    // A document response also shows its uploader's username, so a change to either changes the stamp
+    @Query("SELECT new app.mobile.BK_sharing.dto.ChangeStamp(1L, greatest(d.updatedAt, u.updatedAt)) " +
+            "FROM Document d JOIN d.uploadedBy u WHERE d.documentId = :id")
+    Optional<ChangeStamp> findChangeStampById(@Param("id") Long id);
+}
@@ -0,0 +1,80 @@
+package app.mobile.BK_sharing.document.repository;
+
+import app.mobile.BK_sharing.category.Category;
+import app.mobile.BK_sharing.document.entity.Document;
+import app.mobile.BK_sharing.utils.TextNormalizer;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Building blocks for dynamic document queries. {@link #byFilters} only adds the predicates that were
+ * actually supplied, so the database plans each filter combination on its own instead of one
+ * {@code (:x IS NULL OR col = :x)} query that cannot use the indexes. The category filter is an EXISTS
+ * subquery, which never multiplies rows, so paging and counting need no DISTINCT.
+ */
+public final class DocumentSpecifications {
+
+    private DocumentSpecifications() {
+    }
+
+    // Combine the supplied filters; null arguments are left out of the query entirely
+    public static Specification<Document> byFilters(
+            String title,
+            Long categoryId,
+            Long uploadedById,
+            Boolean isApproved,
+            Document.FileType fileType) {
+
+        List<Specification<Document>> filters = new ArrayList<>();
+        if (title != null && !TextNormalizer.fold(title).isEmpty()) {
+            filters.add(titleContains(title));
+        }
+        if (categoryId != null) {
+            filters.add(inCategory(categoryId));
+        }
+        if (uploadedById != null) {
+            filters.add(uploadedBy(uploadedById));
+        }
+        if (isApproved != null) {
+            filters.add(approved(isApproved));
+        }
+        if (fileType != null) {
+            filters.add(hasFileType(fileType));
+        }
+        return Specification.allOf(filters);
+    }
+
+    // Matches the folded title column, so no LOWER() is applied per row and accents are ignored
+    public static Specification<Document> titleContains(String title) {
+        String pattern = "%" + TextNormalizer.fold(title) + "%";
+        return (root, query, cb) -> cb.like(root.get("searchTitle"), pattern);
+    }
+
+    // EXISTS (SELECT 1 FROM document_categories WHERE document_id = d.document_id AND category_id = ?)
+    public static Specification<Document> inCategory(Long categoryId) {
+        return (root, query, cb) -> {
+            Subquery<Integer> linked = query.subquery(Integer.class);
+            Root<Document> document = linked.correlate(root);
+            Join<Document, Category> category = document.join("categories");
+            linked.select(cb.literal(1)).where(cb.equal(category.get("categoryId"), categoryId));
+            return cb.exists(linked);
+        };
+    }
+
+    public static Specification<Document> uploadedBy(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("uploadedBy").get("userId"), userId);
+    }
+
+    public static Specification<Document> approved(boolean isApproved) {
+        return (root, query, cb) -> cb.equal(root.get("isApproved"), isApproved);
+    }
+
+    public static Specification<Document> hasFileType(Document.FileType fileType) {
+        return (root, query, cb) -> cb.equal(root.get("fileType"), fileType);
+    }
+}
@@ -1,6 +1,7 @@
 package app.mobile.BK_sharing.document.repository;
 
 import app.mobile.BK_sharing.document.entity.DocumentVersion;
+import app.mobile.BK_sharing.dto.ChangeStamp;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -20,6 +21,8 @@ public interface DocumentVersionRepository extends JpaRepository<DocumentVersion
 
     int countByDocumentDocumentId(Long documentId);
 
+    boolean existsByDocumentDocumentIdAndFilePath(Long documentId, String filePath);
+
     @Query("SELECT MAX(dv.versionNumber) FROM DocumentVersion dv WHERE dv.document.documentId = :documentId")
     Integer findMaxVersionNumberByDocumentId(@Param("documentId") Long documentId);
 
@@ -28,4 +31,9 @@ public interface DocumentVersionRepository extends JpaRepository<DocumentVersion
     @Modifying
     @Query("DELETE FROM DocumentVersion dv WHERE dv.document.documentId = :documentId")
     void deleteAllVersionsByDocumentId(@Param("documentId") Long documentId);
-}
\ No newline at end of file
+
+    // Versions are only ever added (or deleted with their document), so count and latest edit identify the listing
+    @Query("SELECT new app.mobile.BK_sharing.dto.ChangeStamp(COUNT(dv), MAX(dv.editedAt)) FROM DocumentVersion dv " +
+            "WHERE dv.document.documentId = :documentId")
+    ChangeStamp findChangeStampByDocumentId(@Param("documentId") Long documentId);
+}
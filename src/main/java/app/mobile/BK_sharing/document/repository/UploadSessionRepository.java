@@ -0,0 +1,37 @@
+package app.mobile.BK_sharing.document.repository;
+
+import app.mobile.BK_sharing.document.entity.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    List<UploadSession> findByExpiresAtBefore(LocalDateTime time);
+
+    // Conditional status change: returns 0 when the session is no longer in the expected status (or has expired)
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.status = :to " +
+            "WHERE s.sessionId = :sessionId AND s.status = :from AND s.expiresAt > :now")
+    int updateStatus(@Param("sessionId") String sessionId,
+                     @Param("from") UploadSession.Status from,
+                     @Param("to") UploadSession.Status to,
+                     @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.status = app.mobile.BK_sharing.document.entity.UploadSession.Status.COMMITTED, " +
+            "s.documentId = :documentId " +
+            "WHERE s.sessionId = :sessionId " +
+            "AND s.status = app.mobile.BK_sharing.document.entity.UploadSession.Status.COMMITTING")
+    int markCommitted(@Param("sessionId") String sessionId, @Param("documentId") Long documentId);
+
+    @Modifying
+    @Query("DELETE FROM UploadSession s WHERE s.sessionId = :sessionId AND s.status <> :status")
+    int deleteBySessionIdAndStatusNot(@Param("sessionId") String sessionId, @Param("status") UploadSession.Status status);
+}
@@ -0,0 +1,18 @@
+package app.mobile.BK_sharing.dto;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+// How many rows a response is built from and when the latest of them changed, read without loading them.
+// Any insert, update or delete changes one or the other, so together they make a strong ETag. Not usable as
+// Last-Modified: deleting the latest row moves lastModified back.
+public record ChangeStamp(long count, LocalDateTime lastModified) {
+
+    public String eTag(String resource) {
+        long micros = lastModified == null ? 0
+                : ChronoUnit.MICROS.between(Instant.EPOCH, lastModified.atZone(ZoneId.systemDefault()).toInstant());
+        return "\"" + resource + "-" + count + "-" + Long.toHexString(micros) + "\"";
+    }
+}
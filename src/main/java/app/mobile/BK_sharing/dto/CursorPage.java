@@ -0,0 +1,18 @@
+package app.mobile.BK_sharing.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// One page of a keyset-paginated feed. Pass nextCursor back to get the following page;
+// there is no total count, and nextCursor is null on the last page.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -12,8 +12,10 @@ import java.time.LocalDateTime;
 @Table(name = "Notification")
 @Data
 public class Notification {
+    // Pooled sequence so inserts can be batched (see Document)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_seq")
+    @SequenceGenerator(name = "notification_seq", sequenceName = "notification_seq", allocationSize = 50)
     private Long notificationId;
 
     @ManyToOne(fetch = FetchType.LAZY)
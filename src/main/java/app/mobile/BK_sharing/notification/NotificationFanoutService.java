@@ -0,0 +1,257 @@
+package app.mobile.BK_sharing.notification;
+
+import app.mobile.BK_sharing.document.entity.Document;
+import app.mobile.BK_sharing.document.repository.DocumentAccessRepository;
+import app.mobile.BK_sharing.document.repository.DocumentRepository;
+import app.mobile.BK_sharing.user.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends one notification about a document to everyone following it: its uploader, the course audience
+ * (active users who uploaded or opened a document of the course) and the users granted access to it.
+ * <p>
+ * Nothing is written on the request thread. An announcement is queued once the transaction making the change
+ * commits, and a single background thread resolves the recipients and inserts their notifications in
+ * transactions of {@code app.notifications.fanout.batch-size} rows, which Hibernate sends as JDBC batches
+ * (ids come from the pooled notification_seq). Announcements are rejected, and counted, when
+ * {@code app.notifications.fanout.queue-capacity} of them are already waiting.
+ */
+@Service
+@Slf4j
+public class NotificationFanoutService {
+
+    // How long shutdown waits for queued announcements
+    private static final Duration SHUTDOWN_GRACE = Duration.ofSeconds(30);
+
+    public record Announcement(Long documentId,
+                               Long courseId,
+                               Long uploaderId,
+                               Long actorId,
+                               Notification.NotificationType type,
+                               String title,
+                               String message) {
+    }
+
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+    private final DocumentRepository documentRepository;
+    private final DocumentAccessRepository documentAccessRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Counter completed;
+    private final Counter failedJobs;
+    private final Counter rejected;
+    private final Counter written;
+    private final Counter failed;
+    private final Timer fanoutTimer;
+    private final DistributionSummary throughput;
+
+    public NotificationFanoutService(NotificationRepository notificationRepository,
+                                     UserRepository userRepository,
+                                     DocumentRepository documentRepository,
+                                     DocumentAccessRepository documentAccessRepository,
+                                     TransactionTemplate transactionTemplate,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.notifications.fanout.batch-size:500}") int batchSize,
+                                     @Value("${app.notifications.fanout.queue-capacity:1000}") int queueCapacity) {
+        this.notificationRepository = notificationRepository;
+        this.userRepository = userRepository;
+        this.documentRepository = documentRepository;
+        this.documentAccessRepository = documentAccessRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "notification-fanout");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        this.completed = meterRegistry.counter("notifications.fanout.announcements", "result", "completed");
+        this.failedJobs = meterRegistry.counter("notifications.fanout.announcements", "result", "failed");
+        this.rejected = meterRegistry.counter("notifications.fanout.announcements", "result", "rejected");
+        this.written = meterRegistry.counter("notifications.fanout.notifications", "result", "written");
+        this.failed = meterRegistry.counter("notifications.fanout.notifications", "result", "failed");
+        this.fanoutTimer = meterRegistry.timer("notifications.fanout.duration");
+        this.throughput = DistributionSummary.builder("notifications.fanout.throughput")
+                .baseUnit("notifications/s")
+                .register(meterRegistry);
+        Gauge.builder("notifications.fanout.queue.size", executor, pool -> pool.getQueue().size())
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(SHUTDOWN_GRACE.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Stopped with {} notification announcement(s) still queued", executor.getQueue().size());
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tells everyone following the document that it was approved, except the approver.
+     */
+    public void documentApproved(Document document, Long approverId) {
+        announce(announcement(document, approverId, Notification.NotificationType.DOCUMENT_APPROVED,
+                "Document approved", "\"" + document.getTitle() + "\" has been approved and is now available."));
+    }
+
+    /**
+     * Tells everyone following the document that it changed, except whoever changed it.
+     */
+    public void documentUpdated(Document document, Long editorId) {
+        announce(announcement(document, editorId, Notification.NotificationType.DOCUMENT_UPDATED,
+                "Document updated", "\"" + document.getTitle() + "\" has been updated."));
+    }
+
+    /**
+     * Queues the announcement once the current transaction commits (right away outside of one), so nothing
+     * is sent for a change that rolls back and recipients see the committed document.
+     */
+    public void announce(Announcement announcement) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(announcement);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(announcement);
+            }
+        });
+    }
+
+    public int queued() {
+        return executor.getQueue().size() + executor.getActiveCount();
+    }
+
+    private static Announcement announcement(Document document, Long actorId, Notification.NotificationType type,
+                                             String title, String message) {
+        return new Announcement(
+                document.getDocumentId(),
+                document.getCourse() != null ? document.getCourse().getCourseId() : null,
+                document.getUploadedBy() != null ? document.getUploadedBy().getUserId() : null,
+                actorId,
+                type,
+                title,
+                message);
+    }
+
+    private void submit(Announcement announcement) {
+        try {
+            executor.execute(() -> fanOut(announcement));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Dropped {} notification for document {}: fan-out queue full",
+                    announcement.type(), announcement.documentId());
+        }
+    }
+
+    private void fanOut(Announcement announcement) {
+        long start = System.nanoTime();
+        try {
+            // 1. Resolve the recipients
+            List<Long> recipients = new ArrayList<>(recipients(announcement));
+
+            // 2. Insert their notifications batch by batch
+            int sent = 0;
+            for (int from = 0; from < recipients.size(); from += batchSize) {
+                sent += store(announcement, recipients.subList(from, Math.min(from + batchSize, recipients.size())));
+            }
+
+            // 3. Report throughput
+            long nanos = System.nanoTime() - start;
+            fanoutTimer.record(nanos, TimeUnit.NANOSECONDS);
+            double perSecond = nanos > 0 ? sent / (nanos / 1e9) : 0;
+            if (sent > 0) {
+                throughput.record(perSecond);
+            }
+            completed.increment();
+            log.info("Sent {} {} notification(s) for document {} in {} ms ({} per second)",
+                    sent, announcement.type(), announcement.documentId(),
+                    TimeUnit.NANOSECONDS.toMillis(nanos), Math.round(perSecond));
+        } catch (RuntimeException e) {
+            failedJobs.increment();
+            log.error("Notification fan-out for document {} failed: {}", announcement.documentId(), e.getMessage(), e);
+        }
+    }
+
+    // Helper method to collect the recipients once each, without the user who made the change
+    private Set<Long> recipients(Announcement announcement) {
+        Set<Long> recipients = new LinkedHashSet<>();
+        if (announcement.uploaderId() != null) {
+            recipients.add(announcement.uploaderId());
+        }
+        if (announcement.courseId() != null) {
+            recipients.addAll(userRepository.findActiveCourseMemberIds(announcement.courseId()));
+        }
+        recipients.addAll(documentAccessRepository.findActiveViewerIds(announcement.documentId()));
+        recipients.remove(announcement.actorId());
+        return recipients;
+    }
+
+    // Helper method to insert one batch, returning how many notifications were stored
+    private int store(Announcement announcement, List<Long> userIds) {
+        try {
+            save(announcement, userIds);
+            written.increment(userIds.size());
+            return userIds.size();
+        } catch (RuntimeException e) {
+            // A user deleted meanwhile fails the whole batch: keep the rest
+            log.warn("Batch of {} notification(s) failed, retrying one by one: {}", userIds.size(), e.getMessage());
+            int stored = 0;
+            for (Long userId : userIds) {
+                try {
+                    save(announcement, List.of(userId));
+                    written.increment();
+                    stored++;
+                } catch (RuntimeException ex) {
+                    failed.increment();
+                    log.debug("Discarding notification for user {}: {}", userId, ex.getMessage());
+                }
+            }
+            return stored;
+        }
+    }
+
+    // Helper method to insert notifications in one transaction; references avoid loading the users and document
+    private void save(Announcement announcement, List<Long> userIds) {
+        transactionTemplate.executeWithoutResult(status -> notificationRepository.saveAll(userIds.stream()
+                .map(userId -> {
+                    Notification notification = new Notification();
+                    notification.setUser(userRepository.getReferenceById(userId));
+                    notification.setTitle(announcement.title());
+                    notification.setMessage(announcement.message());
+                    notification.setType(announcement.type());
+                    notification.setRelatedDocument(documentRepository.getReferenceById(announcement.documentId()));
+                    notification.setIsRead(false);
+                    return notification;
+                })
+                .toList()));
+    }
+}
@@ -0,0 +1,276 @@
+package app.mobile.BK_sharing.search;
+
+import app.mobile.BK_sharing.document.entity.Document.FileType;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory facet index over documents: one bitset per category, course, file type and approval state,
+ * with the document id as the bit position.
+ * <p>
+ * A query ANDs the bitsets of the selected values, and a facet count is the size of an intersection, so
+ * filtering and counting never touch the database. Counts for a facet ignore that facet's own selection
+ * (the count next to "PDF" is what the user gets by picking PDF instead of the current type), the usual
+ * drill-sideways behaviour of faceted navigation.
+ * <p>
+ * Bitsets are updated one document at a time as documents change (see {@link DocumentFacetService}).
+ */
+public class DocumentFacetIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final BitSet all = new BitSet();
+    private final BitSet approved = new BitSet();
+    private final Map<Long, BitSet> byCategory = new HashMap<>();
+    private final Map<Long, BitSet> byCourse = new HashMap<>();
+    private final Map<FileType, BitSet> byFileType = new EnumMap<>(FileType.class);
+
+    // What each document was indexed under, so an update or removal can clear its old bits
+    private final Map<Integer, Facets> facetsByDocument = new HashMap<>();
+
+    // Filters of a query; a null (or empty) field means "any"
+    public record Query(Collection<Long> categoryIds, Long courseId, FileType fileType, Boolean approved) {
+    }
+
+    // Document ids of the requested page, newest first, with the facet counts for the whole result
+    public record Result(
+            List<Long> documentIds,
+            int total,
+            Map<Long, Integer> categoryCounts,
+            Map<Long, Integer> courseCounts,
+            Map<FileType, Integer> fileTypeCounts,
+            int approvedCount,
+            int pendingCount) {
+    }
+
+    public record Facets(Long courseId, FileType fileType, boolean approved, List<Long> categoryIds) {
+    }
+
+    // Add or replace the facets of a document
+    public void put(long documentId, Long courseId, FileType fileType, boolean isApproved, Collection<Long> categoryIds) {
+        int bit = bit(documentId);
+        Facets facets = new Facets(courseId, fileType, isApproved, List.copyOf(categoryIds));
+
+        lock.writeLock().lock();
+        try {
+            clear(bit);
+            facetsByDocument.put(bit, facets);
+            all.set(bit);
+            if (isApproved) {
+                approved.set(bit);
+            }
+            if (courseId != null) {
+                byCourse.computeIfAbsent(courseId, id -> new BitSet()).set(bit);
+            }
+            if (fileType != null) {
+                byFileType.computeIfAbsent(fileType, type -> new BitSet()).set(bit);
+            }
+            for (Long categoryId : facets.categoryIds()) {
+                byCategory.computeIfAbsent(categoryId, id -> new BitSet()).set(bit);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long documentId) {
+        lock.writeLock().lock();
+        try {
+            clear(bit(documentId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Drop a deleted category from every document that was filed under it
+    public void removeCategory(long categoryId) {
+        lock.writeLock().lock();
+        try {
+            BitSet documents = byCategory.remove(categoryId);
+            if (documents == null) {
+                return;
+            }
+            for (int bit = documents.nextSetBit(0); bit >= 0; bit = documents.nextSetBit(bit + 1)) {
+                Facets facets = facetsByDocument.get(bit);
+                List<Long> remaining = facets.categoryIds().stream().filter(id -> id != categoryId).toList();
+                facetsByDocument.put(bit, new Facets(facets.courseId(), facets.fileType(), facets.approved(), remaining));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Drop a deleted course from every document that belonged to it
+    public void removeCourse(long courseId) {
+        lock.writeLock().lock();
+        try {
+            BitSet documents = byCourse.remove(courseId);
+            if (documents == null) {
+                return;
+            }
+            for (int bit = documents.nextSetBit(0); bit >= 0; bit = documents.nextSetBit(bit + 1)) {
+                Facets facets = facetsByDocument.get(bit);
+                facetsByDocument.put(bit, new Facets(null, facets.fileType(), facets.approved(), facets.categoryIds()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Result query(Query query, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            // 1. One bitset per active filter, null when the facet is not filtered
+            BitSet categoryFilter = categoryFilter(query.categoryIds());
+            BitSet courseFilter = query.courseId() == null ? null : posting(byCourse, query.courseId());
+            BitSet fileTypeFilter = query.fileType() == null ? null : posting(byFileType, query.fileType());
+            BitSet approvalFilter = approvalFilter(query.approved());
+
+            // 2. Matching documents, newest (highest id) first
+            BitSet matches = intersect(categoryFilter, courseFilter, fileTypeFilter, approvalFilter);
+            List<Long> page = new ArrayList<>(limit);
+            int skipped = 0;
+            for (int bit = matches.length() - 1; bit >= 0 && page.size() < limit; bit = matches.previousSetBit(bit - 1)) {
+                if (skipped++ >= offset) {
+                    page.add((long) bit);
+                }
+            }
+
+            // 3. Facet counts, each under every filter except its own
+            return new Result(
+                    page,
+                    matches.cardinality(),
+                    counts(byCategory, intersect(null, courseFilter, fileTypeFilter, approvalFilter)),
+                    counts(byCourse, intersect(categoryFilter, null, fileTypeFilter, approvalFilter)),
+                    counts(byFileType, intersect(categoryFilter, courseFilter, null, approvalFilter)),
+                    countIn(approved, intersect(categoryFilter, courseFilter, fileTypeFilter, null)),
+                    pendingIn(intersect(categoryFilter, courseFilter, fileTypeFilter, null)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // What a document is currently indexed under, if it is indexed
+    public Optional<Facets> facets(long documentId) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(facetsByDocument.get(bit(documentId)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return facetsByDocument.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Helper method to clear the bits a document was indexed under; caller holds the write lock
+    private void clear(int bit) {
+        Facets previous = facetsByDocument.remove(bit);
+        if (previous == null) {
+            return;
+        }
+        all.clear(bit);
+        approved.clear(bit);
+        unset(byCourse, previous.courseId(), bit);
+        unset(byFileType, previous.fileType(), bit);
+        for (Long categoryId : previous.categoryIds()) {
+            unset(byCategory, categoryId, bit);
+        }
+    }
+
+    // Helper method to clear one bit, dropping the bitset once no document has that value
+    private <K> void unset(Map<K, BitSet> postings, K key, int bit) {
+        if (key == null) {
+            return;
+        }
+        BitSet documents = postings.get(key);
+        if (documents != null) {
+            documents.clear(bit);
+            if (documents.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    // Documents in any of the selected categories
+    private BitSet categoryFilter(Collection<Long> categoryIds) {
+        if (categoryIds == null || categoryIds.isEmpty()) {
+            return null;
+        }
+        BitSet union = new BitSet();
+        for (Long categoryId : categoryIds) {
+            union.or(posting(byCategory, categoryId));
+        }
+        return union;
+    }
+
+    private BitSet approvalFilter(Boolean isApproved) {
+        if (isApproved == null) {
+            return null;
+        }
+        if (isApproved) {
+            return approved;
+        }
+        BitSet pending = (BitSet) all.clone();
+        pending.andNot(approved);
+        return pending;
+    }
+
+    private <K> BitSet posting(Map<K, BitSet> postings, K key) {
+        return postings.getOrDefault(key, new BitSet());
+    }
+
+    // Helper method to AND the active filters together, starting from every indexed document
+    private BitSet intersect(BitSet... filters) {
+        BitSet result = (BitSet) all.clone();
+        for (BitSet filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    private <K> Map<K, Integer> counts(Map<K, BitSet> postings, BitSet scope) {
+        Map<K, Integer> counts = new LinkedHashMap<>();
+        postings.forEach((key, documents) -> {
+            int count = countIn(documents, scope);
+            if (count > 0) {
+                counts.put(key, count);
+            }
+        });
+        return counts;
+    }
+
+    private int countIn(BitSet documents, BitSet scope) {
+        BitSet both = (BitSet) documents.clone();
+        both.and(scope);
+        return both.cardinality();
+    }
+
+    private int pendingIn(BitSet scope) {
+        BitSet pending = (BitSet) scope.clone();
+        pending.andNot(approved);
+        return pending.cardinality();
+    }
+
+    private int bit(long documentId) {
+        return Math.toIntExact(documentId);
+    }
+}
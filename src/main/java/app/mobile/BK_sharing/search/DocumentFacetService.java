@@ -0,0 +1,180 @@
+package app.mobile.BK_sharing.search;
+
+import app.mobile.BK_sharing.cache.CacheInvalidationBus;
+import app.mobile.BK_sharing.category.Category;
+import app.mobile.BK_sharing.category.CategoryRepository;
+import app.mobile.BK_sharing.course.Course;
+import app.mobile.BK_sharing.course.CourseRepository;
+import app.mobile.BK_sharing.document.dto.DocumentResponseDto;
+import app.mobile.BK_sharing.document.entity.Document;
+import app.mobile.BK_sharing.document.repository.DocumentRepository;
+import app.mobile.BK_sharing.search.dto.FacetCountDto;
+import app.mobile.BK_sharing.search.dto.FacetedDocumentsDto;
+import app.mobile.BK_sharing.user.User;
+import app.mobile.BK_sharing.user.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Faceted browsing over documents. Filters and facet counts are answered by {@link DocumentFacetIndex},
+ * which is loaded once at startup and then updated by {@link SearchIndexListener} as document changes commit, so a
+ * request costs one query for the page of documents instead of a GROUP BY per facet. Documents changed on other
+ * nodes arrive over the {@link CacheInvalidationBus} and are re-read by id.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentFacetService {
+
+    private final DocumentRepository documentRepository;
+    private final CategoryRepository categoryRepository;
+    private final CourseRepository courseRepository;
+    private final UserRepository userRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    // Replaced as a whole when everything is loaded again
+    private volatile DocumentFacetIndex index = new DocumentFacetIndex();
+
+    @PostConstruct
+    public void start() {
+        // Subscribe first, so changes committed while loading are applied afterwards
+        cacheInvalidationBus.subscribe(SearchIndexListener.DOCUMENTS,
+                id -> reload(id, () -> refresh(List.of((Long) id))));
+        cacheInvalidationBus.subscribe(SearchIndexListener.CATEGORIES,
+                id -> reload(id, () -> {
+                    if (!categoryRepository.existsById((Long) id)) {
+                        index.removeCategory((Long) id);
+                    }
+                }));
+        cacheInvalidationBus.subscribe(SearchIndexListener.COURSES,
+                id -> reload(id, () -> {
+                    if (!courseRepository.existsById((Long) id)) {
+                        index.removeCourse((Long) id);
+                    }
+                }));
+        load();
+    }
+
+    public void load() {
+        long start = System.currentTimeMillis();
+
+        DocumentFacetIndex loaded = new DocumentFacetIndex();
+        put(loaded, documentRepository.findFacetFields(), documentRepository.findCategoryLinks());
+        index = loaded;
+
+        log.info("Facet index loaded in {} ms: {} documents", System.currentTimeMillis() - start, loaded.size());
+    }
+
+    /**
+     * Browsing as {@code userId}: only admins see pending documents, everyone else gets approved documents
+     * whatever the query asks for.
+     */
+    public FacetedDocumentsDto browse(DocumentFacetIndex.Query query, int page, int size, Long userId) {
+        if (userId != null && userRepository.existsByUserIdAndRole(userId, User.UserRole.ADMIN)) {
+            return browse(query, page, size);
+        }
+        FacetedDocumentsDto result = browse(new DocumentFacetIndex.Query(
+                query.categoryIds(), query.courseId(), query.fileType(), true), page, size);
+        result.setApproval(result.getApproval().stream().filter(count -> count.getValue().equals("APPROVED")).toList());
+        return result;
+    }
+
+    FacetedDocumentsDto browse(DocumentFacetIndex.Query query, int page, int size) {
+        // 1. Filter and count in memory; a page past the end is empty, and the offset is clamped so it cannot overflow
+        DocumentFacetIndex.Result result = index.query(query, (int) Math.min((long) page * size, Integer.MAX_VALUE), size);
+
+        // 2. Load the page of documents, keeping the index order
+        List<DocumentResponseDto> documents = result.documentIds().isEmpty()
+                ? List.of()
+                : SearchIndexService.inRankOrder(result.documentIds(),
+                        documentRepository.findSummariesByIds(result.documentIds()), DocumentResponseDto::getDocumentId);
+
+        // 3. Label the facet values
+        Map<Long, String> categoryNames = new HashMap<>();
+        categoryRepository.findAllById(result.categoryCounts().keySet())
+                .forEach(category -> categoryNames.put(category.getCategoryId(), category.getCategoryName()));
+        Map<Long, String> courseNames = new HashMap<>();
+        courseRepository.findAllById(result.courseCounts().keySet())
+                .forEach(course -> courseNames.put(course.getCourseId(), course.getCourseCode() + " - " + course.getCourseName()));
+
+        return new FacetedDocumentsDto(
+                documents,
+                result.total(),
+                page,
+                size,
+                facet(result.categoryCounts(), categoryNames::get),
+                facet(result.courseCounts(), courseNames::get),
+                facet(result.fileTypeCounts(), Document.FileType::getValue),
+                List.of(
+                        new FacetCountDto("APPROVED", "Approved", result.approvedCount()),
+                        new FacetCountDto("PENDING", "Pending", result.pendingCount())));
+    }
+
+    public Optional<DocumentFacetIndex.Facets> facets(Long documentId) {
+        return index.facets(documentId);
+    }
+
+    // Re-read the facets of committed documents (categories can change without the document row changing)
+    void refresh(Collection<Long> documentIds) {
+        List<Object[]> rows = documentRepository.findFacetFieldsByIds(documentIds);
+        Set<Long> deleted = new HashSet<>(documentIds);
+        rows.forEach(row -> deleted.remove((Long) row[0]));
+        DocumentFacetIndex current = index;
+        deleted.forEach(current::remove);
+
+        put(current, rows, documentRepository.findCategoryLinksByIds(documentIds));
+    }
+
+    void remove(Object entity) {
+        if (entity instanceof Document document) {
+            index.remove(document.getDocumentId());
+        } else if (entity instanceof Category category) {
+            index.removeCategory(category.getCategoryId());
+        } else if (entity instanceof Course course) {
+            index.removeCourse(course.getCourseId());
+        }
+    }
+
+    // Helper method to apply a change committed on another node; a null id means everything is loaded again
+    private void reload(Object id, Runnable reloadOne) {
+        if (id == null) {
+            load();
+        } else {
+            reloadOne.run();
+        }
+    }
+
+    // Helper method to index rows of (documentId, courseId, fileType, isApproved) with their (documentId, categoryId) links
+    private void put(DocumentFacetIndex index, List<Object[]> rows, List<Object[]> categoryLinks) {
+        Map<Long, List<Long>> categoriesByDocument = new HashMap<>();
+        for (Object[] link : categoryLinks) {
+            categoriesByDocument.computeIfAbsent((Long) link[0], id -> new ArrayList<>()).add((Long) link[1]);
+        }
+        for (Object[] row : rows) {
+            Long documentId = (Long) row[0];
+            index.put(documentId, (Long) row[1], (Document.FileType) row[2], (Boolean) row[3],
+                    categoriesByDocument.getOrDefault(documentId, List.of()));
+        }
+    }
+
+    // Helper method to turn counts into labelled facet values, largest first
+    private <K> List<FacetCountDto> facet(Map<K, Integer> counts, Function<K, String> labelOf) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<K, Integer>comparingByValue(Comparator.reverseOrder()))
+                .map(entry -> new FacetCountDto(String.valueOf(entry.getKey()), labelOf.apply(entry.getKey()), entry.getValue()))
+                .toList();
+    }
+}
@@ -0,0 +1,41 @@
+package app.mobile.BK_sharing.search;
+
+import app.mobile.BK_sharing.document.entity.Document;
+import app.mobile.BK_sharing.dto.ApiResponse;
+import app.mobile.BK_sharing.search.dto.FacetedDocumentsDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// Faceted browsing: one call returns a page of matching documents and the counts to refine it further.
+// e.g. /api/v1/documents/facets?categoryId=3&categoryId=5&fileType=PDF&approved=true
+// The approved filter is only honoured for admins (userId); everyone else sees approved documents only.
+@RestController
+@RequestMapping("/api/v1/documents/facets")
+@RequiredArgsConstructor
+public class FacetController {
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final DocumentFacetService documentFacetService;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<FacetedDocumentsDto>> browse(
+            @RequestParam(required = false) List<Long> categoryId,
+            @RequestParam(required = false) Long courseId,
+            @RequestParam(required = false) Document.FileType fileType,
+            @RequestParam(required = false) Boolean approved,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        DocumentFacetIndex.Query query = new DocumentFacetIndex.Query(categoryId, courseId, fileType, approved);
+        FacetedDocumentsDto result = documentFacetService.browse(
+                query, Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE), userId);
+        return ResponseEntity.ok(ApiResponse.success("Documents retrieved successfully", result));
+    }
+}
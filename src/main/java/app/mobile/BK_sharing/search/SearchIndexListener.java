@@ -0,0 +1,144 @@
+package app.mobile.BK_sharing.search;
+
+import app.mobile.BK_sharing.cache.CacheInvalidationBus;
+import app.mobile.BK_sharing.category.Category;
+import app.mobile.BK_sharing.course.Course;
+import app.mobile.BK_sharing.document.entity.Document;
+import app.mobile.BK_sharing.user.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JPA listener on the indexed entities; changes reach the search and facet indexes only once their transaction commits.
+ * Each change is also published on the {@link CacheInvalidationBus} under the entity's topic, in the same transaction,
+ * and the other nodes re-read the row by id into their own indexes.
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchIndexListener {
+
+    // Bus topics of the indexed entities, keyed by id
+    public static final String DOCUMENTS = "index.documents";
+    public static final String USERS = "index.users";
+    public static final String CATEGORIES = "index.categories";
+    public static final String COURSES = "index.courses";
+
+    // Transaction resource keys for the document ids whose facets need a refresh, and the changes already published
+    private static final Object PENDING_FACET_REFRESH = new Object();
+    private static final Object PUBLISHED_CHANGES = new Object();
+
+    // Looked up lazily: the index services need the repositories, which need this listener's EntityManagerFactory
+    private final ObjectProvider<SearchIndexService> searchIndexService;
+    private final ObjectProvider<DocumentFacetService> documentFacetService;
+    private final ObjectProvider<CacheInvalidationBus> cacheInvalidationBus;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        afterCommit(() -> searchIndexService.getObject().index(entity));
+        if (entity instanceof Document document) {
+            refreshFacetsAfterCommit(document.getDocumentId());
+        }
+        publish(entity);
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        afterCommit(() -> {
+            searchIndexService.getObject().remove(entity);
+            documentFacetService.getObject().remove(entity);
+        });
+        publish(entity);
+    }
+
+    // Helper method to tell the other nodes about a change, once per row and transaction
+    @SuppressWarnings("unchecked")
+    private void publish(Object entity) {
+        String topic;
+        Long id;
+        if (entity instanceof Document document) {
+            topic = DOCUMENTS;
+            id = document.getDocumentId();
+        } else if (entity instanceof User user) {
+            topic = USERS;
+            id = user.getUserId();
+        } else if (entity instanceof Category category) {
+            topic = CATEGORIES;
+            id = category.getCategoryId();
+        } else if (entity instanceof Course course) {
+            topic = COURSES;
+            id = course.getCourseId();
+        } else {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            Set<String> published = (Set<String>) TransactionSynchronizationManager.getResource(PUBLISHED_CHANGES);
+            if (published == null) {
+                Set<String> changes = new HashSet<>();
+                TransactionSynchronizationManager.bindResource(PUBLISHED_CHANGES, changes);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(PUBLISHED_CHANGES);
+                    }
+                });
+                published = changes;
+            }
+            if (!published.add(topic + "|" + id)) {
+                return;
+            }
+        }
+        cacheInvalidationBus.getObject().publish(topic, id);
+    }
+
+    // Facets are re-read from the database, so the documents saved in one transaction are refreshed together
+    @SuppressWarnings("unchecked")
+    private void refreshFacetsAfterCommit(Long documentId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            documentFacetService.getObject().refresh(List.of(documentId));
+            return;
+        }
+        Set<Long> pending = (Set<Long>) TransactionSynchronizationManager.getResource(PENDING_FACET_REFRESH);
+        if (pending == null) {
+            Set<Long> documentIds = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(PENDING_FACET_REFRESH, documentIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    documentFacetService.getObject().refresh(documentIds);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_FACET_REFRESH);
+                }
+            });
+            pending = documentIds;
+        }
+        pending.add(documentId);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
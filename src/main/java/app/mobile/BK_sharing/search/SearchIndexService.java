@@ -0,0 +1,203 @@
+package app.mobile.BK_sharing.search;
+
+import app.mobile.BK_sharing.cache.CacheInvalidationBus;
+import app.mobile.BK_sharing.category.Category;
+import app.mobile.BK_sharing.category.CategoryRepository;
+import app.mobile.BK_sharing.course.Course;
+import app.mobile.BK_sharing.course.CourseRepository;
+import app.mobile.BK_sharing.document.entity.Document;
+import app.mobile.BK_sharing.document.repository.DocumentRepository;
+import app.mobile.BK_sharing.search.dto.SuggestionDto;
+import app.mobile.BK_sharing.user.User;
+import app.mobile.BK_sharing.user.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+/**
+ * In-memory search structures, loaded at startup and kept current by {@link SearchIndexListener},
+ * so lookups never hit the database. Changes committed on other nodes arrive over the {@link CacheInvalidationBus}
+ * and are re-read by id; when some may have been missed everything is loaded again:
+ * <ul>
+ *     <li>typo-tolerant search over the small lookup tables (users, categories, courses) with {@link TrigramIndex}</li>
+ *     <li>typeahead suggestions over document titles, course codes and category names with {@link SuggestionTrie}</li>
+ * </ul>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndexService {
+
+    // Suggestion ranking: broader matches first
+    private static final int CATEGORY_WEIGHT = 3;
+    private static final int COURSE_WEIGHT = 2;
+    private static final int DOCUMENT_WEIGHT = 1;
+
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final CourseRepository courseRepository;
+    private final DocumentRepository documentRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    // Replaced as a whole when everything is loaded again
+    private volatile TrigramIndex users = new TrigramIndex();
+    private volatile TrigramIndex categories = new TrigramIndex();
+    private volatile TrigramIndex courses = new TrigramIndex();
+    private volatile SuggestionTrie suggestions = new SuggestionTrie();
+
+    @PostConstruct
+    public void start() {
+        // Subscribe first, so changes committed while loading are applied afterwards
+        cacheInvalidationBus.subscribe(SearchIndexListener.USERS,
+                id -> reload(id, userRepository::findById, userId -> users.remove(userId)));
+        cacheInvalidationBus.subscribe(SearchIndexListener.CATEGORIES,
+                id -> reload(id, categoryRepository::findById, this::removeCategory));
+        cacheInvalidationBus.subscribe(SearchIndexListener.COURSES,
+                id -> reload(id, courseRepository::findById, this::removeCourse));
+        cacheInvalidationBus.subscribe(SearchIndexListener.DOCUMENTS,
+                id -> reload(id, documentRepository::findById,
+                        documentId -> suggestions.remove(SuggestionDto.Type.DOCUMENT.key(documentId))));
+        load();
+    }
+
+    public void load() {
+        long start = System.currentTimeMillis();
+
+        TrigramIndex loadedUsers = new TrigramIndex();
+        TrigramIndex loadedCategories = new TrigramIndex();
+        TrigramIndex loadedCourses = new TrigramIndex();
+        SuggestionTrie loadedSuggestions = new SuggestionTrie();
+        for (Object[] row : userRepository.findSearchFields()) {
+            loadedUsers.put((Long) row[0], join(row[1], row[2], row[3]));
+        }
+        for (Object[] row : categoryRepository.findSearchFields()) {
+            indexCategory(loadedCategories, loadedSuggestions, (Long) row[0], (String) row[1]);
+        }
+        for (Object[] row : courseRepository.findSearchFields()) {
+            indexCourse(loadedCourses, loadedSuggestions, (Long) row[0], (String) row[1], (String) row[2]);
+        }
+        for (Object[] row : documentRepository.findSuggestionFields()) {
+            loadedSuggestions.put(SuggestionDto.Type.DOCUMENT.key((Long) row[0]), (String) row[1], DOCUMENT_WEIGHT);
+        }
+        users = loadedUsers;
+        categories = loadedCategories;
+        courses = loadedCourses;
+        suggestions = loadedSuggestions;
+
+        log.info("Search indexes loaded in {} ms: {} users, {} categories, {} courses, {} suggestions",
+                System.currentTimeMillis() - start, users.size(), categories.size(), courses.size(), suggestions.size());
+    }
+
+    // Ids of the best matching users (username, email or full name), best first
+    public List<Long> searchUsers(String keyword, int limit) {
+        return ids(users.search(keyword, limit));
+    }
+
+    public List<Long> searchCategories(String keyword, int limit) {
+        return ids(categories.search(keyword, limit));
+    }
+
+    // Matches on course code or course name
+    public List<Long> searchCourses(String keyword, int limit) {
+        return ids(courses.search(keyword, limit));
+    }
+
+    // Helper method to put rows loaded by id back in the order the index ranked them
+    public static <T> List<T> inRankOrder(List<Long> rankedIds, Iterable<T> rows, Function<T, Long> idOf) {
+        Map<Long, T> byId = new HashMap<>();
+        rows.forEach(row -> byId.put(idOf.apply(row), row));
+        return rankedIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    // Typeahead suggestions for a prefix, categories and courses before individual documents
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        return suggestions.suggest(prefix, limit).stream()
+                .map(SuggestionDto::fromEntry)
+                .toList();
+    }
+
+    void index(Object entity) {
+        if (entity instanceof User user) {
+            users.put(user.getUserId(), join(user.getUsername(), user.getEmail(), user.getFullName()));
+        } else if (entity instanceof Category category) {
+            indexCategory(categories, suggestions, category.getCategoryId(), category.getCategoryName());
+        } else if (entity instanceof Course course) {
+            indexCourse(courses, suggestions, course.getCourseId(), course.getCourseCode(), course.getCourseName());
+        } else if (entity instanceof Document document) {
+            // Pending or rejected documents are not suggested to everyone
+            if (Boolean.TRUE.equals(document.getIsApproved())) {
+                suggestions.put(SuggestionDto.Type.DOCUMENT.key(document.getDocumentId()), document.getTitle(), DOCUMENT_WEIGHT);
+            } else {
+                suggestions.remove(SuggestionDto.Type.DOCUMENT.key(document.getDocumentId()));
+            }
+        }
+    }
+
+    void remove(Object entity) {
+        if (entity instanceof User user) {
+            users.remove(user.getUserId());
+        } else if (entity instanceof Category category) {
+            removeCategory(category.getCategoryId());
+        } else if (entity instanceof Course course) {
+            removeCourse(course.getCourseId());
+        } else if (entity instanceof Document document) {
+            suggestions.remove(SuggestionDto.Type.DOCUMENT.key(document.getDocumentId()));
+        }
+    }
+
+    // Helper method to apply a change committed on another node: re-read the row, or drop it if it is gone
+    private void reload(Object id, Function<Long, Optional<?>> findById, LongConsumer removeById) {
+        if (id == null) {
+            load();
+            return;
+        }
+        findById.apply((Long) id).ifPresentOrElse(this::index, () -> removeById.accept((Long) id));
+    }
+
+    private void removeCategory(long categoryId) {
+        categories.remove(categoryId);
+        suggestions.remove(SuggestionDto.Type.CATEGORY.key(categoryId));
+    }
+
+    private void removeCourse(long courseId) {
+        courses.remove(courseId);
+        suggestions.remove(SuggestionDto.Type.COURSE.key(courseId));
+    }
+
+    private void indexCategory(TrigramIndex categories, SuggestionTrie suggestions, Long categoryId, String categoryName) {
+        categories.put(categoryId, join(categoryName));
+        suggestions.put(SuggestionDto.Type.CATEGORY.key(categoryId), categoryName, CATEGORY_WEIGHT);
+    }
+
+    private void indexCourse(TrigramIndex courses, SuggestionTrie suggestions, Long courseId, String courseCode, String courseName) {
+        courses.put(courseId, join(courseCode, courseName));
+        // Suggested as "CO2003 - Cấu trúc dữ liệu", reachable from the code or any of the first name words
+        suggestions.put(SuggestionDto.Type.COURSE.key(courseId), courseCode + " - " + courseName, COURSE_WEIGHT);
+    }
+
+    private List<Long> ids(List<TrigramIndex.Match> matches) {
+        return matches.stream().map(TrigramIndex.Match::id).toList();
+    }
+
+    private String join(Object... fields) {
+        StringBuilder text = new StringBuilder();
+        for (Object field : fields) {
+            if (field != null) {
+                text.append(field).append(' ');
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,31 @@
+package app.mobile.BK_sharing.search;
+
+import app.mobile.BK_sharing.dto.ApiResponse;
+import app.mobile.BK_sharing.search.dto.SuggestionDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// Typeahead for the search box: answered from memory, safe to call on every keystroke
+@RestController
+@RequestMapping("/api/v1/suggest")
+@RequiredArgsConstructor
+public class SuggestController {
+    private static final int MAX_LIMIT = 20;
+
+    private final SearchIndexService searchIndexService;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<SuggestionDto>>> suggest(
+            @RequestParam("q") String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+
+        List<SuggestionDto> suggestions = searchIndexService.suggest(prefix, Math.min(Math.max(limit, 1), MAX_LIMIT));
+        return ResponseEntity.ok(ApiResponse.success("Suggestions retrieved successfully", suggestions));
+    }
+}
@@ -0,0 +1,332 @@
+package app.mobile.BK_sharing.search;
+
+import app.mobile.BK_sharing.utils.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix trie for typeahead suggestions.
+ * <p>
+ * Each entry is reachable from the folded text starting at each of its first words, so "tich" suggests
+ * "Giải tích 1". Chains of single-child nodes are collapsed into one edge labelled with the whole run of
+ * characters (a radix tree), which keeps the word-suffix paths from costing one node per character.
+ * Every node records the highest entry weight below it; a lookup walks to the prefix node and expands the
+ * heaviest branches first, stopping once no branch can beat the current top-k.
+ * Entries can be added, replaced and removed at any time.
+ */
+public class SuggestionTrie {
+
+    // Words after this many are not used as suggestion starting points
+    private static final int MAX_START_WORDS = 6;
+
+    public record Entry(String key, String text, int weight) {
+    }
+
+    // Shared by all leaves, which are most of the nodes
+    private static final char[] NO_FIRSTS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private static final class Node {
+        // Characters on the edge from the parent; children are kept sorted by their first one
+        private String label;
+        private char[] firsts = NO_FIRSTS;
+        private Node[] children = NO_CHILDREN;
+        // Entries whose path ends here, usually one
+        private Entry[] entries;
+        private int maxWeight = Integer.MIN_VALUE;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node child(char first) {
+            int i = Arrays.binarySearch(firsts, first);
+            return i >= 0 ? children[i] : null;
+        }
+
+        void addChild(Node child) {
+            int at = -Arrays.binarySearch(firsts, child.label.charAt(0)) - 1;
+            char[] newFirsts = new char[firsts.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(firsts, 0, newFirsts, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            newFirsts[at] = child.label.charAt(0);
+            newChildren[at] = child;
+            System.arraycopy(firsts, at, newFirsts, at + 1, firsts.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+            firsts = newFirsts;
+            children = newChildren;
+        }
+
+        // Replaces the child starting with the same character
+        void replaceChild(Node child) {
+            children[Arrays.binarySearch(firsts, child.label.charAt(0))] = child;
+        }
+
+        void removeChild(char first) {
+            int at = Arrays.binarySearch(firsts, first);
+            char[] newFirsts = new char[firsts.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(firsts, 0, newFirsts, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            System.arraycopy(firsts, at + 1, newFirsts, at, firsts.length - at - 1);
+            System.arraycopy(children, at + 1, newChildren, at, children.length - at - 1);
+            firsts = newFirsts;
+            children = newChildren;
+        }
+
+        // Takes over its only child, so the two edges become one
+        void mergeWithChild() {
+            Node child = children[0];
+            label = label + child.label;
+            firsts = child.firsts;
+            children = child.children;
+            entries = child.entries;
+            maxWeight = child.maxWeight;
+        }
+
+        void recomputeMaxWeight() {
+            int max = Integer.MIN_VALUE;
+            if (entries != null) {
+                for (Entry entry : entries) {
+                    max = Math.max(max, entry.weight());
+                }
+            }
+            for (Node child : children) {
+                max = Math.max(max, child.maxWeight);
+            }
+            maxWeight = max;
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("");
+    private final Map<String, Entry> entriesByKey = new HashMap<>();
+
+    /**
+     * Add or replace the suggestion identified by key (for example "course:12").
+     */
+    public void put(String key, String text, int weight) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            Entry entry = new Entry(key, text, weight);
+            for (String path : paths(text)) {
+                insert(path, entry);
+            }
+            entriesByKey.put(key, entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String key) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entriesByKey.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to limit entries whose text (or one of its words) starts with the prefix, heaviest first,
+     * shorter texts first among equal weights.
+     */
+    public List<Entry> suggest(String prefix, int limit) {
+        String folded = TextNormalizer.fold(prefix);
+        if (folded.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            // 1. Walk down to the node for the prefix; a prefix ending inside an edge matches everything below it
+            Node node = root;
+            int matched = 0;
+            while (matched < folded.length()) {
+                Node child = node.child(folded.charAt(matched));
+                if (child == null) {
+                    return List.of();
+                }
+                int length = Math.min(child.label.length(), folded.length() - matched);
+                if (!folded.regionMatches(matched, child.label, 0, length)) {
+                    return List.of();
+                }
+                matched += length;
+                node = child;
+            }
+
+            // 2. Best-first expansion by subtree max weight
+            Comparator<Entry> ranking = Comparator.comparingInt(Entry::weight).reversed()
+                    .thenComparingInt(entry -> entry.text().length());
+            PriorityQueue<Node> frontier = new PriorityQueue<>(
+                    Comparator.comparingInt((Node n) -> n.maxWeight).reversed());
+            PriorityQueue<Entry> best = new PriorityQueue<>(ranking.reversed());
+            Set<String> seen = new LinkedHashSet<>();
+            frontier.add(node);
+
+            while (!frontier.isEmpty()) {
+                Node next = frontier.poll();
+                // Nothing below this node can beat the current k-th entry (ties keep the entries found first)
+                if (best.size() == limit && next.maxWeight <= best.peek().weight()) {
+                    break;
+                }
+                if (next.entries != null) {
+                    for (Entry entry : next.entries) {
+                        if (seen.add(entry.key())) {
+                            best.add(entry);
+                            if (best.size() > limit) {
+                                seen.remove(best.poll().key());
+                            }
+                        }
+                    }
+                }
+                for (Node child : next.children) {
+                    frontier.add(child);
+                }
+            }
+
+            List<Entry> result = new ArrayList<>(best);
+            result.sort(ranking);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Helper method to list the folded strings an entry is reachable from: the whole text and each word suffix
+    private static List<String> paths(String text) {
+        String folded = TextNormalizer.fold(text);
+        List<String> paths = new ArrayList<>();
+        if (folded.isEmpty()) {
+            return paths;
+        }
+        paths.add(folded);
+        int start = 0;
+        for (int word = 1; word < MAX_START_WORDS; word++) {
+            start = folded.indexOf(' ', start) + 1;
+            if (start == 0) {
+                break;
+            }
+            paths.add(folded.substring(start));
+        }
+        return paths;
+    }
+
+    private void insert(String path, Entry entry) {
+        Node node = root;
+        raise(node, entry.weight());
+        int matched = 0;
+        while (matched < path.length()) {
+            Node child = node.child(path.charAt(matched));
+            if (child == null) {
+                // The rest of the path becomes one new edge
+                child = new Node(path.substring(matched));
+                node.addChild(child);
+                matched = path.length();
+            } else {
+                int common = commonPrefix(child.label, path, matched);
+                if (common < child.label.length()) {
+                    child = split(node, child, common);
+                }
+                matched += common;
+            }
+            node = child;
+            raise(node, entry.weight());
+        }
+        if (node.entries == null) {
+            node.entries = new Entry[]{entry};
+        } else {
+            node.entries = Arrays.copyOf(node.entries, node.entries.length + 1);
+            node.entries[node.entries.length - 1] = entry;
+        }
+    }
+
+    private void raise(Node node, int weight) {
+        node.maxWeight = Math.max(node.maxWeight, weight);
+    }
+
+    // Helper method to count how many characters of the label match the path from the given offset
+    private static int commonPrefix(String label, String path, int offset) {
+        int length = Math.min(label.length(), path.length() - offset);
+        int i = 0;
+        while (i < length && label.charAt(i) == path.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    // Helper method to cut an edge in two after its first characters, returning the new middle node
+    private static Node split(Node parent, Node child, int at) {
+        Node middle = new Node(child.label.substring(0, at));
+        child.label = child.label.substring(at);
+        middle.addChild(child);
+        middle.maxWeight = child.maxWeight;
+        parent.replaceChild(middle);
+        return middle;
+    }
+
+    private void removeLocked(String key) {
+        Entry entry = entriesByKey.remove(key);
+        if (entry == null) {
+            return;
+        }
+        for (String path : paths(entry.text())) {
+            // Collect the path so max weights can be recomputed bottom-up
+            List<Node> trail = new ArrayList<>();
+            trail.add(root);
+            Node node = root;
+            int matched = 0;
+            while (node != null && matched < path.length()) {
+                node = node.child(path.charAt(matched));
+                if (node != null && !path.startsWith(node.label, matched)) {
+                    node = null;
+                }
+                if (node != null) {
+                    matched += node.label.length();
+                    trail.add(node);
+                }
+            }
+            if (node == null || node.entries == null) {
+                continue;
+            }
+            Entry[] remaining = Arrays.stream(node.entries)
+                    .filter(existing -> !existing.key().equals(key))
+                    .toArray(Entry[]::new);
+            node.entries = remaining.length > 0 ? remaining : null;
+
+            // Drop nodes left without entries or children, and merge the ones left with a single child
+            for (int i = trail.size() - 1; i > 0; i--) {
+                Node current = trail.get(i);
+                if (current.entries == null && current.children.length == 0) {
+                    trail.get(i - 1).removeChild(current.label.charAt(0));
+                } else if (current.entries == null && current.children.length == 1) {
+                    current.mergeWithChild();
+                } else {
+                    current.recomputeMaxWeight();
+                }
+            }
+            root.recomputeMaxWeight();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package app.mobile.BK_sharing.search;
+
+import app.mobile.BK_sharing.utils.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index for typo-tolerant search over short texts (names, emails, codes).
+ * <p>
+ * Works like PostgreSQL's pg_trgm: text is folded (see {@link TextNormalizer}), each word is padded
+ * ("  word ") and cut into 3-character grams. A text matches when it contains most of the query's grams
+ * (like pg_trgm word similarity, so a short query can match one field of a long text), and matches are
+ * ranked by that share plus the overall similarity, which favours texts without much else in them. Folded text only contains [a-z0-9 ], so every gram maps to a slot of a fixed
+ * array of posting lists and lookups need no hashing.
+ * <p>
+ * Updates append a new slot and mark the old one dead; the index compacts itself once half the slots are dead.
+ */
+public class TrigramIndex {
+
+    private static final String ALPHABET = " abcdefghijklmnopqrstuvwxyz0123456789";
+    private static final int RADIX = ALPHABET.length();
+    private static final int GRAM_SPACE = RADIX * RADIX * RADIX;
+
+    // Same default as pg_trgm.word_similarity_threshold
+    private static final double WORD_SIMILARITY_THRESHOLD = 0.6;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // gram -> slots containing it, ascending; postingSizes holds how much of each array is used
+    private int[][] postings = new int[GRAM_SPACE][];
+    private int[] postingSizes = new int[GRAM_SPACE];
+
+    // Per slot: the id, folded text and gram count; text is null once the slot is dead
+    private long[] ids = new long[1024];
+    private String[] texts = new String[1024];
+    private int[] gramCounts = new int[1024];
+    private int slots;
+    private int deadSlots;
+
+    private final Map<Long, Integer> slotById = new HashMap<>();
+
+    public record Match(long id, double score) {
+    }
+
+    // Add or replace the text indexed for an id
+    public void put(long id, String text) {
+        String folded = TextNormalizer.fold(text);
+        int[] grams = grams(folded);
+
+        lock.writeLock().lock();
+        try {
+            Integer previous = slotById.remove(id);
+            if (previous != null) {
+                kill(previous);
+            }
+            if (grams.length == 0) {
+                return;
+            }
+
+            int slot = allocate(id, folded, grams.length);
+            for (int gram : grams) {
+                append(gram, slot);
+            }
+            slotById.put(id, slot);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotById.remove(id);
+            if (slot != null) {
+                kill(slot);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best matches for the query, highest score first. Texts containing the folded query as a substring
+     * always match and rank above fuzzy matches; other texts need at least 60% of the query's grams.
+     */
+    public List<Match> search(String query, int limit) {
+        String folded = TextNormalizer.fold(query);
+        int[] queryGrams = grams(folded);
+        if (queryGrams.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            // 1. Count the grams each slot shares with the query
+            int[] shared = new int[slots];
+            int[] touched = new int[Math.min(slots, 1024)];
+            int touchedCount = 0;
+            for (int gram : queryGrams) {
+                int[] posting = postings[gram];
+                for (int i = 0; i < postingSizes[gram]; i++) {
+                    int slot = posting[i];
+                    if (shared[slot]++ == 0) {
+                        if (touchedCount == touched.length) {
+                            touched = Arrays.copyOf(touched, touched.length * 2);
+                        }
+                        touched[touchedCount++] = slot;
+                    }
+                }
+            }
+
+            // 2. Score the candidates and keep the best ones
+            PriorityQueue<Match> best = new PriorityQueue<>(Comparator.comparingDouble(Match::score));
+            for (int i = 0; i < touchedCount; i++) {
+                int slot = touched[i];
+                String text = texts[slot];
+                if (text == null) {
+                    continue;
+                }
+                double wordSimilarity = (double) shared[slot] / queryGrams.length;
+                boolean contains = text.contains(folded);
+                if (!contains && wordSimilarity < WORD_SIMILARITY_THRESHOLD) {
+                    continue;
+                }
+
+                double similarity = (double) shared[slot] / (queryGrams.length + gramCounts[slot] - shared[slot]);
+                double score = (contains ? 2 : 0) + wordSimilarity + similarity;
+                if (best.size() < limit) {
+                    best.add(new Match(ids[slot], score));
+                } else if (score > best.peek().score()) {
+                    best.poll();
+                    best.add(new Match(ids[slot], score));
+                }
+            }
+
+            List<Match> matches = new ArrayList<>(best);
+            matches.sort(Comparator.comparingDouble(Match::score).reversed());
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Helper method to compute the distinct grams of folded text, pg_trgm style
+    static int[] grams(String folded) {
+        if (folded.isEmpty()) {
+            return new int[0];
+        }
+
+        int[] grams = new int[folded.length() * 3 + 3];
+        int count = 0;
+        for (String word : folded.split(" ")) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams[count++] = (ALPHABET.indexOf(padded.charAt(i)) * RADIX
+                        + ALPHABET.indexOf(padded.charAt(i + 1))) * RADIX
+                        + ALPHABET.indexOf(padded.charAt(i + 2));
+            }
+        }
+
+        // Keep each gram once
+        Arrays.sort(grams, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || grams[i] != grams[distinct - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    private int allocate(long id, String folded, int gramCount) {
+        if (slots == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+            gramCounts = Arrays.copyOf(gramCounts, capacity);
+        }
+        ids[slots] = id;
+        texts[slots] = folded;
+        gramCounts[slots] = gramCount;
+        return slots++;
+    }
+
+    private void append(int gram, int slot) {
+        int[] posting = postings[gram];
+        if (posting == null) {
+            posting = new int[4];
+        } else if (postingSizes[gram] == posting.length) {
+            posting = Arrays.copyOf(posting, posting.length * 2);
+        }
+        posting[postingSizes[gram]++] = slot;
+        postings[gram] = posting;
+    }
+
+    private void kill(int slot) {
+        texts[slot] = null;
+        deadSlots++;
+    }
+
+    // Helper method to rebuild the posting lists without dead slots once they make up half the index
+    private void compactIfNeeded() {
+        if (deadSlots < 1024 || deadSlots * 2 < slots) {
+            return;
+        }
+
+        long[] oldIds = ids;
+        String[] oldTexts = texts;
+        int oldSlots = slots;
+
+        postings = new int[GRAM_SPACE][];
+        postingSizes = new int[GRAM_SPACE];
+        ids = new long[Math.max(1024, oldSlots - deadSlots)];
+        texts = new String[ids.length];
+        gramCounts = new int[ids.length];
+        slots = 0;
+        deadSlots = 0;
+        slotById.clear();
+
+        for (int old = 0; old < oldSlots; old++) {
+            if (oldTexts[old] == null) {
+                continue;
+            }
+            int[] grams = grams(oldTexts[old]);
+            int slot = allocate(oldIds[old], oldTexts[old], grams.length);
+            for (int gram : grams) {
+                append(gram, slot);
+            }
+            slotById.put(oldIds[old], slot);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package app.mobile.BK_sharing.search.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One facet value with the number of documents it would select, e.g. ("12", "Giải tích 1", 40)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCountDto {
+    private String value;
+    private String label;
+    private long count;
+}
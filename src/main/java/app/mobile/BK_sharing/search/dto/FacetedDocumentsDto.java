@@ -0,0 +1,23 @@
+package app.mobile.BK_sharing.search.dto;
+
+import app.mobile.BK_sharing.document.dto.DocumentResponseDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// A page of filtered documents plus the facet counts for everything that matched the filters
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetedDocumentsDto {
+    private List<DocumentResponseDto> documents;
+    private long totalElements;
+    private int page;
+    private int size;
+    private List<FacetCountDto> categories;
+    private List<FacetCountDto> courses;
+    private List<FacetCountDto> fileTypes;
+    private List<FacetCountDto> approval;
+}
@@ -0,0 +1,35 @@
+package app.mobile.BK_sharing.search.dto;
+
+import app.mobile.BK_sharing.search.SuggestionTrie;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDto {
+    private Type type;
+    private Long id;
+    private String text;
+
+    public enum Type {
+        DOCUMENT,
+        COURSE,
+        CATEGORY;
+
+        // Trie key of an entity, e.g. "COURSE:12"
+        public String key(Long id) {
+            return name() + ":" + id;
+        }
+    }
+
+    public static SuggestionDto fromEntry(SuggestionTrie.Entry entry) {
+        String key = entry.key();
+        int separator = key.indexOf(':');
+        return new SuggestionDto(
+                Type.valueOf(key.substring(0, separator)),
+                Long.valueOf(key.substring(separator + 1)),
+                entry.text());
+    }
+}
@@ -0,0 +1,280 @@
+package app.mobile.BK_sharing.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Size-bounded local disk copies of stored files, keyed by storage filename.
+ * Stored files are never rewritten under the same name (names are content hashes or UUIDs),
+ * so a cached copy stays valid until the file is deleted from storage.
+ * <p>
+ * The least recently read files are evicted once the cache grows past {@code app.storage.cache.max-size}.
+ * The directory is the source of truth: the in-memory index is rebuilt from it on startup,
+ * using file modification times (refreshed on every hit) as the access order.
+ */
+@Component
+@Slf4j
+public class BlobCache {
+
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    private final StorageBackend storageBackend;
+
+    @Value("${app.storage.cache.dir}")
+    private String cacheDir;
+
+    @Value("${app.file.upload-dir}")
+    private String uploadDir;
+
+    @Value("${app.storage.cache.max-size:2GB}")
+    private DataSize maxSize;
+
+    // filename -> size in bytes, in access order (eldest first); guarded by this
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    // One download per file at a time; concurrent readers of the same file wait for it
+    private final ConcurrentHashMap<String, Object> downloadLocks = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    private Path root;
+
+    public BlobCache(StorageBackend storageBackend, MeterRegistry meterRegistry) {
+        this.storageBackend = storageBackend;
+        this.hits = meterRegistry.counter("storage.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("storage.cache.requests", "result", "miss");
+        this.evictions = meterRegistry.counter("storage.cache.evictions");
+        Gauge.builder("storage.cache.size", this, BlobCache::size)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Path.of(cacheDir).toAbsolutePath().normalize();
+        if (root.startsWith(Path.of(uploadDir).toAbsolutePath().normalize())) {
+            throw new IllegalStateException("app.storage.cache.dir must not be inside app.file.upload-dir: " + root);
+        }
+        Files.createDirectories(root);
+        rebuildIndex();
+    }
+
+    /**
+     * The file behind a public URL as a memory-mapped resource, downloading it on first use.
+     */
+    public Resource getResource(String fileUrl) throws IOException {
+        try {
+            return open(get(fileUrl));
+        } catch (NoSuchFileException e) {
+            // Evicted between lookup and mapping: fetch it again
+            return open(get(fileUrl));
+        }
+    }
+
+    private Resource open(Path path) throws IOException {
+        return MappedFileResource.canMap(path) ? new MappedFileResource(path) : new FileSystemResource(path);
+    }
+
+    /**
+     * Path of a local copy of the file behind a public URL, downloading it on first use.
+     */
+    public Path get(String fileUrl) throws IOException {
+        // Backends that already keep the file on disk are read directly
+        Optional<Path> localPath = storageBackend.localPath(fileUrl);
+        if (localPath.isPresent()) {
+            return localPath.get();
+        }
+
+        String filename = StorageBackend.extractFilename(fileUrl);
+        Path cached = resolve(filename);
+        if (hit(filename, cached)) {
+            return cached;
+        }
+
+        Object lock = downloadLocks.computeIfAbsent(filename, key -> new Object());
+        synchronized (lock) {
+            try {
+                if (!hit(filename, cached)) {
+                    misses.increment();
+                    download(fileUrl, cached);
+                    add(filename, Files.size(cached));
+                }
+            } finally {
+                downloadLocks.remove(filename, lock);
+            }
+        }
+        return cached;
+    }
+
+    // Drop the local copy, called once the file is deleted from storage
+    public void evict(String fileUrl) {
+        String filename = StorageBackend.extractFilename(fileUrl);
+        try {
+            synchronized (this) {
+                Long size = entries.remove(filename);
+                if (size != null) {
+                    totalBytes -= size;
+                }
+            }
+            Files.deleteIfExists(resolve(filename));
+        } catch (Exception e) {
+            log.warn("Failed to evict {} from the blob cache: {}", fileUrl, e.getMessage());
+        }
+    }
+
+    public synchronized long size() {
+        return totalBytes;
+    }
+
+    // Helper method to look up and touch an entry; an entry whose file vanished is dropped
+    private boolean hit(String filename, Path cached) {
+        synchronized (this) {
+            if (!entries.containsKey(filename)) {
+                return false;
+            }
+            entries.get(filename); // moves the entry to the most recently used end
+        }
+
+        try {
+            // Keep the access order on disk so it survives a restart
+            Files.setLastModifiedTime(cached, FileTime.fromMillis(System.currentTimeMillis()));
+            hits.increment();
+            return true;
+        } catch (NoSuchFileException e) {
+            synchronized (this) {
+                Long size = entries.remove(filename);
+                if (size != null) {
+                    totalBytes -= size;
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            hits.increment();
+            return true;
+        }
+    }
+
+    private void add(String filename, long size) {
+        List<String> victims;
+        synchronized (this) {
+            Long previous = entries.put(filename, size);
+            totalBytes += size - (previous != null ? previous : 0);
+            victims = selectVictims(filename);
+        }
+        deleteVictims(victims);
+    }
+
+    // Helper method to remove the least recently used entries until the cache fits its budget.
+    // The entry just added is kept even if it alone is larger than the budget.
+    private List<String> selectVictims(String keep) {
+        List<String> victims = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxSize.toBytes() && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            victims.add(eldest.getKey());
+        }
+        return victims;
+    }
+
+    private void deleteVictims(List<String> victims) {
+        for (String filename : victims) {
+            try {
+                Files.deleteIfExists(resolve(filename));
+                evictions.increment();
+            } catch (IOException e) {
+                log.warn("Failed to delete evicted cache file {}: {}", filename, e.getMessage());
+            }
+        }
+    }
+
+    // Helper method to rebuild the index from the cache directory, oldest access first.
+    // A crash can leave partial downloads behind; they are deleted, and only complete files are indexed.
+    private void rebuildIndex() throws IOException {
+        record CachedFile(String filename, long size, FileTime lastAccess) {}
+
+        List<CachedFile> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(root)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                String filename = path.getFileName().toString();
+                if (filename.endsWith(PARTIAL_SUFFIX)) {
+                    Files.deleteIfExists(path);
+                } else if (Files.isRegularFile(path)) {
+                    files.add(new CachedFile(filename, Files.size(path), Files.getLastModifiedTime(path)));
+                }
+            }
+        }
+        files.sort(Comparator.comparing(CachedFile::lastAccess));
+
+        List<String> victims;
+        synchronized (this) {
+            entries.clear();
+            totalBytes = 0;
+            for (CachedFile file : files) {
+                entries.put(file.filename(), file.size());
+                totalBytes += file.size();
+            }
+            victims = selectVictims(null);
+        }
+        deleteVictims(victims);
+
+        log.info("Blob cache at {} holds {} file(s), {} bytes (limit {})",
+                root, entries.size(), totalBytes, maxSize);
+    }
+
+    // Helper method to download into a partial file and rename it, so readers never see half a file
+    private void download(String fileUrl, Path target) throws IOException {
+        Path partial = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + PARTIAL_SUFFIX);
+        try {
+            try (InputStream inputStream = storageBackend.openStream(fileUrl)) {
+                Files.copy(inputStream, partial);
+            }
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.debug("Cached {} ({} bytes)", target.getFileName(), Files.size(target));
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    // Helper method to map a filename into the cache directory, rejecting path traversal
+    private Path resolve(String filename) {
+        Path path = root.resolve(filename).normalize();
+        if (!path.getParent().equals(root)) {
+            throw new IllegalArgumentException("Invalid file name: " + filename);
+        }
+        return path;
+    }
+}
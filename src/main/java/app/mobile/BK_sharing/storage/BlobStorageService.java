@@ -0,0 +1,175 @@
+package app.mobile.BK_sharing.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Content-addressed storage for document files.
+ * Identical bytes are uploaded once, stored under their SHA-256 and reference-counted in stored_blob.
+ * <p>
+ * A blob whose last reference is released keeps its row, at zero references, until
+ * {@link StorageDeletionWorker} has deleted the file. Until a worker claims the deletion, {@link #store}
+ * cancels it and reuses the file; once claimed the blob is marked as deleting, and the content is uploaded
+ * again under a new name, so content uploaded again while its deletion is queued (or running) is never lost.
+ */
+@Service
+@Slf4j
+public class BlobStorageService {
+
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    // A new file can be deleted again before it is referenced (see recordUpload); this bounds the retries
+    private static final int MAX_STORE_ATTEMPTS = 3;
+
+    private final StorageBackend storageBackend;
+    private final StoredBlobRepository storedBlobRepository;
+    private final StorageDeletionOutbox storageDeletionOutbox;
+    private final TransactionTemplate newTransaction;
+
+    public BlobStorageService(StorageBackend storageBackend,
+                              StoredBlobRepository storedBlobRepository,
+                              StorageDeletionOutbox storageDeletionOutbox,
+                              PlatformTransactionManager transactionManager) {
+        this.storageBackend = storageBackend;
+        this.storedBlobRepository = storedBlobRepository;
+        this.storageDeletionOutbox = storageDeletionOutbox;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Store the file (or reuse the stored copy of the same content) and take one reference to it.
+     * Returns the public URL to save on the document.
+     */
+    @Transactional
+    public String store(MultipartFile file) throws IOException {
+        // 1. Hash the multipart part, which is already on local disk
+        String sha256 = sha256(file);
+
+        for (int attempt = 1; attempt <= MAX_STORE_ATTEMPTS; attempt++) {
+            // 2. Same content already stored: just count one more reference, nothing is uploaded
+            Optional<StoredBlob> existing = storedBlobRepository.findBySha256(sha256);
+            if (existing.isPresent()) {
+                return reference(existing.get(), file);
+            }
+
+            // 3. New content: upload under its hash so the object name identifies the bytes, then record it
+            String publicUrl = storageBackend.uploadFile(file, sha256 + fileExtension(file.getOriginalFilename()));
+            recordUpload(sha256, publicUrl, file.getSize());
+        }
+        throw new IllegalStateException("Could not store file with SHA-256 " + sha256);
+    }
+
+    /**
+     * Drop one reference to a stored file. When no document references it anymore the file is
+     * queued for deletion. Files stored before deduplication have no blob row and are queued directly.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(String fileUrl) {
+        Optional<StoredBlob> existing = storedBlobRepository.findByFilePath(fileUrl);
+        if (existing.isEmpty()) {
+            storageDeletionOutbox.enqueue(fileUrl);
+            return;
+        }
+
+        // The row stays until the worker has deleted the file, so a new upload of the content can stop it
+        StoredBlob blob = existing.get();
+        blob.setRefCount(Math.max(blob.getRefCount() - 1, 0));
+        if (blob.getRefCount() == 0) {
+            storageDeletionOutbox.enqueue(fileUrl);
+        }
+    }
+
+    // Helper method to take one more reference to a locked blob. One without references is queued for
+    // deletion, which is cancelled; if a worker has claimed it already, the file may be gone, so the content is
+    // uploaded again under a new name and the blob moves to it (the worker deletes the old name).
+    private String reference(StoredBlob blob, MultipartFile file) throws IOException {
+        if (blob.isDeleting()) {
+            String objectName = blob.getSha256() + "-" + UUID.randomUUID() + fileExtension(file.getOriginalFilename());
+            String publicUrl = storageBackend.uploadFile(file, objectName);
+            deleteOnRollback(publicUrl);
+            blob.setFilePath(publicUrl);
+            blob.setDeleting(false);
+        } else if (blob.getRefCount() == 0) {
+            storageDeletionOutbox.cancel(blob.getFilePath());
+        }
+
+        blob.setRefCount(blob.getRefCount() + 1);
+        log.info("Reusing stored file {} (references: {})", blob.getFilePath(), blob.getRefCount());
+        return blob.getFilePath();
+    }
+
+    // Helper method to record a new file in its own transaction, without references and queued for deletion,
+    // so it is deleted rather than leaked if the caller's transaction rolls back. When the same content is
+    // uploaded concurrently only one insert wins the unique sha256, and both callers then reference that row.
+    private void recordUpload(String sha256, String publicUrl, long fileSize) {
+        try {
+            newTransaction.executeWithoutResult(status -> {
+                StoredBlob blob = new StoredBlob();
+                blob.setSha256(sha256);
+                blob.setFilePath(publicUrl);
+                blob.setFileSize(fileSize);
+                blob.setRefCount(0);
+                storedBlobRepository.saveAndFlush(blob);
+                storageDeletionOutbox.enqueue(publicUrl);
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("File {} was recorded by a concurrent upload", publicUrl);
+        }
+    }
+
+    // Helper method to queue an uploaded file for deletion if the caller's transaction rolls back
+    private void deleteOnRollback(String publicUrl) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    newTransaction.executeWithoutResult(s -> storageDeletionOutbox.enqueue(publicUrl));
+                }
+            }
+        });
+    }
+
+    // Helper method to compute the SHA-256 of the file by streaming it through a fixed buffer
+    private String sha256(MultipartFile file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+
+        byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        try (InputStream inputStream = file.getInputStream()) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private String fileExtension(String originalFilename) {
+        if (originalFilename == null || !originalFilename.contains(".")) {
+            return "";
+        }
+        return originalFilename.substring(originalFilename.lastIndexOf(".")).toLowerCase();
+    }
+}
@@ -0,0 +1,120 @@
+package app.mobile.BK_sharing.storage;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "local")
+@Slf4j
+public class LocalStorageService implements StorageBackend {
+
+    @Value("${app.file.upload-dir}")
+    private String uploadDir;
+
+    // Prefix of the URLs files are served from (see LocalStorageWebConfig)
+    @Value("${app.storage.local.public-url:/files}")
+    private String publicUrl;
+
+    private Path rootLocation;
+
+    @PostConstruct
+    public void init() throws IOException {
+        rootLocation = Path.of(uploadDir).toAbsolutePath().normalize();
+        Files.createDirectories(rootLocation);
+        log.info("Local storage backend using directory: {}", rootLocation);
+    }
+
+    @Override
+    public String uploadFile(MultipartFile file, String objectName) throws IOException {
+        Path target = resolve(objectName);
+        Path partial = target.resolveSibling(objectName + "." + UUID.randomUUID() + ".part");
+
+        // Write to a partial file first so a crash never leaves a truncated file under the final name
+        try {
+            writeFile(file, partial);
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+
+        return publicUrl + "/" + objectName;
+    }
+
+    // Helper method to write the upload to disk. Uploads that are already a file (assembled from chunks) are
+    // copied file to file by FileChannel.transferTo, which the kernel does without reading them into the heap;
+    // multipart parts only offer a stream, so they are copied through a buffer.
+    private void writeFile(MultipartFile file, Path destination) throws IOException {
+        Resource resource = file.getResource();
+        if (!resource.isFile()) {
+            try (InputStream inputStream = file.getInputStream()) {
+                Files.copy(inputStream, destination);
+            }
+            return;
+        }
+
+        try (FileChannel source = FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(destination, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long size = source.size();
+            long position = 0;
+            while (position < size) {
+                position += source.transferTo(position, size - position, target);
+            }
+        }
+    }
+
+    @Override
+    public void deleteFile(String fileUrl) throws IOException {
+        try {
+            Files.deleteIfExists(resolve(StorageBackend.extractFilename(fileUrl)));
+        } catch (Exception e) {
+            throw new IOException("Failed to delete file from local storage: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean fileExists(String fileUrl) {
+        try {
+            return Files.exists(resolve(StorageBackend.extractFilename(fileUrl)));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Override
+    public InputStream openStream(String fileUrl) throws IOException {
+        return Files.newInputStream(resolve(StorageBackend.extractFilename(fileUrl)));
+    }
+
+    @Override
+    public Optional<Path> localPath(String fileUrl) {
+        return Optional.of(resolve(StorageBackend.extractFilename(fileUrl)));
+    }
+
+    public Path getRootLocation() {
+        return rootLocation;
+    }
+
+    // Helper method to map a filename into the upload directory, rejecting path traversal
+    private Path resolve(String filename) {
+        Path path = rootLocation.resolve(filename).normalize();
+        if (!path.getParent().equals(rootLocation)) {
+            throw new IllegalArgumentException("Invalid file name: " + filename);
+        }
+        return path;
+    }
+}
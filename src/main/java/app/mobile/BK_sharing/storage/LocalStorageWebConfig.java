@@ -0,0 +1,26 @@
+package app.mobile.BK_sharing.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Serves files of the local storage backend straight from the upload directory
+@Configuration
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "local")
+@RequiredArgsConstructor
+public class LocalStorageWebConfig implements WebMvcConfigurer {
+
+    private final LocalStorageService localStorageService;
+
+    @Value("${app.storage.local.public-url:/files}")
+    private String publicUrl;
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler(publicUrl + "/**")
+                .addResourceLocations(localStorageService.getRootLocation().toUri().toString());
+    }
+}
@@ -0,0 +1,58 @@
+package app.mobile.BK_sharing.storage;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Where uploaded files live. The implementation is picked with {@code app.storage.backend}
+ * ({@code supabase} by default, or {@code local}).
+ */
+public interface StorageBackend {
+
+    // Store the file and return the public URL that is saved in the database
+    default String uploadFile(MultipartFile file) throws IOException {
+        return uploadFile(file, generateFilename(file.getOriginalFilename()));
+    }
+
+    // Store the file under the given object name, replacing any object with that name
+    String uploadFile(MultipartFile file, String objectName) throws IOException;
+
+    // Delete the file behind a public URL returned by uploadFile
+    void deleteFile(String fileUrl) throws IOException;
+
+    // Delete several files at once; backends with a bulk API override this
+    default void deleteFiles(List<String> fileUrls) throws IOException {
+        for (String fileUrl : fileUrls) {
+            deleteFile(fileUrl);
+        }
+    }
+
+    boolean fileExists(String fileUrl);
+
+    // Open the content behind a public URL for reading; the caller closes the stream
+    InputStream openStream(String fileUrl) throws IOException;
+
+    // The file on local disk, for backends that keep one, so readers can skip copying it
+    default Optional<Path> localPath(String fileUrl) {
+        return Optional.empty();
+    }
+
+    // Helper method to build a unique object name that keeps the original extension
+    static String generateFilename(String originalFilename) {
+        assert originalFilename != null;
+        String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
+        return UUID.randomUUID() + fileExtension;
+    }
+
+    // Helper method to extract filename from URL
+    static String extractFilename(String fileUrl) {
+        // Remove everything before the last "/" to get filename
+        return fileUrl.substring(fileUrl.lastIndexOf("/") + 1);
+    }
+}
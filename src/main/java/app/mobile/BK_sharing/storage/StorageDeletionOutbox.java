@@ -0,0 +1,41 @@
+package app.mobile.BK_sharing.storage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records files to delete from storage inside the caller's transaction.
+ * Nothing is sent to the storage backend here; {@link StorageDeletionWorker} does that after commit,
+ * so a rolled back delete never loses a file and a slow backend never holds a DB connection.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StorageDeletionOutbox {
+
+    private final StorageDeletionTaskRepository storageDeletionTaskRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String fileUrl) {
+        if (fileUrl == null || fileUrl.isBlank()) {
+            return;
+        }
+        storageDeletionTaskRepository.save(new StorageDeletionTask(fileUrl));
+        log.debug("Queued storage deletion for: {}", fileUrl);
+    }
+
+    /**
+     * Drop the queued deletions of a file that is referenced again. Waits for a worker deleting it
+     * right now, so afterwards the file is either still there or already gone.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cancel(String fileUrl) {
+        int cancelled = storageDeletionTaskRepository.deleteByFilePath(fileUrl);
+        if (cancelled > 0) {
+            log.debug("Cancelled {} queued storage deletion(s) for: {}", cancelled, fileUrl);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package app.mobile.BK_sharing.storage;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+// Outbox row for a stored file that must be deleted once the surrounding transaction commits
+@Entity
+@Table(name = "storage_deletion_task")
+@Data
+@NoArgsConstructor
+public class StorageDeletionTask {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "task_id")
+    private Long taskId;
+
+    @Column(name = "file_path", nullable = false, length = 500)
+    private String filePath;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status = Status.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public StorageDeletionTask(String filePath) {
+        this.filePath = filePath;
+        this.nextAttemptAt = LocalDateTime.now();
+    }
+
+    public enum Status {
+        PENDING,   // Waiting to be (re)tried by the worker
+        FAILED     // Gave up after the maximum number of attempts
+    }
+}
@@ -0,0 +1,37 @@
+package app.mobile.BK_sharing.storage;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StorageDeletionTaskRepository extends JpaRepository<StorageDeletionTask, Long> {
+
+    // Due tasks, locked with SKIP LOCKED so several workers never claim the same row
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT t FROM StorageDeletionTask t " +
+            "WHERE t.status = :status AND t.nextAttemptAt <= :now " +
+            "ORDER BY t.nextAttemptAt")
+    List<StorageDeletionTask> findDueTasks(
+            @Param("status") StorageDeletionTask.Status status,
+            @Param("now") LocalDateTime now,
+            Pageable pageable
+    );
+
+    long countByStatus(StorageDeletionTask.Status status);
+
+    @Modifying
+    @Query("DELETE FROM StorageDeletionTask t WHERE t.filePath = :filePath")
+    int deleteByFilePath(@Param("filePath") String filePath);
+}
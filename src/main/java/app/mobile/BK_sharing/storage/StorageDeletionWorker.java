@@ -0,0 +1,157 @@
+package app.mobile.BK_sharing.storage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the storage deletion outbox in batches, holding no rows while the storage backend works.
+ * <ol>
+ * <li>A short transaction claims due tasks and checks the blob of each file: a file uploaded again since it
+ * was released has its tasks dropped, the others have their blob marked as deleting.</li>
+ * <li>The files are deleted with one {@link StorageBackend#deleteFiles} call per batch, outside any transaction.</li>
+ * <li>A second transaction removes their tasks, and the blob rows still marked as deleting.</li>
+ * </ol>
+ * {@link BlobStorageService#store} does not reuse a file whose blob is marked as deleting, it uploads the
+ * content again under a new name. Failed deletions are rescheduled with exponential backoff.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StorageDeletionWorker {
+
+    private final StorageDeletionTaskRepository storageDeletionTaskRepository;
+    private final StoredBlobRepository storedBlobRepository;
+    private final StorageBackend storageBackend;
+    private final BlobCache blobCache;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.storage.deletion.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.storage.deletion.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.storage.deletion.initial-backoff:30s}")
+    private Duration initialBackoff;
+
+    @Value("${app.storage.deletion.max-backoff:1h}")
+    private Duration maxBackoff;
+
+    // How long a claimed task stays hidden from other workers while its files are being deleted
+    @Value("${app.storage.deletion.lease:5m}")
+    private Duration lease;
+
+    // Tasks claimed in one transaction, and the ones among them whose files are to be deleted, by file
+    private record Claim(int claimed, Map<String, List<StorageDeletionTask>> tasksByFile) {
+    }
+
+    @Scheduled(fixedDelayString = "${app.storage.deletion.poll-interval:5s}")
+    public void drain() {
+        Claim claim;
+        do {
+            claim = claimBatch();
+            if (!claim.tasksByFile().isEmpty()) {
+                process(claim.tasksByFile());
+            }
+        } while (claim.claimed() == batchSize);
+    }
+
+    private Claim claimBatch() {
+        return transactionTemplate.execute(status -> {
+            // 1. Due tasks, hidden from other workers for the lease
+            LocalDateTime now = LocalDateTime.now();
+            List<StorageDeletionTask> tasks = storageDeletionTaskRepository.findDueTasks(
+                    StorageDeletionTask.Status.PENDING, now, PageRequest.of(0, batchSize));
+            tasks.forEach(task -> task.setNextAttemptAt(now.plus(lease)));
+            Map<String, List<StorageDeletionTask>> tasksByFile = tasks.stream()
+                    .collect(Collectors.groupingBy(StorageDeletionTask::getFilePath, LinkedHashMap::new, Collectors.toList()));
+
+            // 2. Their blobs. An upload locks a blob before its tasks (see BlobStorageService.store), so a blob
+            // it holds is skipped instead of waited for; that file's tasks come back once the lease runs out
+            Set<String> withBlob = new HashSet<>(storedBlobRepository.findFilePathsIn(tasksByFile.keySet()));
+            Map<String, StoredBlob> blobs = storedBlobRepository.findUnlockedByFilePathIn(tasksByFile.keySet()).stream()
+                    .collect(Collectors.toMap(StoredBlob::getFilePath, Function.identity()));
+
+            // 3. Keep files referenced again, mark the others as deleting
+            Map<String, List<StorageDeletionTask>> toDelete = new LinkedHashMap<>();
+            tasksByFile.forEach((filePath, fileTasks) -> {
+                StoredBlob blob = blobs.get(filePath);
+                if (blob == null && withBlob.contains(filePath)) {
+                    return;
+                }
+                if (blob != null && blob.getRefCount() > 0) {
+                    log.info("Keeping {}: uploaded again after it was released", filePath);
+                    storageDeletionTaskRepository.deleteAll(fileTasks);
+                    return;
+                }
+                if (blob != null) {
+                    blob.setDeleting(true);
+                }
+                toDelete.put(filePath, fileTasks);
+            });
+            return new Claim(tasks.size(), toDelete);
+        });
+    }
+
+    private void process(Map<String, List<StorageDeletionTask>> tasksByFile) {
+        List<String> filePaths = List.copyOf(tasksByFile.keySet());
+        List<StorageDeletionTask> tasks = tasksByFile.values().stream().flatMap(List::stream).toList();
+
+        // 1. One call for the whole batch, outside any transaction
+        try {
+            storageBackend.deleteFiles(filePaths);
+        } catch (Exception e) {
+            log.warn("Failed to delete {} file(s) from storage: {}", filePaths.size(), e.getMessage());
+            transactionTemplate.executeWithoutResult(status -> reschedule(tasks, e.getMessage()));
+            return;
+        }
+
+        // 2. Drop their tasks, and the blobs no upload has taken over meanwhile
+        transactionTemplate.executeWithoutResult(status -> {
+            storageDeletionTaskRepository.deleteAllByIdInBatch(tasks.stream().map(StorageDeletionTask::getTaskId).toList());
+            storedBlobRepository.deleteDeletingByFilePathIn(filePaths);
+        });
+        filePaths.forEach(blobCache::evict);
+        log.info("Deleted {} file(s) from storage", filePaths.size());
+    }
+
+    private void reschedule(List<StorageDeletionTask> claimed, String error) {
+        // Reloaded: a re-upload of the file may have cancelled some of them meanwhile
+        List<StorageDeletionTask> batch = storageDeletionTaskRepository.findAllById(
+                claimed.stream().map(StorageDeletionTask::getTaskId).toList());
+        LocalDateTime now = LocalDateTime.now();
+        for (StorageDeletionTask task : batch) {
+            task.setAttempts(task.getAttempts() + 1);
+            task.setLastError(error);
+
+            if (task.getAttempts() >= maxAttempts) {
+                task.setStatus(StorageDeletionTask.Status.FAILED);
+                log.error("Giving up deleting {} after {} attempts", task.getFilePath(), task.getAttempts());
+            } else {
+                task.setNextAttemptAt(now.plus(backoff(task.getAttempts())));
+            }
+        }
+        storageDeletionTaskRepository.saveAll(batch);
+    }
+
+    // Exponential backoff: initial, 2x, 4x, ... capped at maxBackoff
+    private Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
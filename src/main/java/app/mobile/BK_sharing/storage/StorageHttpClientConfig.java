@@ -0,0 +1,87 @@
+package app.mobile.BK_sharing.storage;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+
+/**
+ * One pooled HTTP client for all Supabase storage calls, so requests reuse kept-alive
+ * connections instead of paying a TCP + TLS handshake each time.
+ * Request timings are published as http.client.requests and pool usage as httpcomponents.httpclient.pool.*.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "supabase", matchIfMissing = true)
+public class StorageHttpClientConfig {
+
+    @Value("${app.storage.http.connect-timeout:5s}")
+    private Duration connectTimeout;
+
+    @Value("${app.storage.http.read-timeout:60s}")
+    private Duration readTimeout;
+
+    // How long a request may wait for a free connection from the pool
+    @Value("${app.storage.http.pool.acquire-timeout:10s}")
+    private Duration acquireTimeout;
+
+    @Value("${app.storage.http.pool.max-total:20}")
+    private int maxTotal;
+
+    @Value("${app.storage.http.pool.max-per-route:20}")
+    private int maxPerRoute;
+
+    // Idle connections are closed after this long
+    @Value("${app.storage.http.pool.idle-timeout:30s}")
+    private Duration idleTimeout;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager storageConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient storageHttpClient(PoolingHttpClientConnectionManager storageConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(storageConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(acquireTimeout))
+                        .build())
+                .evictIdleConnections(TimeValue.of(idleTimeout))
+                .build();
+    }
+
+    @Bean
+    public RestClient storageRestClient(RestClient.Builder builder, CloseableHttpClient storageHttpClient) {
+        // The Boot builder carries the observation registry, so every call is timed
+        return builder
+                .requestFactory(new HttpComponentsClientHttpRequestFactory(storageHttpClient))
+                .build();
+    }
+
+    @Bean
+    public MeterBinder storageConnectionPoolMetrics(PoolingHttpClientConnectionManager storageConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(storageConnectionManager, "supabase-storage");
+    }
+}
@@ -0,0 +1,42 @@
+package app.mobile.BK_sharing.storage;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+// One stored file, identified by the SHA-256 of its bytes and shared by every document that uploads the same content
+@Entity
+@Table(name = "stored_blob")
+@Data
+@NoArgsConstructor
+public class StoredBlob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "blob_id")
+    private Long blobId;
+
+    @Column(name = "sha256", nullable = false, unique = true, length = 64)
+    private String sha256;
+
+    @Column(name = "file_path", nullable = false, unique = true, length = 500)
+    private String filePath;
+
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    // Number of documents referencing this file; at zero the file is queued for deletion and the row goes with it
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount = 0;
+
+    // Set once a deletion worker has claimed the file, which may then be gone at any moment
+    @Column(name = "deleting", nullable = false)
+    private boolean deleting;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
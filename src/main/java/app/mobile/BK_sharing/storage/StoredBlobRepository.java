@@ -0,0 +1,41 @@
+package app.mobile.BK_sharing.storage;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, Long> {
+
+    // Locked so concurrent uploads and deletes of the same content update ref_count one at a time
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<StoredBlob> findBySha256(String sha256);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<StoredBlob> findByFilePath(String filePath);
+
+    // Which of the files have a blob, without locking
+    @Query("SELECT b.filePath FROM StoredBlob b WHERE b.filePath IN :filePaths")
+    List<String> findFilePathsIn(@Param("filePaths") Collection<String> filePaths);
+
+    // Blobs of the files, locked with SKIP LOCKED so a deletion worker never waits for an upload (see StorageDeletionWorker)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT b FROM StoredBlob b WHERE b.filePath IN :filePaths")
+    List<StoredBlob> findUnlockedByFilePathIn(@Param("filePaths") Collection<String> filePaths);
+
+    // Blobs whose files were deleted, unless an upload took them over in the meantime
+    @Modifying
+    @Query("DELETE FROM StoredBlob b WHERE b.filePath IN :filePaths AND b.deleting = true")
+    int deleteDeletingByFilePathIn(@Param("filePaths") Collection<String> filePaths);
+}
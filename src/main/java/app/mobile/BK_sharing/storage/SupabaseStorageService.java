@@ -1,14 +1,26 @@
 package app.mobile.BK_sharing.storage;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
-import java.util.UUID;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
 
 @Service
-public class SupabaseStorageService {
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "supabase", matchIfMissing = true)
+@RequiredArgsConstructor
+public class SupabaseStorageService implements StorageBackend {
+
+    // Shared pooled client from StorageHttpClientConfig
+    private final RestClient storageRestClient;
 
     @Value("${supabase.url}")
     private String supabaseUrl;
@@ -19,47 +31,58 @@ public class SupabaseStorageService {
     @Value("${supabase.bucket}")
     private String bucketName;
 
-    public String uploadFile(MultipartFile file) throws IOException {
-        // Generate unique filename
-        String originalFilename = file.getOriginalFilename();
-        assert originalFilename != null;
-        String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-        String uniqueFilename = UUID.randomUUID() + fileExtension;
+    // Size of the buffer used to stream uploads to Supabase
+    @Value("${supabase.upload.chunk-size:65536}")
+    private int uploadChunkSize;
 
+    @Override
+    public String uploadFile(MultipartFile file, String objectName) throws IOException {
         // Supabase upload URL (POST to storage)
         String uploadUrl = String.format("%s/storage/v1/object/%s/%s",
-                supabaseUrl, bucketName, uniqueFilename);
+                supabaseUrl, bucketName, objectName);
 
         // Upload to Supabase
-        RestClient restClient = RestClient.create();
-
-        restClient.post()
+        // The body is streamed from the multipart input stream, so the whole file is never held on the heap
+        storageRestClient.post()
                 .uri(uploadUrl)
                 .header("Authorization", "Bearer " + supabaseKey)
                 .header("Content-Type", file.getContentType())
-                .body(file.getBytes())
+                .header("x-upsert", "true")
+                .contentLength(file.getSize())
+                .body(outputStream -> copyInChunks(file, outputStream))
                 .retrieve()
                 .toBodilessEntity();
 
         // IMPORTANT: Return the PUBLIC download URL
         // Format: {supabaseUrl}/storage/v1/object/public/{bucket}/{filename}
         return String.format("%s/storage/v1/object/public/%s/%s",
-                supabaseUrl, bucketName, uniqueFilename);
+                supabaseUrl, bucketName, objectName);
     }
 
+    // Helper method to pipe the uploaded file to the request body one chunk at a time
+    private void copyInChunks(MultipartFile file, OutputStream outputStream) throws IOException {
+        byte[] buffer = new byte[uploadChunkSize];
+        try (InputStream inputStream = file.getInputStream()) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+        }
+        outputStream.flush();
+    }
+
+    @Override
     public void deleteFile(String fileUrl) throws IOException {
         try {
             // Extract filename from the public URL
             // URL format: https://xxx.supabase.co/storage/v1/object/public/bucket/filename
-            String filename = extractFilenameFromUrl(fileUrl);
+            String filename = StorageBackend.extractFilename(fileUrl);
 
             // Supabase delete URL: DELETE /storage/v1/object/bucket/filename
             String deleteUrl = String.format("%s/storage/v1/object/%s/%s",
                     supabaseUrl, bucketName, filename);
 
-            RestClient restClient = RestClient.create();
-
-            restClient.delete()
+            storageRestClient.delete()
                     .uri(deleteUrl)
                     .header("Authorization", "Bearer " + supabaseKey)
                     .retrieve()
@@ -70,17 +93,60 @@ public class SupabaseStorageService {
         }
     }
 
-    // Helper method to extract filename from URL
-    private String extractFilenameFromUrl(String fileUrl) {
-        // Remove everything before the last "/" to get filename
-        return fileUrl.substring(fileUrl.lastIndexOf("/") + 1);
+    @Override
+    public void deleteFiles(List<String> fileUrls) throws IOException {
+        try {
+            List<String> filenames = fileUrls.stream()
+                    .map(StorageBackend::extractFilename)
+                    .toList();
+
+            // Supabase bulk delete: DELETE /storage/v1/object/bucket with the names in the body
+            String deleteUrl = String.format("%s/storage/v1/object/%s", supabaseUrl, bucketName);
+
+            storageRestClient.method(HttpMethod.DELETE)
+                    .uri(deleteUrl)
+                    .header("Authorization", "Bearer " + supabaseKey)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("prefixes", filenames))
+                    .retrieve()
+                    .toBodilessEntity();
+
+        } catch (Exception e) {
+            throw new IOException("Failed to delete files from Supabase: " + e.getMessage(), e);
+        }
     }
 
-    public boolean fileExists(String fileUrl) {
+    @Override
+    public InputStream openStream(String fileUrl) throws IOException {
         try {
-            RestClient restClient = RestClient.create();
+            String filename = StorageBackend.extractFilename(fileUrl);
+
+            // Authenticated download: GET /storage/v1/object/bucket/filename
+            String downloadUrl = String.format("%s/storage/v1/object/%s/%s",
+                    supabaseUrl, bucketName, filename);
+
+            // Keep the response open and hand its body to the caller, closing it releases the connection
+            return storageRestClient.get()
+                    .uri(downloadUrl)
+                    .header("Authorization", "Bearer " + supabaseKey)
+                    .exchange((request, response) -> {
+                        if (response.getStatusCode().isError()) {
+                            response.close();
+                            throw new IOException("Supabase returned " + response.getStatusCode());
+                        }
+                        return response.getBody();
+                    }, false);
 
-            restClient.get()
+        } catch (Exception e) {
+            throw new IOException("Failed to download file from Supabase: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean fileExists(String fileUrl) {
+        try {
+            // HEAD so the file body is not downloaded just to check it exists
+            storageRestClient.head()
                     .uri(fileUrl)
                     .retrieve()
                     .toBodilessEntity();
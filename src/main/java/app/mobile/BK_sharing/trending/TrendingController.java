@@ -0,0 +1,45 @@
+package app.mobile.BK_sharing.trending;
+
+import app.mobile.BK_sharing.dto.ApiResponse;
+import app.mobile.BK_sharing.trending.dto.TrendingDocumentDto;
+import app.mobile.BK_sharing.trending.dto.TrendingScopeDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+// Rankings come from memory; only the returned documents, courses or categories are loaded
+@RestController
+@RequestMapping("/api/v1/documents/trending")
+@RequiredArgsConstructor
+public class TrendingController {
+    private final TrendingService trendingService;
+
+    // Trending documents overall, or within a course or a category
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<TrendingDocumentDto>>> getTrendingDocuments(
+            @RequestParam(required = false) Long courseId,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        List<TrendingDocumentDto> documents = trendingService.getTrendingDocuments(courseId, categoryId, Math.max(1, limit));
+        return ResponseEntity.ok(ApiResponse.success("Trending documents retrieved successfully", documents));
+    }
+
+    @GetMapping("/courses")
+    public ResponseEntity<ApiResponse<List<TrendingScopeDto>>> getTrendingCourses(
+            @RequestParam(defaultValue = "10") int limit) {
+
+        List<TrendingScopeDto> courses = trendingService.getTrendingCourses(Math.max(1, limit));
+        return ResponseEntity.ok(ApiResponse.success("Trending courses retrieved successfully", courses));
+    }
+
+    @GetMapping("/categories")
+    public ResponseEntity<ApiResponse<List<TrendingScopeDto>>> getTrendingCategories(
+            @RequestParam(defaultValue = "10") int limit) {
+
+        List<TrendingScopeDto> categories = trendingService.getTrendingCategories(Math.max(1, limit));
+        return ResponseEntity.ok(ApiResponse.success("Trending categories retrieved successfully", categories));
+    }
+}
@@ -0,0 +1,268 @@
+package app.mobile.BK_sharing.trending;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Exponentially decayed interaction scores for documents, courses and categories, with the top documents
+ * kept ranked overall, per course and per category, and the top courses and categories.
+ * <p>
+ * Uses forward decay: an event of weight w at time t adds w * e^(λ(t - L)) for a fixed landmark time L,
+ * with λ = ln 2 / half-life. Every stored score is then the decayed score times the same e^(λ(now - L)),
+ * so stored scores only ever grow, the ranking needs no updating as time passes, and the decayed value is
+ * recovered on read. Because scores only grow, each ranking can be an exact bounded top-k: anything left out
+ * scored no higher than the k-th entry, and the k-th entry's score never drops.
+ * <p>
+ * Rankings hold every scored document, and the caller's filter (approval, say) is applied on read. When the
+ * filter rejects so many ranked entries that fewer than the requested number are left, and the ranking has
+ * left documents out, those are ranked from the scores directly.
+ * <p>
+ * {@link #rescale} moves the landmark to the present before the factors grow too large, forgets
+ * what has decayed away and rebuilds the rankings.
+ */
+public class TrendingIndex {
+
+    private final double lambda;
+    private final int capacity;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Landmark L in epoch seconds
+    private long landmark;
+
+    private final Map<Long, Double> documentScores = new HashMap<>();
+    private final Map<Long, Double> courseScores = new HashMap<>();
+    private final Map<Long, Double> categoryScores = new HashMap<>();
+
+    // Where each document was when it last scored, to rebuild the per-scope rankings on rescale
+    private final Map<Long, Placement> placements = new HashMap<>();
+
+    private TopK topDocuments;
+    private Map<Long, TopK> topDocumentsByCourse = new HashMap<>();
+    private Map<Long, TopK> topDocumentsByCategory = new HashMap<>();
+    private TopK topCourses;
+    private TopK topCategories;
+
+    // An id with its decayed score
+    public record Scored(long id, double score) {
+    }
+
+    private record Placement(Long courseId, List<Long> categoryIds) {
+    }
+
+    public TrendingIndex(double halfLifeSeconds, int capacity, long now) {
+        this.lambda = Math.log(2) / halfLifeSeconds;
+        this.capacity = capacity;
+        this.landmark = now;
+        this.topDocuments = new TopK(capacity);
+        this.topCourses = new TopK(capacity);
+        this.topCategories = new TopK(capacity);
+    }
+
+    /**
+     * Adds an event of the given weight that happened at {@code at} (epoch seconds) to a document,
+     * its course and its categories.
+     */
+    public void add(long documentId, Long courseId, Collection<Long> categoryIds, double weight, long at) {
+        lock.writeLock().lock();
+        try {
+            double increment = weight * Math.exp(lambda * (at - landmark));
+            Placement placement = new Placement(courseId, List.copyOf(categoryIds));
+            placements.put(documentId, placement);
+
+            double score = documentScores.merge(documentId, increment, Double::sum);
+            rank(documentId, placement, score);
+
+            if (courseId != null) {
+                topCourses.offer(courseId, courseScores.merge(courseId, increment, Double::sum));
+            }
+            for (Long categoryId : categoryIds) {
+                topCategories.offer(categoryId, categoryScores.merge(categoryId, increment, Double::sum));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Highest scoring documents that pass {@code accept}, within a course or a category when one is given
+     * (the course wins when both are). Scores are decayed to {@code now}.
+     */
+    public List<Scored> topDocuments(Long courseId, Long categoryId, int limit, LongPredicate accept, long now) {
+        lock.readLock().lock();
+        try {
+            TopK ranking = courseId != null ? topDocumentsByCourse.get(courseId)
+                    : categoryId != null ? topDocumentsByCategory.get(categoryId)
+                    : topDocuments;
+            if (ranking == null) {
+                return List.of();
+            }
+            List<Scored> top = ranking.top(limit, accept, decay(now));
+            if (top.size() < limit && ranking.truncated) {
+                top = scan(courseId, categoryId, limit, accept, decay(now));
+            }
+            return top;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Scored> topCourses(int limit, LongPredicate accept, long now) {
+        lock.readLock().lock();
+        try {
+            return topCourses.top(limit, accept, decay(now));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Scored> topCategories(int limit, LongPredicate accept, long now) {
+        lock.readLock().lock();
+        try {
+            return topCategories.top(limit, accept, decay(now));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Moves the landmark to {@code now}, drops every score that has decayed below {@code minScore}
+     * and rebuilds the rankings. Returns how many documents are still scored.
+     */
+    public int rescale(long now, double minScore) {
+        lock.writeLock().lock();
+        try {
+            double factor = decay(now);
+            landmark = now;
+            rescale(documentScores, factor, minScore);
+            rescale(courseScores, factor, minScore);
+            rescale(categoryScores, factor, minScore);
+            placements.keySet().retainAll(documentScores.keySet());
+
+            topDocuments = new TopK(capacity);
+            topDocumentsByCourse = new HashMap<>();
+            topDocumentsByCategory = new HashMap<>();
+            documentScores.forEach((documentId, score) -> rank(documentId, placements.get(documentId), score));
+            topCourses = new TopK(capacity);
+            courseScores.forEach(topCourses::offer);
+            topCategories = new TopK(capacity);
+            categoryScores.forEach(topCategories::offer);
+
+            return documentScores.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentScores.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Factor turning a stored score into its value at time now; caller holds a lock
+    private double decay(long now) {
+        return Math.exp(-lambda * (now - landmark));
+    }
+
+    // Helper method to rank every scored document in a scope, for when the bounded ranking comes up short; caller holds a lock
+    private List<Scored> scan(Long courseId, Long categoryId, int limit, LongPredicate accept, double decay) {
+        List<Scored> candidates = new ArrayList<>();
+        documentScores.forEach((documentId, score) -> {
+            Placement placement = placements.get(documentId);
+            boolean inScope = courseId != null ? courseId.equals(placement.courseId())
+                    : categoryId == null || placement.categoryIds().contains(categoryId);
+            if (inScope) {
+                candidates.add(new Scored(documentId, score));
+            }
+        });
+        candidates.sort(TopK.HIGHEST_FIRST);
+
+        List<Scored> top = new ArrayList<>(Math.min(limit, candidates.size()));
+        for (Scored candidate : candidates) {
+            if (top.size() >= limit) {
+                break;
+            }
+            if (accept.test(candidate.id())) {
+                top.add(new Scored(candidate.id(), candidate.score() * decay));
+            }
+        }
+        return top;
+    }
+
+    // Helper method to offer a document's stored score to every ranking it belongs to; caller holds the write lock
+    private void rank(long documentId, Placement placement, double score) {
+        topDocuments.offer(documentId, score);
+        if (placement.courseId() != null) {
+            topDocumentsByCourse.computeIfAbsent(placement.courseId(), id -> new TopK(capacity)).offer(documentId, score);
+        }
+        for (Long categoryId : placement.categoryIds()) {
+            topDocumentsByCategory.computeIfAbsent(categoryId, id -> new TopK(capacity)).offer(documentId, score);
+        }
+    }
+
+    private void rescale(Map<Long, Double> scores, double factor, double minScore) {
+        scores.replaceAll((id, score) -> score * factor);
+        scores.values().removeIf(score -> score < minScore);
+    }
+
+    // The k highest stored scores seen for a set of ids; an id's score may only grow
+    private static final class TopK {
+
+        private static final Comparator<Scored> HIGHEST_FIRST = Comparator.comparingDouble(Scored::score).reversed()
+                .thenComparing(Comparator.comparingLong(Scored::id).reversed());
+
+        private final int capacity;
+        private final TreeSet<Scored> ranked = new TreeSet<>(HIGHEST_FIRST);
+        private final Map<Long, Scored> members = new HashMap<>();
+
+        // Whether an id has ever been left out, so the ranking may not hold every id that passes a filter
+        private boolean truncated;
+
+        TopK(int capacity) {
+            this.capacity = capacity;
+        }
+
+        void offer(long id, double score) {
+            Scored current = members.get(id);
+            if (current != null) {
+                ranked.remove(current);
+            } else if (members.size() >= capacity) {
+                Scored lowest = ranked.last();
+                truncated = true;
+                if (HIGHEST_FIRST.compare(new Scored(id, score), lowest) >= 0) {
+                    return;
+                }
+                ranked.pollLast();
+                members.remove(lowest.id());
+            }
+            Scored entry = new Scored(id, score);
+            ranked.add(entry);
+            members.put(id, entry);
+        }
+
+        List<Scored> top(int limit, LongPredicate accept, double decay) {
+            List<Scored> top = new ArrayList<>(Math.min(limit, ranked.size()));
+            for (Scored entry : ranked) {
+                if (top.size() >= limit) {
+                    break;
+                }
+                if (accept.test(entry.id())) {
+                    top.add(new Scored(entry.id(), entry.score() * decay));
+                }
+            }
+            return top;
+        }
+    }
+}
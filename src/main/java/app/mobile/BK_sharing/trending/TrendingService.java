@@ -0,0 +1,234 @@
+package app.mobile.BK_sharing.trending;
+
+import app.mobile.BK_sharing.cache.CacheInvalidationBus;
+import app.mobile.BK_sharing.category.Category;
+import app.mobile.BK_sharing.category.CategoryRepository;
+import app.mobile.BK_sharing.course.Course;
+import app.mobile.BK_sharing.course.CourseRepository;
+import app.mobile.BK_sharing.document.InteractionIngestService;
+import app.mobile.BK_sharing.document.dto.DocumentResponseDto;
+import app.mobile.BK_sharing.document.entity.DocumentDailyStats;
+import app.mobile.BK_sharing.document.entity.DocumentInteraction;
+import app.mobile.BK_sharing.document.repository.DocumentDailyStatsRepository;
+import app.mobile.BK_sharing.document.repository.DocumentRepository;
+import app.mobile.BK_sharing.search.DocumentFacetIndex;
+import app.mobile.BK_sharing.search.DocumentFacetService;
+import app.mobile.BK_sharing.search.SearchIndexService;
+import app.mobile.BK_sharing.trending.dto.TrendingDocumentDto;
+import app.mobile.BK_sharing.trending.dto.TrendingScopeDto;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Trending documents, courses and categories from time-decayed view and download scores (see {@link TrendingIndex}).
+ * Scores are fed with every batch of stored interactions, and rebuilt on startup from the daily rollups,
+ * so neither ranking nor startup reads document_interaction. Only approved documents are listed.
+ * <p>
+ * Each node only stores the interactions it received, so the scores of every batch are also published on the
+ * {@link CacheInvalidationBus} and added by the other nodes. When some may have been missed the scores are
+ * rebuilt from the rollups, as on startup.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TrendingService {
+
+    // Scores below this (a single view about seven half-lives ago) are forgotten on rescale
+    private static final double MIN_SCORE = 0.01;
+    private static final int MAX_SEED_DAYS = 60;
+
+    // Bus topic of the scores stored on other nodes, as "documentId:weight:epochSecond" entries joined by ';'
+    private static final String SCORES = "trending.scores";
+    // Keeps each message within the bus limit
+    private static final int MAX_SCORES_LENGTH = 400;
+
+    private final DocumentDailyStatsRepository dailyStatsRepository;
+    private final DocumentRepository documentRepository;
+    private final CourseRepository courseRepository;
+    private final CategoryRepository categoryRepository;
+    private final DocumentFacetService documentFacetService;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @Value("${app.trending.half-life:24h}")
+    private Duration halfLife;
+
+    // Entries kept per ranking, so also the most a request can ask for
+    @Value("${app.trending.capacity:100}")
+    private int capacity;
+
+    @Value("${app.trending.view-weight:1}")
+    private double viewWeight;
+
+    @Value("${app.trending.download-weight:3}")
+    private double downloadWeight;
+
+    private volatile TrendingIndex index;
+
+    @PostConstruct
+    public void start() {
+        // Subscribe first, so scores published while loading are added afterwards
+        cacheInvalidationBus.subscribe(SCORES, scores -> {
+            if (scores == null) {
+                load();
+            } else {
+                addPublished((String) scores);
+            }
+        });
+        load();
+    }
+
+    public void load() {
+        long start = System.currentTimeMillis();
+        TrendingIndex loaded = new TrendingIndex(halfLife.toSeconds(), capacity, now());
+
+        // Days further back than seven half-lives add next to nothing
+        long seedDays = Math.min(MAX_SEED_DAYS, halfLife.multipliedBy(7).toDays() + 1);
+        LocalDate today = LocalDate.now();
+        List<DocumentDailyStats> rollups = dailyStatsRepository.findSince(today.minusDays(seedDays - 1));
+        for (DocumentDailyStats stats : rollups) {
+            // The day's events are spread over it; count them at midday, or now for today
+            LocalDate day = stats.getId().getStatDate();
+            long at = day.equals(today) ? now() : epochSecond(day.atTime(12, 0));
+            add(loaded, stats.getId().getDocumentId(), viewWeight * stats.getViews() + downloadWeight * stats.getDownloads(), at);
+        }
+        index = loaded;
+
+        log.info("Trending scores loaded in {} ms: {} documents from {} daily rollup(s)",
+                System.currentTimeMillis() - start, loaded.size(), rollups.size());
+    }
+
+    /**
+     * Scores a batch of interactions stored on this node, and publishes the scores to the other nodes.
+     */
+    public void record(Collection<InteractionIngestService.InteractionEvent> events) {
+        // 1. Score each event here, and sum them per document for the other nodes
+        Map<Long, Double> weights = new LinkedHashMap<>();
+        Map<Long, Long> latest = new HashMap<>();
+        for (InteractionIngestService.InteractionEvent event : events) {
+            double weight = event.type() == DocumentInteraction.InteractionType.Download ? downloadWeight : viewWeight;
+            long at = epochSecond(event.at());
+            add(index, event.documentId(), weight, at);
+            weights.merge(event.documentId(), weight, Double::sum);
+            latest.merge(event.documentId(), at, Math::max);
+        }
+
+        // 2. A batch spans about one flush interval, so each document's sum is dated at its latest event
+        StringBuilder scores = new StringBuilder();
+        for (Map.Entry<Long, Double> entry : weights.entrySet()) {
+            String score = entry.getKey() + ":" + entry.getValue() + ":" + latest.get(entry.getKey());
+            if (!scores.isEmpty() && scores.length() + 1 + score.length() > MAX_SCORES_LENGTH) {
+                cacheInvalidationBus.publish(SCORES, scores.toString());
+                scores.setLength(0);
+            }
+            scores.append(scores.isEmpty() ? "" : ";").append(score);
+        }
+        if (!scores.isEmpty()) {
+            cacheInvalidationBus.publish(SCORES, scores.toString());
+        }
+    }
+
+    // Helper method to add the scores another node published
+    private void addPublished(String scores) {
+        TrendingIndex current = index;
+        for (String score : scores.split(";")) {
+            String[] fields = score.split(":");
+            add(current, Long.valueOf(fields[0]), Double.parseDouble(fields[1]), Long.parseLong(fields[2]));
+        }
+    }
+
+    private void add(TrendingIndex target, Long documentId, double weight, long at) {
+        if (weight <= 0) {
+            return;
+        }
+        Optional<DocumentFacetIndex.Facets> facets = documentFacetService.facets(documentId);
+        target.add(documentId,
+                facets.map(DocumentFacetIndex.Facets::courseId).orElse(null),
+                facets.map(DocumentFacetIndex.Facets::categoryIds).orElse(List.of()),
+                weight, at);
+    }
+
+    @Scheduled(fixedDelayString = "${app.trending.rescale-interval:1h}")
+    public void rescale() {
+        int remaining = index.rescale(now(), MIN_SCORE);
+        log.debug("Trending scores rescaled: {} documents still scored", remaining);
+    }
+
+    /**
+     * Trending approved documents, overall or within a course or category.
+     */
+    public List<TrendingDocumentDto> getTrendingDocuments(Long courseId, Long categoryId, int limit) {
+        // 1. Rank in memory, checking approval and placement against the facet index
+        List<TrendingIndex.Scored> ranked = index.topDocuments(courseId, categoryId, Math.min(limit, capacity),
+                documentId -> documentFacetService.facets(documentId)
+                        .filter(facets -> facets.approved()
+                                && (courseId == null || courseId.equals(facets.courseId()))
+                                && (categoryId == null || facets.categoryIds().contains(categoryId)))
+                        .isPresent(),
+                now());
+        if (ranked.isEmpty()) {
+            return List.of();
+        }
+        List<Long> documentIds = ranked.stream().map(TrendingIndex.Scored::id).toList();
+        Map<Long, Double> scores = new HashMap<>();
+        ranked.forEach(scored -> scores.put(scored.id(), scored.score()));
+
+        // 2. Load the listing rows by id
+        return SearchIndexService.inRankOrder(documentIds, documentRepository.findSummariesByIds(documentIds),
+                        DocumentResponseDto::getDocumentId).stream()
+                .map(document -> new TrendingDocumentDto(document, scores.get(document.getDocumentId())))
+                .toList();
+    }
+
+    public List<TrendingScopeDto> getTrendingCourses(int limit) {
+        List<TrendingIndex.Scored> ranked = index.topCourses(Math.min(limit, capacity), id -> true, now());
+        return labelled(ranked, courseRepository::findAllById, Course::getCourseId, Course::getCourseName);
+    }
+
+    public List<TrendingScopeDto> getTrendingCategories(int limit) {
+        List<TrendingIndex.Scored> ranked = index.topCategories(Math.min(limit, capacity), id -> true, now());
+        return labelled(ranked, categoryRepository::findAllById, Category::getCategoryId, Category::getCategoryName);
+    }
+
+    // Helper method to attach names to ranked course or category ids, dropping ids that no longer exist
+    private <T> List<TrendingScopeDto> labelled(List<TrendingIndex.Scored> ranked,
+                                                Function<List<Long>, List<T>> findAllById,
+                                                Function<T, Long> idOf,
+                                                Function<T, String> labelOf) {
+        if (ranked.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = ranked.stream().map(TrendingIndex.Scored::id).toList();
+        Map<Long, T> byId = new HashMap<>();
+        findAllById.apply(ids).forEach(row -> byId.put(idOf.apply(row), row));
+
+        return ranked.stream()
+                .filter(scored -> byId.containsKey(scored.id()))
+                .map(scored -> new TrendingScopeDto(scored.id(), labelOf.apply(byId.get(scored.id())), scored.score()))
+                .toList();
+    }
+
+    private static long now() {
+        return Instant.now().getEpochSecond();
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+}
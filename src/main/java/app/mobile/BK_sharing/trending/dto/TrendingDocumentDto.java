@@ -0,0 +1,14 @@
+package app.mobile.BK_sharing.trending.dto;
+
+import app.mobile.BK_sharing.document.dto.DocumentResponseDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingDocumentDto {
+    private DocumentResponseDto document;
+    private double score; // Decayed weighted interactions, e.g. 3.0 for one download right now
+}
@@ -0,0 +1,15 @@
+package app.mobile.BK_sharing.trending.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A trending course or category
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingScopeDto {
+    private Long id;
+    private String label;
+    private double score;
+}
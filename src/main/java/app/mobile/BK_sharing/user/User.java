@@ -5,6 +5,7 @@ import app.mobile.BK_sharing.document.entity.Document;
 import app.mobile.BK_sharing.document.entity.DocumentAccess;
 import app.mobile.BK_sharing.document.entity.DocumentInteraction;
 import app.mobile.BK_sharing.document.entity.DocumentVersion;
+import app.mobile.BK_sharing.search.SearchIndexListener;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -14,6 +15,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@EntityListeners(SearchIndexListener.class)
 @Table(name = "app_user")
 @Data
 @NoArgsConstructor
@@ -72,6 +72,12 @@ public class UserController {
         return ResponseEntity.ok(ApiResponse.success("Users retrieved successfully", users));
     }
 
+    @GetMapping("/{userId}/summary")
+    public ResponseEntity<ApiResponse<UserSummaryDto>> getUserSummary(@PathVariable Long userId) {
+        UserSummaryDto summary = userService.getUserSummary(userId);
+        return ResponseEntity.ok(ApiResponse.success("User summary retrieved successfully", summary));
+    }
+
     @GetMapping
     public ResponseEntity<ApiResponse<List<UserDto>>> getAllUsers() {
         log.info("Getting all users");
@@ -82,6 +88,15 @@ public class UserController {
         return ResponseEntity.ok(ApiResponse.success("Users retrieved successfully", users));
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<List<UserDto>>> searchUsers(@RequestParam String keyword) {
+        log.info("Searching users with keyword: {}", keyword);
+
+        List<UserDto> users = userService.searchUsers(keyword);
+
+        return ResponseEntity.ok(ApiResponse.success("Users retrieved successfully", users));
+    }
+
         // Update user
     @PutMapping("/{userId}")
     public ResponseEntity<ApiResponse<UserDto>> updateUser(
@@ -1,6 +1,6 @@
 package app.mobile.BK_sharing.user;
 
-import app.mobile.BK_sharing.storage.SupabaseStorageService;
+import app.mobile.BK_sharing.storage.StorageBackend;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -15,7 +15,7 @@ import java.io.IOException;
 public class UserProfileController {
 
     private final UserService userService;
-    private final SupabaseStorageService storageService;
+    private final StorageBackend storageService;
 
     @PostMapping("/{userId}/profile-picture")
 //    @PreAuthorize("hasRole('ADMIN') or #userId == authentication.principal.userId")
@@ -38,7 +38,7 @@ public class UserProfileController {
             throw new IllegalArgumentException("File size must be less than 5MB");
         }
 
-        // Upload to Supabase
+        // Upload to storage
         String imageUrl = storageService.uploadFile(file);
 
         // Update user profile in database
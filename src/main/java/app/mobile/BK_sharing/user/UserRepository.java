@@ -1,6 +1,7 @@
 package app.mobile.BK_sharing.user;
 
 import app.mobile.BK_sharing.user.User;
+import app.mobile.BK_sharing.user.dto.UserSummaryDto;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -30,6 +31,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Check if username exists (excluding a specific user)
     boolean existsByUsernameAndUserIdNot(String username, Long userId);
 
+    // Check if a user has a role
+    boolean existsByUserIdAndRole(Long userId, User.UserRole role);
+
     // Find users by role
     List<User> findByRole(User.UserRole role);
 
@@ -45,6 +49,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Search users by name or email
     List<User> findByFullNameContainingIgnoreCaseOrEmailContainingIgnoreCase(String nameKeyword, String emailKeyword);
 
+    // Fields loaded into the in-memory search index (see SearchIndexService)
+    @Query("SELECT u.userId, u.username, u.email, u.fullName FROM User u")
+    List<Object[]> findSearchFields();
+
     // Search users by multiple criteria
     @Query("SELECT u FROM User u WHERE " +
             "(:keyword IS NULL OR " +
@@ -66,4 +74,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Count active users
     @Query("SELECT COUNT(u) FROM User u WHERE u.isActive = true")
     Long countActiveUsers();
-}
\ No newline at end of file
+
+    // Summary view of a user, without loading the entity
+    @Query("SELECT new app.mobile.BK_sharing.user.dto.UserSummaryDto(u.userId, u.username, u.fullName, u.profilePicture) " +
+            "FROM User u WHERE u.userId = :userId")
+    Optional<UserSummaryDto> findSummaryById(@Param("userId") Long userId);
+
+    // Active users who uploaded or opened a document of the course; there is no enrolment, so this is its audience
+    @Query("SELECT d.uploadedBy.userId FROM Document d " +
+            "WHERE d.course.courseId = :courseId AND d.uploadedBy.isActive = true " +
+            "UNION " +
+            "SELECT i.user.userId FROM DocumentInteraction i " +
+            "WHERE i.document.course.courseId = :courseId AND i.user.isActive = true")
+    List<Long> findActiveCourseMemberIds(@Param("courseId") Long courseId);
+}
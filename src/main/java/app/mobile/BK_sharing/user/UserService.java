@@ -4,6 +4,7 @@ import app.mobile.BK_sharing.user.dto.CreateUserDto;
 import app.mobile.BK_sharing.user.dto.LoginDto;
 import app.mobile.BK_sharing.user.dto.UpdateUserDTO;
 import app.mobile.BK_sharing.user.dto.UserDto;
+import app.mobile.BK_sharing.user.dto.UserSummaryDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -25,6 +26,9 @@ public interface UserService {
     // Get user by ID
     UserDto getUserById(Long userId);
 
+    // Get the summary view of a user (username, full name, picture)
+    UserSummaryDto getUserSummary(Long userId);
+
     // Get user by email
     UserDto getUserByEmail(String email);
 
@@ -1,12 +1,18 @@
 package app.mobile.BK_sharing.user;
 
-import app.mobile.BK_sharing.storage.SupabaseStorageService;
+import app.mobile.BK_sharing.config.CacheConfig;
+import app.mobile.BK_sharing.search.SearchIndexService;
+import app.mobile.BK_sharing.storage.StorageBackend;
 import app.mobile.BK_sharing.user.dto.CreateUserDto;
 import app.mobile.BK_sharing.user.dto.LoginDto;
 import app.mobile.BK_sharing.user.dto.UpdateUserDTO;
 import app.mobile.BK_sharing.user.dto.UserDto;
+import app.mobile.BK_sharing.user.dto.UserSummaryDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -21,8 +27,11 @@ import java.util.stream.Collectors;
 @Slf4j
 public class UserServiceImpl implements UserService {
 
+    private static final int SEARCH_RESULT_LIMIT = 50;
+
     private final UserRepository userRepository;
-    private final SupabaseStorageService storageService;
+    private final SearchIndexService searchIndexService;
+    private final StorageBackend storageService;
 
     @Override
     @Transactional
@@ -107,6 +116,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.USERS, key = "#userId")
     public UserDto getUserById(Long userId) {
         log.info("Fetching user by ID: {}", userId);
         User user = userRepository.findById(userId)
@@ -115,6 +125,14 @@ public class UserServiceImpl implements UserService {
         return UserDto.fromEntity(user);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.USER_SUMMARIES, key = "#userId")
+    public UserSummaryDto getUserSummary(Long userId) {
+        return userRepository.findSummaryById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public UserDto getUserByEmail(String email) {
@@ -143,8 +161,9 @@ public class UserServiceImpl implements UserService {
             return getAllUsers();
         }
 
-        String searchKeyword = keyword.trim().toLowerCase();
-        return userRepository.searchUsers(searchKeyword, null, null).stream()
+        // Typo-tolerant match on username, email and full name from the in-memory trigram index
+        List<Long> userIds = searchIndexService.searchUsers(keyword, SEARCH_RESULT_LIMIT);
+        return SearchIndexService.inRankOrder(userIds, userRepository.findAllById(userIds), User::getUserId).stream()
                 .map(UserDto::fromEntity)
                 .collect(Collectors.toList());
     }
@@ -186,6 +205,10 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, key = "#userId"),
+            @CacheEvict(cacheNames = CacheConfig.USER_SUMMARIES, key = "#userId")
+    })
     public UserDto updateUser(Long userId, UpdateUserDTO updateUserDTO) {
         log.info("Updating user with ID: {}", userId);
 
@@ -248,6 +271,10 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, key = "#userId"),
+            @CacheEvict(cacheNames = CacheConfig.USER_SUMMARIES, key = "#userId")
+    })
     public void deactivateUser(Long userId) {
         log.info("Deactivating user with ID: {}", userId);
 
@@ -262,6 +289,10 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, key = "#userId"),
+            @CacheEvict(cacheNames = CacheConfig.USER_SUMMARIES, key = "#userId")
+    })
     public void deleteUser(Long userId) {
         log.info("Deleting user with ID: {}", userId);
 
@@ -281,6 +312,10 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, key = "#userId"),
+            @CacheEvict(cacheNames = CacheConfig.USER_SUMMARIES, key = "#userId")
+    })
     public UserDto activateUser(Long userId) {
         log.info("Activating user with ID: {}", userId);
 
@@ -302,6 +337,10 @@ public class UserServiceImpl implements UserService {
 //    Image
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, key = "#userId"),
+            @CacheEvict(cacheNames = CacheConfig.USER_SUMMARIES, key = "#userId")
+    })
     public User updateProfilePicture(Long userId, String newImageUrl) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
@@ -321,6 +360,10 @@ public class UserServiceImpl implements UserService {
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, key = "#userId"),
+            @CacheEvict(cacheNames = CacheConfig.USER_SUMMARIES, key = "#userId")
+    })
     public void deleteProfilePicture(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
@@ -392,6 +435,10 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, key = "#userId"),
+            @CacheEvict(cacheNames = CacheConfig.USER_SUMMARIES, key = "#userId")
+    })
     public UserDto changePassword(Long userId, String newPassword) {
         log.info("Changing password for user ID: {}", userId);
 
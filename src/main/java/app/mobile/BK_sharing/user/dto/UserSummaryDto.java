@@ -0,0 +1,16 @@
+package app.mobile.BK_sharing.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Just enough of a user to show who uploaded or commented on something
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummaryDto {
+    private Long userId;
+    private String username;
+    private String fullName;
+    private String profilePicture;
+}
@@ -0,0 +1,42 @@
+package app.mobile.BK_sharing.utils;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Folds Vietnamese text for search: lowercase, tone marks and other diacritics removed, đ mapped to d.
+ * "Giải Tích 1" and "giai tich 1" fold to the same text, so users can type with or without accents.
+ */
+public final class TextNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+
+    private TextNormalizer() {
+    }
+
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        // NFD splits "ả" into "a" + combining marks; đ has no decomposition so it is mapped by hand
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String stripped = COMBINING_MARKS.matcher(decomposed).replaceAll("")
+                .replace('đ', 'd')
+                .replace('Đ', 'D')
+                .toLowerCase(Locale.ROOT);
+        return NON_ALPHANUMERIC.matcher(stripped).replaceAll(" ").trim();
+    }
+
+    // Folded words of the text (Vietnamese words are space separated syllables, so each is a token)
+    public static List<String> tokens(String text) {
+        String folded = fold(text);
+        if (folded.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.asList(folded.split(" "));
+    }
+}
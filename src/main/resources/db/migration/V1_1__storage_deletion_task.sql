@@ -0,0 +1,11 @@
+-- Outbox of files to delete from storage, drained by StorageDeletionWorker
+create table if not exists storage_deletion_task (
+    task_id bigint generated by default as identity,
+    attempts integer not null,
+    created_at timestamp(6) not null,
+    file_path varchar(500) not null,
+    last_error TEXT,
+    next_attempt_at timestamp(6) not null,
+    status varchar(20) not null check (status in ('PENDING','FAILED')),
+    primary key (task_id)
+);
@@ -0,0 +1,11 @@
+-- Stored files by content hash, shared by every document uploading the same bytes (see BlobStorageService)
+create table if not exists stored_blob (
+    blob_id bigint generated by default as identity,
+    created_at timestamp(6) not null,
+    deleting boolean not null,
+    file_path varchar(500) not null unique,
+    file_size bigint not null,
+    ref_count integer not null,
+    sha256 varchar(64) not null unique,
+    primary key (blob_id)
+);
@@ -0,0 +1,19 @@
+-- Resumable chunked uploads (see ChunkedUploadService); the chunks themselves are kept on local disk
+create table if not exists upload_session (
+    session_id varchar(36) not null,
+    category_ids varchar(500),
+    chunk_count integer not null,
+    chunk_size integer not null,
+    content_type varchar(100),
+    course_id bigint,
+    created_at timestamp(6) not null,
+    description TEXT,
+    document_id bigint,
+    expires_at timestamp(6) not null,
+    file_name varchar(255) not null,
+    status varchar(20) not null check (status in ('ACTIVE','COMMITTED')),
+    title varchar(255) not null,
+    total_size bigint not null,
+    user_id bigint not null,
+    primary key (session_id)
+);
@@ -0,0 +1,4 @@
+-- Folded copies of title and description for accent-insensitive search (see DocumentSearchService).
+-- Existing rows are filled in by DocumentSearchService at startup.
+alter table document add column if not exists search_title varchar(255);
+alter table document add column if not exists search_description TEXT;
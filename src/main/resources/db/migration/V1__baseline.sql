@@ -0,0 +1,209 @@
+-- Baseline schema: exactly what Hibernate generated (ddl-auto) for the deployed application, before the
+-- storage, upload and search changes. Databases created that way are baselined at this version
+-- (spring.flyway.baseline-on-migrate) and skip it; every object added since comes in its own later migration.
+-- Objects are created in the schema Flyway runs in (spring.flyway.default-schema).
+
+create table app_user (
+    user_id bigint generated by default as identity,
+    created_at timestamp(6) not null,
+    email varchar(100) not null unique,
+    full_name varchar(255) not null,
+    is_active boolean not null,
+    password varchar(255) not null,
+    profile_picture varchar(500),
+    role varchar(10) not null check (role in ('ADMIN','STUDENT')),
+    updated_at timestamp(6) not null,
+    username varchar(100) not null unique,
+    primary key (user_id)
+);
+
+create table audit_log (
+    audit_id bigint generated by default as identity,
+    action_at timestamp(6),
+    action_details TEXT not null,
+    action_type varchar(255) not null check (action_type in ('APPROVE_DOCUMENT','DELETE_DOCUMENT','GRANT_ACCESS','REVOKE_ACCESS')),
+    admin_id bigint not null,
+    related_document_id bigint,
+    related_user_id bigint,
+    primary key (audit_id)
+);
+
+create table category (
+    category_id bigint generated by default as identity,
+    category_name varchar(100) not null unique,
+    created_at timestamp(6) not null,
+    description TEXT,
+    created_by bigint not null,
+    primary key (category_id)
+);
+
+create table course (
+    course_id bigint generated by default as identity,
+    course_code varchar(50) not null unique,
+    course_name varchar(200) not null,
+    created_at timestamp(6) not null,
+    description TEXT,
+    created_by bigint not null,
+    primary key (course_id)
+);
+
+create table document (
+    document_id bigint generated by default as identity,
+    created_at timestamp(6) not null,
+    description TEXT,
+    file_path varchar(500) not null,
+    file_size bigint not null,
+    file_type varchar(20) not null check (file_type in ('PDF','WORD','POWERPOINT','OTHER')),
+    is_approved boolean not null,
+    title varchar(255) not null,
+    updated_at timestamp(6) not null,
+    approved_by bigint,
+    course_id bigint,
+    uploaded_by bigint not null,
+    primary key (document_id)
+);
+
+create table document_access (
+    access_id bigint generated by default as identity,
+    can_download boolean not null,
+    can_edit boolean not null,
+    can_view boolean not null,
+    granted_at timestamp(6) not null,
+    document_id bigint not null,
+    granted_by bigint not null,
+    user_id bigint not null,
+    primary key (access_id)
+);
+
+create table document_categories (
+    document_id bigint not null,
+    category_id bigint not null
+);
+
+create table document_interaction (
+    interaction_id bigint generated by default as identity,
+    interaction_at timestamp(6) not null,
+    interaction_type varchar(255) not null check (interaction_type in ('View','Download')),
+    document_id bigint not null,
+    user_id bigint not null,
+    primary key (interaction_id)
+);
+
+create table document_version (
+    version_id bigint generated by default as identity,
+    change_description TEXT,
+    edited_at timestamp(6) not null,
+    file_path varchar(500) not null,
+    file_size bigint,
+    version_number integer not null,
+    document_id bigint not null,
+    edited_by bigint not null,
+    primary key (version_id)
+);
+
+create table notification (
+    notification_id bigint generated by default as identity,
+    created_at timestamp(6),
+    is_read boolean not null,
+    message TEXT not null,
+    title varchar(255) not null,
+    type varchar(255) not null check (type in ('DOCUMENT_APPROVED','DOCUMENT_UPDATED','ACCESS_GRANTED')),
+    related_document_id bigint,
+    user_id bigint not null,
+    primary key (notification_id)
+);
+
+alter table audit_log
+   add constraint FKss0okisebqhxhvv7nf4ce2ov6
+   foreign key (admin_id)
+   references app_user;
+
+alter table audit_log
+   add constraint FKsx25hflykqb4bos7ogivm8kue
+   foreign key (related_document_id)
+   references document;
+
+alter table audit_log
+   add constraint FKjdf2w52clpq7jku2n7b5s8nkq
+   foreign key (related_user_id)
+   references app_user;
+
+alter table category
+   add constraint FK3l0qgscxravbjgssyq0cb1kr5
+   foreign key (created_by)
+   references app_user;
+
+alter table course
+   add constraint FK5sud0tsa62doptfmubelq1yjd
+   foreign key (created_by)
+   references app_user;
+
+alter table document
+   add constraint FK6r9xl0htk4vmmwgx895t2urk6
+   foreign key (approved_by)
+   references app_user;
+
+alter table document
+   add constraint FKhqxp9hixx5en1bugh9e4ydhjw
+   foreign key (course_id)
+   references course;
+
+alter table document
+   add constraint FKnd0f7gneoxk0b4vs5fdq2hoof
+   foreign key (uploaded_by)
+   references app_user;
+
+alter table document_access
+   add constraint FKoxadkcndufvxej8y3yvx7k6rg
+   foreign key (document_id)
+   references document;
+
+alter table document_access
+   add constraint FKh75wxbtsfpxb13g83gl3u5p8a
+   foreign key (granted_by)
+   references app_user;
+
+alter table document_access
+   add constraint FKhr587b1io5m6w0bvcnduoe7is
+   foreign key (user_id)
+   references app_user;
+
+alter table document_categories
+   add constraint FKn5qplcgldphc3tkegl9h8twmk
+   foreign key (category_id)
+   references category;
+
+alter table document_categories
+   add constraint FKj62wpbs0odpmvklv48tm03vbx
+   foreign key (document_id)
+   references document;
+
+alter table document_interaction
+   add constraint FK984up13mqrwr97lx6l2oslns8
+   foreign key (document_id)
+   references document;
+
+alter table document_interaction
+   add constraint FK92671ca0swyrsm6gvul9obcvl
+   foreign key (user_id)
+   references app_user;
+
+alter table document_version
+   add constraint FKnvpdtplqabenasvgs0q5e3db4
+   foreign key (document_id)
+   references document;
+
+alter table document_version
+   add constraint FK5pvx47j1r85gidw3bhuhwi5sf
+   foreign key (edited_by)
+   references app_user;
+
+alter table notification
+   add constraint FKh8xixujungjkn8unv86ccjxpy
+   foreign key (related_document_id)
+   references document;
+
+alter table notification
+   add constraint FKcxbqr6g1py0j4m9qeq44h1ju6
+   foreign key (user_id)
+   references app_user;
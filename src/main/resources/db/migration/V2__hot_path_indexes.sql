@@ -0,0 +1,108 @@
+-- Indexes for the repository finders. Everything uses IF NOT EXISTS, since databases baselined from
+-- Hibernate's schema may already have the indexes declared on the entities.
+
+-- document: feeds and listings, newest first (DocumentRepository.findFeed*, findRecentDocuments, findByCreatedAtBetween)
+create index if not exists idx_document_feed
+    on document (created_at desc, document_id desc);
+
+-- uploader listings, feed and statistics (findByUploadedByUserId*, findFeedByUploader, countByUploadedByUserId)
+create index if not exists idx_document_uploader_feed
+    on document (uploaded_by, created_at desc, document_id desc);
+
+create index if not exists idx_document_course_feed
+    on document (course_id, created_at desc, document_id desc);
+
+-- Approved documents are what students browse; pending ones are the small moderation queue
+create index if not exists idx_document_approved_feed
+    on document (created_at desc, document_id desc) where is_approved;
+
+create index if not exists idx_document_pending
+    on document (created_at) where not is_approved;
+
+create index if not exists idx_document_approved_by
+    on document (approved_by) where approved_by is not null;
+
+create index if not exists idx_document_file_type
+    on document (file_type, created_at desc);
+
+-- existsByTitleIgnoreCase compares upper(title)
+create index if not exists idx_document_title_upper
+    on document (upper(title));
+
+-- Rows still waiting for the search text backfill (findBySearchTitleIsNull)
+create index if not exists idx_document_search_backfill
+    on document (document_id) where search_title is null;
+
+-- document_categories: both directions of the many-to-many
+create index if not exists idx_document_categories_document
+    on document_categories (document_id, category_id);
+
+create index if not exists idx_document_categories_category
+    on document_categories (category_id, document_id);
+
+-- document_version: history and next version number of a document
+create index if not exists idx_document_version_document
+    on document_version (document_id, version_number);
+
+create index if not exists idx_document_version_edited_by
+    on document_version (edited_by);
+
+-- document_interaction: per-document and per-user counts by type, and time range scans
+create index if not exists idx_document_interaction_document
+    on document_interaction (document_id, interaction_type);
+
+create index if not exists idx_document_interaction_user
+    on document_interaction (user_id, interaction_type);
+
+create index if not exists idx_document_interaction_at
+    on document_interaction (interaction_at);
+
+-- document_access: one grant per (document, user)
+create index if not exists idx_document_access_document_user
+    on document_access (document_id, user_id);
+
+create index if not exists idx_document_access_user
+    on document_access (user_id);
+
+create index if not exists idx_document_access_granted_by
+    on document_access (granted_by);
+
+-- notification: a user's inbox, optionally unread only
+create index if not exists idx_notification_user
+    on notification (user_id, is_read);
+
+create index if not exists idx_notification_document
+    on notification (related_document_id) where related_document_id is not null;
+
+create index if not exists idx_notification_type
+    on notification (type);
+
+-- audit_log
+create index if not exists idx_audit_log_admin
+    on audit_log (admin_id);
+
+create index if not exists idx_audit_log_document
+    on audit_log (related_document_id) where related_document_id is not null;
+
+create index if not exists idx_audit_log_action_type
+    on audit_log (action_type);
+
+-- category / course / app_user lookups
+create index if not exists idx_category_name_upper
+    on category (upper(category_name));
+
+create index if not exists idx_category_created_by
+    on category (created_by);
+
+create index if not exists idx_course_created_by
+    on course (created_by);
+
+create index if not exists idx_app_user_role_active
+    on app_user (role, is_active);
+
+-- Background jobs: due deletions and expired upload sessions
+create index if not exists idx_storage_deletion_task_due
+    on storage_deletion_task (status, next_attempt_at);
+
+create index if not exists idx_upload_session_expires
+    on upload_session (expires_at);
@@ -0,0 +1,9 @@
+-- Full-text search over the folded title and description (see DocumentSearchService), title words ranked first.
+-- Databases managed by ddl-auto never get the column, and DocumentSearchService then falls back to LIKE.
+alter table document add column if not exists search_vector tsvector
+    generated always as (
+        setweight(to_tsvector('simple', coalesce(search_title, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(search_description, '')), 'B')) stored;
+
+create index if not exists idx_document_search_vector
+    on document using gin (search_vector);
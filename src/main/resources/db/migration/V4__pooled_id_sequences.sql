@@ -0,0 +1,23 @@
+-- Write-heavy tables switch from identity columns to pooled sequences (allocationSize = 50 in the entities):
+-- Hibernate reserves 50 ids per sequence call and can then batch the inserts, which IDENTITY prevents.
+-- Each sequence starts past the current ids; the next value is the top of the first block Hibernate hands out.
+
+create sequence if not exists document_seq increment by 50;
+select setval('document_seq', (select coalesce(max(document_id), 0) from document) + 50, false);
+alter table document alter column document_id drop identity if exists;
+
+create sequence if not exists document_version_seq increment by 50;
+select setval('document_version_seq', (select coalesce(max(version_id), 0) from document_version) + 50, false);
+alter table document_version alter column version_id drop identity if exists;
+
+create sequence if not exists document_interaction_seq increment by 50;
+select setval('document_interaction_seq', (select coalesce(max(interaction_id), 0) from document_interaction) + 50, false);
+alter table document_interaction alter column interaction_id drop identity if exists;
+
+create sequence if not exists notification_seq increment by 50;
+select setval('notification_seq', (select coalesce(max(notification_id), 0) from notification) + 50, false);
+alter table notification alter column notification_id drop identity if exists;
+
+create sequence if not exists audit_log_seq increment by 50;
+select setval('audit_log_seq', (select coalesce(max(audit_id), 0) from audit_log) + 50, false);
+alter table audit_log alter column audit_id drop identity if exists;
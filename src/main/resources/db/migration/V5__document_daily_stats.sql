@@ -0,0 +1,29 @@
+-- Per-document, per-day interaction counts maintained by InteractionRollupService, so popularity and
+-- statistics never count document_interaction rows.
+create table if not exists document_daily_stats (
+    document_id bigint not null,
+    stat_date date not null,
+    views bigint not null,
+    downloads bigint not null,
+    primary key (document_id, stat_date),
+    constraint fk_document_daily_stats_document foreign key (document_id) references document (document_id) on delete cascade
+);
+
+-- Popularity over a date range (findMostDownloadedSince, findMostViewedSince)
+create index if not exists idx_document_daily_stats_day
+    on document_daily_stats (stat_date, document_id);
+
+-- Distinct users of a document over a date range, which cannot be added up from daily rows
+-- (DocumentInteractionRepository.countUsersSince, countUsersPerDaySince)
+create index if not exists idx_document_interaction_document_at
+    on document_interaction (document_id, interaction_at, user_id);
+
+-- Backfill from the interactions recorded so far
+insert into document_daily_stats (document_id, stat_date, views, downloads)
+select document_id,
+       cast(interaction_at as date),
+       count(*) filter (where interaction_type = 'View'),
+       count(*) filter (where interaction_type = 'Download')
+from document_interaction
+group by document_id, cast(interaction_at as date)
+on conflict do nothing;
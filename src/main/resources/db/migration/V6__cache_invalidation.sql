@@ -0,0 +1,8 @@
+-- Cache invalidation messages for databases without LISTEN/NOTIFY. PostgreSQL nodes use NOTIFY instead
+-- and never write here; the table exists so the schema matches the entities.
+create table if not exists cache_invalidation (
+    id bigint generated by default as identity,
+    message varchar(500) not null,
+    created_at timestamp(6) not null,
+    primary key (id)
+);
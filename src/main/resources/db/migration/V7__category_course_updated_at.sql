@@ -0,0 +1,8 @@
+-- Last change time of categories and courses, for the ETags of their listings
+alter table category add column if not exists updated_at timestamp(6);
+update category set updated_at = created_at where updated_at is null;
+alter table category alter column updated_at set not null;
+
+alter table course add column if not exists updated_at timestamp(6);
+update course set updated_at = created_at where updated_at is null;
+alter table course alter column updated_at set not null;
@@ -0,0 +1,3 @@
+-- The deletion worker and re-uploads of released content look up queued deletions by file
+create index if not exists idx_storage_deletion_task_file_path
+    on storage_deletion_task (file_path);
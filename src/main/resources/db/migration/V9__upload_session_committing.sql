@@ -0,0 +1,4 @@
+-- A session is claimed (COMMITTING) before it becomes a document, so two commits cannot both create one
+alter table upload_session drop constraint if exists upload_session_status_check;
+alter table upload_session
+    add constraint upload_session_status_check check (status in ('ACTIVE','COMMITTING','COMMITTED'));
@@ -0,0 +1,129 @@
+package app.mobile.BK_sharing;
+
+import app.mobile.BK_sharing.document.entity.Document;
+import app.mobile.BK_sharing.document.entity.DocumentInteraction;
+import app.mobile.BK_sharing.document.repository.DocumentInteractionRepository;
+import app.mobile.BK_sharing.document.repository.DocumentRepository;
+import app.mobile.BK_sharing.notification.Notification;
+import app.mobile.BK_sharing.notification.NotificationRepository;
+import app.mobile.BK_sharing.user.User;
+import app.mobile.BK_sharing.user.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+import static app.mobile.BK_sharing.TestFixtures.document;
+import static app.mobile.BK_sharing.TestFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BatchInsertTests {
+
+    private static final int ROWS = 1000;
+
+    @Autowired
+    private DocumentInteractionRepository interactionRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+    private Document document;
+
+    @BeforeEach
+    void setUp() {
+        String marker = UUID.randomUUID().toString().substring(0, 8);
+        user = userRepository.save(user("batch-" + marker, "Batch Tester"));
+        document = documentRepository.save(document("Batch document " + marker, user));
+    }
+
+    @Test
+    void insertsInteractionsInBatches() {
+        compare("document_interaction", i -> {
+            DocumentInteraction interaction = new DocumentInteraction();
+            interaction.setDocument(document);
+            interaction.setUser(user);
+            interaction.setInteractionType(i % 3 == 0 ? DocumentInteraction.InteractionType.Download : DocumentInteraction.InteractionType.View);
+            return interaction;
+        }, rows -> interactionRepository.saveAll(rows));
+    }
+
+    @Test
+    void insertsNotificationsInBatches() {
+        compare("notification", i -> {
+            Notification notification = new Notification();
+            notification.setUser(user);
+            notification.setTitle("Document approved");
+            notification.setMessage("Notification " + i);
+            notification.setType(Notification.NotificationType.DOCUMENT_APPROVED);
+            notification.setRelatedDocument(document);
+            return notification;
+        }, rows -> notificationRepository.saveAll(rows));
+    }
+
+    // Helper method to insert ROWS rows one statement at a time (as with IDENTITY ids), then batched, and compare
+    private <T> void compare(String table, IntFunction<T> newRow, Consumer<List<T>> saveAll) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Warm up both paths
+        insert(newRow, saveAll, 1, 100);
+        insert(newRow, saveAll, null, 100);
+
+        statistics.clear();
+        insert(newRow, saveAll, 1, ROWS);
+        long unbatchedStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        insert(newRow, saveAll, null, ROWS);
+        long batchedStatements = statistics.getPrepareStatementCount();
+
+        assertThat(unbatchedStatements).as(table).isGreaterThanOrEqualTo(ROWS);
+        // One statement per batch of 50 inserts plus one sequence call per 50 ids
+        assertThat(batchedStatements).as(table).isLessThanOrEqualTo(2L * ROWS / 50 + 2);
+    }
+
+    // Helper method to save rows in one transaction, with the session's JDBC batch size overridden when given
+    private <T> void insert(IntFunction<T> newRow, Consumer<List<T>> saveAll, Integer batchSize, int count) {
+        List<T> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(newRow.apply(i));
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (batchSize != null) {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            }
+            saveAll.accept(rows);
+        });
+    }
+}
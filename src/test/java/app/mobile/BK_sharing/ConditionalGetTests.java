@@ -0,0 +1,160 @@
+package app.mobile.BK_sharing;
+
+import app.mobile.BK_sharing.category.CategoryService;
+import app.mobile.BK_sharing.category.dto.CategoryDTO;
+import app.mobile.BK_sharing.category.dto.CreateCategoryDTO;
+import app.mobile.BK_sharing.category.dto.UpdateCategoryDTO;
+import app.mobile.BK_sharing.course.CourseService;
+import app.mobile.BK_sharing.course.dto.CourseRequest;
+import app.mobile.BK_sharing.document.entity.Document;
+import app.mobile.BK_sharing.document.repository.DocumentRepository;
+import app.mobile.BK_sharing.document.service.DocumentVersionService;
+import app.mobile.BK_sharing.user.User;
+import app.mobile.BK_sharing.user.UserRepository;
+import app.mobile.BK_sharing.user.UserService;
+import app.mobile.BK_sharing.user.dto.UpdateUserDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static app.mobile.BK_sharing.TestFixtures.document;
+import static app.mobile.BK_sharing.TestFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalGetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private DocumentVersionService documentVersionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String marker;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        marker = UUID.randomUUID().toString().substring(0, 8);
+
+        user = userRepository.save(user("etag-" + marker, "ETag Tester"));
+    }
+
+    @Test
+    void categoriesAnswerNotModifiedWithoutQueryingUntilOneChanges() throws Exception {
+        CategoryDTO category = categoryService.createCategory(
+                CreateCategoryDTO.builder().categoryName("ETag " + marker).build(), user.getUserId());
+        String eTag = eTagOf("/api/v1/categories");
+
+        statistics.clear();
+        mockMvc.perform(get("/api/v1/categories").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        categoryService.updateCategory(category.getCategoryId(),
+                UpdateCategoryDTO.builder().categoryName("Renamed " + marker).build());
+        String renamed = eTagOf("/api/v1/categories");
+        assertThat(renamed).isNotEqualTo(eTag);
+
+        categoryService.deleteCategory(category.getCategoryId());
+        assertThat(eTagOf("/api/v1/categories")).isNotIn(eTag, renamed);
+    }
+
+    @Test
+    void coursesAnswerNotModifiedUntilOneChanges() throws Exception {
+        CourseRequest request = new CourseRequest();
+        request.setCourseCode("ETAG-" + marker);
+        request.setCourseName("Before");
+        request.setCreatedById(user.getUserId());
+        Long courseId = courseService.createCourse(request).getCourseId();
+        String eTag = eTagOf("/api/v1/courses");
+
+        statistics.clear();
+        mockMvc.perform(get("/api/v1/courses").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        request.setCourseName("After");
+        courseService.updateCourse(courseId, request);
+        mockMvc.perform(get("/api/v1/courses").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void documentAndItsVersionsAnswerNotModifiedUntilTheyChange() throws Exception {
+        Document document = documentRepository.save(document("ETag document " + marker, user));
+        String documentPath = "/api/v1/documents/" + document.getDocumentId();
+        String versionsPath = "/api/v1/document-versions/document/" + document.getDocumentId();
+
+        String eTag = eTagOf(documentPath);
+        statistics.clear();
+        mockMvc.perform(get(documentPath).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        // The response shows the uploader's username, so renaming them changes the tag too
+        UpdateUserDTO rename = new UpdateUserDTO();
+        rename.setUsername("etag-renamed-" + marker);
+        userService.updateUser(user.getUserId(), rename);
+        String renamed = eTagOf(documentPath);
+        assertThat(renamed).isNotEqualTo(eTag);
+
+        document.setTitle("Edited " + marker);
+        documentRepository.save(document);
+        assertThat(eTagOf(documentPath)).isNotIn(eTag, renamed);
+
+        documentVersionService.createVersion(document, user, document.getFilePath(), "First draft", 1024L);
+        String versions = eTagOf(versionsPath);
+        mockMvc.perform(get(versionsPath).header(HttpHeaders.IF_NONE_MATCH, versions))
+                .andExpect(status().isNotModified());
+        documentVersionService.createVersion(document, user, document.getFilePath(), "Second draft", 2048L);
+        assertThat(eTagOf(versionsPath)).isNotEqualTo(versions);
+    }
+
+    private String eTagOf(String path) throws Exception {
+        String eTag = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).startsWith("\"");
+        return eTag;
+    }
+}
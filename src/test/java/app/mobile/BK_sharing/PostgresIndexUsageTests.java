@@ -0,0 +1,207 @@
+package app.mobile.BK_sharing;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Applies the Flyway migrations to a scratch schema on a real PostgreSQL and checks with EXPLAIN that
+ * every hot query, and every combination of the document filters, is answered from an index. Needs a
+ * database, so it only runs when TEST_POSTGRES_URL is set,
+ * e.g. {@code TEST_POSTGRES_URL=jdbc:postgresql://localhost:5432/postgres TEST_POSTGRES_USER=postgres mvn test}.
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PostgresIndexUsageTests {
+
+    private Connection connection;
+    private String schema;
+
+    @BeforeAll
+    void migrateAndSeed() throws Exception {
+        connection = DriverManager.getConnection(System.getenv("TEST_POSTGRES_URL"),
+                System.getenv().getOrDefault("TEST_POSTGRES_USER", "postgres"),
+                System.getenv().getOrDefault("TEST_POSTGRES_PASSWORD", ""));
+        schema = "index_check_" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA " + schema);
+            statement.execute("SET search_path TO " + schema);
+        }
+
+        // 1. The migrations, run by Flyway as on startup
+        Flyway.configure()
+                .dataSource(System.getenv("TEST_POSTGRES_URL"),
+                        System.getenv().getOrDefault("TEST_POSTGRES_USER", "postgres"),
+                        System.getenv().getOrDefault("TEST_POSTGRES_PASSWORD", ""))
+                .schemas(schema)
+                .defaultSchema(schema)
+                .load()
+                .migrate();
+
+        // 2. Enough rows for the planner statistics to mean something; tables with sequence ids get explicit ids
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO app_user (created_at, email, full_name, is_active, password, role, updated_at, username) " +
+                    "SELECT now(), 'user' || i || '@hcmut.edu.vn', 'User ' || i, true, 'secret', 'STUDENT', now(), 'user' || i " +
+                    "FROM generate_series(1, 200) i");
+            statement.execute("INSERT INTO course (course_code, course_name, created_at, updated_at, created_by) " +
+                    "SELECT 'CO' || i, 'Course ' || i, now(), now(), 1 FROM generate_series(1, 50) i");
+            statement.execute("INSERT INTO category (category_name, created_at, updated_at, created_by) " +
+                    "SELECT 'Category ' || i, now(), now(), 1 FROM generate_series(1, 30) i");
+            statement.execute("INSERT INTO document (document_id, created_at, file_path, file_size, file_type, is_approved, title, " +
+                    "search_title, updated_at, uploaded_by, course_id) " +
+                    "SELECT i, now() - i * interval '1 minute', '/files/' || i || '.pdf', 1024, " +
+                    "(ARRAY['PDF','WORD','POWERPOINT','OTHER'])[1 + i % 4], i % 10 <> 0, 'Document ' || i, " +
+                    "CASE WHEN i % 7 = 0 THEN 'giai tich ' ELSE 'vat ly ' END || i, now(), 1 + i % 200, 1 + i % 50 " +
+                    "FROM generate_series(1, 50000) i");
+            statement.execute("INSERT INTO document_categories (document_id, category_id) " +
+                    "SELECT document_id, 1 + document_id % 30 FROM document");
+            statement.execute("INSERT INTO document_version (version_id, document_id, version_number, edited_at, edited_by, file_path) " +
+                    "SELECT document_id * 2 + v, document_id, v, now(), uploaded_by, file_path FROM document, generate_series(0, 1) v");
+            statement.execute("INSERT INTO document_interaction (interaction_id, document_id, user_id, interaction_type, interaction_at) " +
+                    "SELECT i, 1 + i % 50000, 1 + i % 200, CASE WHEN i % 3 = 0 THEN 'Download' ELSE 'View' END, " +
+                    "now() - i * interval '1 second' FROM generate_series(1, 200000) i");
+            statement.execute("INSERT INTO document_daily_stats (document_id, stat_date, views, downloads) " +
+                    "SELECT 1 + i % 50000, current_date - i / 50000, i % 40, i % 7 FROM generate_series(1, 1000000) i " +
+                    "ON CONFLICT DO NOTHING");
+            statement.execute("INSERT INTO notification (notification_id, created_at, is_read, message, title, type, user_id) " +
+                    "SELECT i, now(), i % 2 = 0, 'Message', 'Title', 'DOCUMENT_APPROVED', 1 + i % 200 FROM generate_series(1, 20000) i");
+            statement.execute("INSERT INTO storage_deletion_task (attempts, created_at, file_path, next_attempt_at, status) " +
+                    "SELECT 0, now(), '/files/old-' || i, now() + i * interval '1 second', " +
+                    "CASE WHEN i % 5 = 0 THEN 'FAILED' ELSE 'PENDING' END FROM generate_series(1, 10000) i");
+            statement.execute("ANALYZE");
+            // Tables this small could be scanned quickly either way; the question is whether an index applies
+            statement.execute("SET enable_seqscan = off");
+        }
+    }
+
+    @AfterAll
+    void dropSchema() throws Exception {
+        if (connection != null) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+            }
+            connection.close();
+        }
+    }
+
+    static Stream<Arguments> hotQueries() {
+        return Stream.of(
+                Arguments.of("recent feed", "idx_document_feed",
+                        "SELECT document_id FROM document WHERE created_at < now() ORDER BY created_at DESC, document_id DESC LIMIT 20"),
+                Arguments.of("uploader feed", "idx_document_uploader_feed",
+                        "SELECT document_id FROM document WHERE uploaded_by = 7 ORDER BY created_at DESC, document_id DESC LIMIT 20"),
+                Arguments.of("course feed", "idx_document_course_feed",
+                        "SELECT document_id FROM document WHERE course_id = 7 ORDER BY created_at DESC, document_id DESC LIMIT 20"),
+                Arguments.of("category filter", "idx_document_categories",
+                        "SELECT d.document_id FROM document d WHERE EXISTS (SELECT 1 FROM document_categories dc " +
+                                "WHERE dc.document_id = d.document_id AND dc.category_id = 7) " +
+                                "ORDER BY d.created_at DESC, d.document_id DESC LIMIT 20"),
+                Arguments.of("approved listing", "idx_document_approved_feed",
+                        "SELECT document_id FROM document WHERE is_approved ORDER BY created_at DESC, document_id DESC LIMIT 20"),
+                Arguments.of("moderation queue", "idx_document_pending",
+                        "SELECT document_id FROM document WHERE NOT is_approved ORDER BY created_at"),
+                Arguments.of("title uniqueness", "idx_document_title_upper",
+                        "SELECT 1 FROM document WHERE upper(title) = upper('Document 42') LIMIT 1"),
+                Arguments.of("full-text search", "idx_document_search_vector",
+                        "SELECT document_id FROM document WHERE search_vector @@ to_tsquery('simple', 'giai:* & tich:*')"),
+                Arguments.of("next version number", "idx_document_version_document",
+                        "SELECT max(version_number) FROM document_version WHERE document_id = 42"),
+                Arguments.of("download count", "idx_document_interaction_document",
+                        "SELECT count(*) FROM document_interaction WHERE document_id = 42 AND interaction_type = 'Download'"),
+                Arguments.of("interactions in a time range", "idx_document_interaction_at",
+                        "SELECT count(*) FROM document_interaction WHERE interaction_at BETWEEN now() - interval '1 hour' AND now()"),
+                Arguments.of("distinct users of a document", "idx_document_interaction_document_at",
+                        "SELECT count(DISTINCT user_id) FROM document_interaction WHERE document_id = 42 " +
+                                "AND interaction_at >= current_date - 6"),
+                Arguments.of("popular documents this week", "idx_document_daily_stats_day",
+                        "SELECT document_id, sum(downloads) FROM document_daily_stats WHERE stat_date >= current_date - 6 " +
+                                "GROUP BY document_id ORDER BY sum(downloads) DESC LIMIT 10"),
+                Arguments.of("unread notifications", "idx_notification_user",
+                        "SELECT notification_id FROM notification WHERE user_id = 7 AND is_read = false"),
+                Arguments.of("due storage deletions", "idx_storage_deletion_task_due",
+                        "SELECT task_id FROM storage_deletion_task WHERE status = 'PENDING' AND next_attempt_at <= now() " +
+                                "ORDER BY next_attempt_at LIMIT 50"));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    void hotQueryUsesItsIndex(String name, String expectedIndex, String sql) throws Exception {
+        String plan = explain(sql);
+
+        assertThat(plan).as(name + ":%n%s", plan).contains(expectedIndex).doesNotContain("Seq Scan");
+    }
+
+    // One bit per filter of DocumentSpecifications.byFilters, so masks 0..31 cover every combination
+    static Stream<Integer> filterCombinations() {
+        return IntStream.range(0, 32).boxed();
+    }
+
+    @ParameterizedTest(name = "filter mask {0}")
+    @MethodSource("filterCombinations")
+    void filterCombinationUsesAnIndex(int mask) throws Exception {
+        // Same predicates as the SQL Hibernate generates for the specification, for both queries a page runs
+        List<String> predicates = new ArrayList<>();
+        if ((mask & 1) != 0) {
+            predicates.add("d.search_title LIKE '%giai tich%'");
+        }
+        if ((mask & 2) != 0) {
+            predicates.add("EXISTS (SELECT 1 FROM document_categories dc WHERE d.document_id = dc.document_id AND dc.category_id = 7)");
+        }
+        if ((mask & 4) != 0) {
+            predicates.add("d.uploaded_by = 7");
+        }
+        if ((mask & 8) != 0) {
+            predicates.add("d.is_approved = true");
+        }
+        if ((mask & 16) != 0) {
+            predicates.add("d.file_type = 'PDF'");
+        }
+        String where = predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates);
+
+        String pagePlan = explain("SELECT d.document_id FROM document d" + where +
+                " ORDER BY d.created_at DESC, d.document_id DESC OFFSET 0 ROWS FETCH FIRST 20 ROWS ONLY");
+        String countPlan = explain("SELECT count(d.document_id) FROM document d" + where);
+
+        assertThat(pagePlan).as("page, mask %d:%n%s", mask, pagePlan).contains("idx_document_").doesNotContain("Seq Scan");
+        assertThat(countPlan).as("count, mask %d:%n%s", mask, countPlan).doesNotContain("Seq Scan");
+        // The narrowest filter decides the index: the uploader, else the category, else approval
+        if ((mask & 4) != 0) {
+            assertThat(pagePlan).as("page, mask %d:%n%s", mask, pagePlan).contains("idx_document_uploader_feed");
+        } else if ((mask & 2) != 0) {
+            assertThat(countPlan).as("count, mask %d:%n%s", mask, countPlan).contains("idx_document_categories_category");
+        } else if (mask == 8) {
+            assertThat(pagePlan).as("page, mask %d:%n%s", mask, pagePlan).contains("idx_document_approved_feed");
+        }
+    }
+
+    // Helper method to return the plan PostgreSQL picks for a query
+    private String explain(String sql) throws Exception {
+        StringBuilder plan = new StringBuilder();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("EXPLAIN " + sql)) {
+            while (rows.next()) {
+                plan.append(rows.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+}
+
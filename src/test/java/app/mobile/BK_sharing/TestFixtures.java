@@ -0,0 +1,38 @@
+package app.mobile.BK_sharing;
+
+import app.mobile.BK_sharing.document.entity.Document;
+import app.mobile.BK_sharing.user.User;
+
+import java.util.UUID;
+
+/**
+ * Unsaved users and documents with every required column filled in. Tests set what they care about on top
+ * (role, approval, course, categories) and save them, one by one or with saveAll.
+ */
+public final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    // An active student whose email is the username at hcmut.edu.vn
+    public static User user(String username, String fullName) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@hcmut.edu.vn");
+        user.setPassword("secret");
+        user.setFullName(fullName);
+        user.setRole(User.UserRole.STUDENT);
+        return user;
+    }
+
+    // A pending 1 KB PDF stored under a path of its own
+    public static Document document(String title, User uploader) {
+        Document document = new Document();
+        document.setTitle(title);
+        document.setFileType(Document.FileType.PDF);
+        document.setFilePath("/files/" + UUID.randomUUID() + ".pdf");
+        document.setFileSize(1024L);
+        document.setUploadedBy(uploader);
+        return document;
+    }
+}
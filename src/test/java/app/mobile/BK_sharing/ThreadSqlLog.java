@@ -0,0 +1,54 @@
+package app.mobile.BK_sharing;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * The SQL statements Hibernate logs on the thread that started the capture. Hibernate's statistics count the
+ * statements of every thread, including the scheduled workers running in the same context, so tests that
+ * count statements use this instead.
+ */
+public final class ThreadSqlLog implements AutoCloseable {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger("org.hibernate.SQL");
+    private final Level previousLevel = logger.getLevel();
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private final String threadName = Thread.currentThread().getName();
+
+    private ThreadSqlLog() {
+        logger.setLevel(Level.DEBUG);
+        logger.addAppender(appender);
+        appender.start();
+    }
+
+    public static ThreadSqlLog start() {
+        return new ThreadSqlLog();
+    }
+
+    // Statements logged so far, lower case with whitespace collapsed
+    public List<String> statements() {
+        return List.copyOf(appender.list).stream()
+                .filter(event -> event.getThreadName().equals(threadName))
+                .map(event -> event.getFormattedMessage().replaceAll("\\s+", " ").trim().toLowerCase())
+                .toList();
+    }
+
+    public int count() {
+        return statements().size();
+    }
+
+    public void clear() {
+        appender.list.clear();
+    }
+
+    @Override
+    public void close() {
+        logger.detachAppender(appender);
+        logger.setLevel(previousLevel);
+    }
+}
@@ -0,0 +1,249 @@
+package app.mobile.BK_sharing.cache;
+
+import app.mobile.BK_sharing.BkSharingApplication;
+import app.mobile.BK_sharing.category.Category;
+import app.mobile.BK_sharing.category.CategoryRepository;
+import app.mobile.BK_sharing.category.CategoryService;
+import app.mobile.BK_sharing.category.dto.CategoryDTO;
+import app.mobile.BK_sharing.category.dto.CreateCategoryDTO;
+import app.mobile.BK_sharing.category.dto.UpdateCategoryDTO;
+import app.mobile.BK_sharing.course.Course;
+import app.mobile.BK_sharing.course.CourseService;
+import app.mobile.BK_sharing.course.dto.CourseRequest;
+import app.mobile.BK_sharing.document.InteractionIngestService;
+import app.mobile.BK_sharing.document.entity.Document;
+import app.mobile.BK_sharing.document.entity.DocumentInteraction;
+import app.mobile.BK_sharing.document.repository.DocumentRepository;
+import app.mobile.BK_sharing.search.DocumentFacetIndex;
+import app.mobile.BK_sharing.search.DocumentFacetService;
+import app.mobile.BK_sharing.search.SearchIndexService;
+import app.mobile.BK_sharing.search.dto.SuggestionDto;
+import app.mobile.BK_sharing.trending.TrendingService;
+import app.mobile.BK_sharing.trending.dto.TrendingDocumentDto;
+import app.mobile.BK_sharing.user.User;
+import app.mobile.BK_sharing.user.UserRepository;
+import app.mobile.BK_sharing.user.UserService;
+import app.mobile.BK_sharing.user.dto.UpdateUserDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static app.mobile.BK_sharing.TestFixtures.document;
+import static app.mobile.BK_sharing.TestFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Two application contexts (two nodes) on one database: a change made on one node must evict the entries
+ * the other node has cached, and reach its search, facet and trending indexes. Runs on H2, which uses the polled table, and on PostgreSQL with LISTEN/NOTIFY
+ * when TEST_POSTGRES_URL is set (see PostgresIndexUsageTests).
+ */
+class CacheInvalidationBusTests {
+
+    private final String marker = UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+
+    @Test
+    void evictsOnTheOtherNodeOverAPolledTable() {
+        String url = "jdbc:h2:mem:invalidation_" + marker + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;" +
+                "INIT=CREATE SCHEMA IF NOT EXISTS bk_sharing";
+        twoNodes(List.of("--spring.datasource.url=" + url));
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+    void evictsOnTheOtherNodeOverListenNotify() throws Exception {
+        String url = System.getenv("TEST_POSTGRES_URL");
+        String user = System.getenv().getOrDefault("TEST_POSTGRES_USER", "postgres");
+        String password = System.getenv().getOrDefault("TEST_POSTGRES_PASSWORD", "");
+        String schema = "invalidation_" + marker;
+
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA " + schema);
+            try {
+                twoNodes(List.of(
+                        "--spring.datasource.url=" + url,
+                        "--spring.datasource.username=" + user,
+                        "--spring.datasource.password=" + password,
+                        "--spring.datasource.driver-class-name=org.postgresql.Driver",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+                        "--spring.jpa.properties.hibernate.default_schema=" + schema,
+                        "--app.cache.invalidation.channel=" + schema));
+            } finally {
+                statement.execute("DROP SCHEMA " + schema + " CASCADE");
+            }
+        }
+    }
+
+    @Test
+    void reloadsChangedDocumentsIntoTheOtherNodesIndexes() {
+        String url = "jdbc:h2:mem:indexes_" + marker + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;" +
+                "INIT=CREATE SCHEMA IF NOT EXISTS bk_sharing";
+        List<String> database = List.of("--spring.datasource.url=" + url);
+        try (ConfigurableApplicationContext first = start(database, "create-drop");
+             ConfigurableApplicationContext second = start(database, "none")) {
+
+            User user = first.getBean(UserRepository.class).save(user("indexed-" + marker, "Indexed Uploader"));
+            Category category = first.getBean(CategoryRepository.class)
+                    .save(Category.builder().categoryName("Indexed " + marker).createdBy(user).build());
+            Course course = first.getBean(CourseService.class).createCourse(courseRequest("Indexed", user.getUserId()));
+
+            Document document = document("Nodeshared " + marker, user);
+            document.setIsApproved(true);
+            document.setCourse(course);
+            document.setCategories(List.of(category));
+            DocumentRepository firstDocuments = first.getBean(DocumentRepository.class);
+            Long documentId = firstDocuments.save(document).getDocumentId();
+
+            // 1. The second node indexes what was committed on the first one
+            SearchIndexService secondSearch = second.getBean(SearchIndexService.class);
+            DocumentFacetService secondFacets = second.getBean(DocumentFacetService.class);
+            awaitTrue(() -> suggestedIds(secondSearch, "Nodeshared " + marker).contains(documentId));
+            awaitTrue(() -> secondFacets.facets(documentId)
+                    .filter(facets -> course.getCourseId().equals(facets.courseId())
+                            && facets.categoryIds().contains(category.getCategoryId()))
+                    .isPresent());
+            awaitTrue(() -> secondSearch.searchUsers("indexed-" + marker, 5).contains(user.getUserId()));
+
+            // 2. Withdrawing approval and then deleting the document reach it too
+            Document saved = firstDocuments.findById(documentId).orElseThrow();
+            saved.setIsApproved(false);
+            firstDocuments.save(saved);
+            awaitTrue(() -> !suggestedIds(secondSearch, "Nodeshared " + marker).contains(documentId));
+            awaitTrue(() -> secondFacets.facets(documentId).map(DocumentFacetIndex.Facets::approved).equals(Optional.of(false)));
+
+            firstDocuments.deleteById(documentId);
+            awaitTrue(() -> secondFacets.facets(documentId).isEmpty());
+        }
+    }
+
+    @Test
+    void sharesTrendingScoresWithTheOtherNode() {
+        String url = "jdbc:h2:mem:trending_" + marker + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;" +
+                "INIT=CREATE SCHEMA IF NOT EXISTS bk_sharing";
+        List<String> database = List.of("--spring.datasource.url=" + url);
+        try (ConfigurableApplicationContext first = start(database, "create-drop");
+             ConfigurableApplicationContext second = start(database, "none")) {
+
+            User user = first.getBean(UserRepository.class).save(user("trending-" + marker, "Trending Reader"));
+
+            Document document = document("Trending " + marker, user);
+            document.setIsApproved(true);
+            Long documentId = first.getBean(DocumentRepository.class).save(document).getDocumentId();
+            DocumentFacetService secondFacets = second.getBean(DocumentFacetService.class);
+            awaitTrue(() -> secondFacets.facets(documentId).isPresent());
+
+            // Interactions stored on the first node only: one download and one view, scored 3 + 1
+            LocalDateTime now = LocalDateTime.now();
+            first.getBean(TrendingService.class).record(List.of(
+                    new InteractionIngestService.InteractionEvent(documentId, user.getUserId(),
+                            DocumentInteraction.InteractionType.Download, now),
+                    new InteractionIngestService.InteractionEvent(documentId, user.getUserId(),
+                            DocumentInteraction.InteractionType.View, now)));
+
+            TrendingService secondTrending = second.getBean(TrendingService.class);
+            awaitTrue(() -> secondTrending.getTrendingDocuments(null, null, 10).stream()
+                    .anyMatch(trending -> trending.getDocument().getDocumentId().equals(documentId)));
+            TrendingDocumentDto trending = secondTrending.getTrendingDocuments(null, null, 10).stream()
+                    .filter(scored -> scored.getDocument().getDocumentId().equals(documentId))
+                    .findFirst()
+                    .orElseThrow();
+            assertThat(trending.getScore()).isCloseTo(4.0, within(0.1));
+        }
+    }
+
+    private void twoNodes(List<String> database) {
+        // The first node creates the schema, the second uses it as it is
+        try (ConfigurableApplicationContext first = start(database, "create-drop");
+             ConfigurableApplicationContext second = start(database, "none")) {
+
+            Long userId = first.getBean(UserRepository.class).save(user("node-" + marker, "Before")).getUserId();
+
+            CategoryDTO category = first.getBean(CategoryService.class)
+                    .createCategory(CreateCategoryDTO.builder().categoryName("Before " + marker).build(), userId);
+            Course course = first.getBean(CourseService.class).createCourse(courseRequest("Before", userId));
+
+            // 1. The second node caches what it reads
+            CategoryService secondCategories = second.getBean(CategoryService.class);
+            CourseService secondCourses = second.getBean(CourseService.class);
+            UserService secondUsers = second.getBean(UserService.class);
+            assertThat(categoryNames(secondCategories)).contains("Before " + marker);
+            assertThat(secondCourses.getCourse(course.getCourseId()).getCourseName()).isEqualTo("Before");
+            assertThat(secondUsers.getUserSummary(userId).getFullName()).isEqualTo("Before");
+            // The polled eviction for the category created above may still arrive between two reads
+            awaitTrue(() -> categoryNames(secondCategories).contains("Before " + marker)
+                    && hits(second, "categories") > 0);
+
+            // 2. Changes on the first node reach it
+            first.getBean(CategoryService.class).updateCategory(category.getCategoryId(),
+                    UpdateCategoryDTO.builder().categoryName("After " + marker).build());
+            first.getBean(CourseService.class).updateCourse(course.getCourseId(), courseRequest("After", userId));
+            UpdateUserDTO update = new UpdateUserDTO();
+            update.setFullName("After");
+            first.getBean(UserService.class).updateUser(userId, update);
+
+            awaitTrue(() -> categoryNames(secondCategories).contains("After " + marker));
+            awaitTrue(() -> secondCourses.getCourse(course.getCourseId()).getCourseName().equals("After"));
+            awaitTrue(() -> secondUsers.getUserSummary(userId).getFullName().equals("After"));
+            assertThat(second.getBean(MeterRegistry.class).get("cache.invalidation.messages")
+                    .tag("direction", "received").counter().count()).isGreaterThanOrEqualTo(3);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(List<String> database, String ddlAuto) {
+        List<String> args = new ArrayList<>(database);
+        args.add("--spring.profiles.active=test");
+        args.add("--spring.jpa.hibernate.ddl-auto=" + ddlAuto);
+        args.add("--app.cache.invalidation.poll-interval=100ms");
+        return new SpringApplicationBuilder(BkSharingApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+    }
+
+    private CourseRequest courseRequest(String name, Long userId) {
+        CourseRequest request = new CourseRequest();
+        request.setCourseCode("NODE-" + marker);
+        request.setCourseName(name);
+        request.setCreatedById(userId);
+        return request;
+    }
+
+    private static List<Long> suggestedIds(SearchIndexService searchIndexService, String prefix) {
+        return searchIndexService.suggest(prefix, 10).stream().map(SuggestionDto::getId).toList();
+    }
+
+    private static List<String> categoryNames(CategoryService categoryService) {
+        return categoryService.getAllCategories().stream().map(CategoryDTO::getCategoryName).toList();
+    }
+
+    private static double hits(ConfigurableApplicationContext context, String cache) {
+        return context.getBean(MeterRegistry.class).get("cache.gets")
+                .tag("cache", cache).tag("result", "hit").functionCounter().count();
+    }
+
+    private static void awaitTrue(Supplier<Boolean> condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.get()) {
+            assertThat(System.currentTimeMillis()).as("waiting for the other node to evict").isLessThan(deadline);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
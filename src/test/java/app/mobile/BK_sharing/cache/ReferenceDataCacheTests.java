@@ -0,0 +1,149 @@
+package app.mobile.BK_sharing.cache;
+
+import app.mobile.BK_sharing.category.CategoryService;
+import app.mobile.BK_sharing.category.dto.CategoryDTO;
+import app.mobile.BK_sharing.category.dto.CreateCategoryDTO;
+import app.mobile.BK_sharing.category.dto.UpdateCategoryDTO;
+import app.mobile.BK_sharing.config.CacheConfig;
+import app.mobile.BK_sharing.course.Course;
+import app.mobile.BK_sharing.course.CourseService;
+import app.mobile.BK_sharing.course.dto.CourseDto;
+import app.mobile.BK_sharing.course.dto.CourseRequest;
+import app.mobile.BK_sharing.user.User;
+import app.mobile.BK_sharing.user.UserRepository;
+import app.mobile.BK_sharing.user.UserService;
+import app.mobile.BK_sharing.user.dto.UpdateUserDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static app.mobile.BK_sharing.TestFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReferenceDataCacheTests {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String marker;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        marker = UUID.randomUUID().toString().substring(0, 8);
+
+        user = userRepository.save(user("cache-" + marker, "Cache Tester"));
+
+        // Other tests share the context, so start from empty caches
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void servesCategoriesFromTheCacheUntilOneChanges() {
+        CategoryDTO category = categoryService.createCategory(
+                CreateCategoryDTO.builder().categoryName("Cache " + marker).build(), user.getUserId());
+        double hits = gets(CacheConfig.CATEGORIES, "hit");
+        double misses = gets(CacheConfig.CATEGORIES, "miss");
+
+        categoryService.getAllCategories();
+        statistics.clear();
+        assertThat(categoryService.getAllCategories())
+                .extracting(CategoryDTO::getCategoryName)
+                .contains("Cache " + marker);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(gets(CacheConfig.CATEGORIES, "hit")).isEqualTo(hits + 1);
+        assertThat(gets(CacheConfig.CATEGORIES, "miss")).isEqualTo(misses + 1);
+
+        categoryService.updateCategory(category.getCategoryId(),
+                UpdateCategoryDTO.builder().categoryName("Renamed " + marker).build());
+        assertThat(categoryService.getAllCategories())
+                .extracting(CategoryDTO::getCategoryName)
+                .contains("Renamed " + marker)
+                .doesNotContain("Cache " + marker);
+        assertThat(categoryService.getCategoryById(category.getCategoryId()).getCategoryName())
+                .isEqualTo("Renamed " + marker);
+    }
+
+    @Test
+    void servesCoursesFromTheCacheUntilOneChanges() {
+        Course course = courseService.createCourse(request("CACHE-" + marker, "Caching 101"));
+
+        courseService.getAllCourses();
+        courseService.getCourse(course.getCourseId());
+        statistics.clear();
+        assertThat(courseService.getAllCourses()).extracting(CourseDto::getCourseCode).contains("CACHE-" + marker);
+        assertThat(courseService.getCourse(course.getCourseId()).getCreatedById()).isEqualTo(user.getUserId());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        courseService.updateCourse(course.getCourseId(), request("CACHE-" + marker, "Caching 102"));
+        assertThat(courseService.getCourse(course.getCourseId()).getCourseName()).isEqualTo("Caching 102");
+        assertThat(courseService.getAllCourses())
+                .filteredOn(dto -> dto.getCourseId().equals(course.getCourseId()))
+                .extracting(CourseDto::getCourseName)
+                .containsExactly("Caching 102");
+
+        courseService.deleteCourse(course.getCourseId());
+        assertThat(courseService.getAllCourses()).extracting(CourseDto::getCourseId).doesNotContain(course.getCourseId());
+    }
+
+    @Test
+    void evictsAUserWhenItChanges() {
+        userService.getUserSummary(user.getUserId());
+        userService.getUserById(user.getUserId());
+        statistics.clear();
+        assertThat(userService.getUserSummary(user.getUserId()).getFullName()).isEqualTo("Cache Tester");
+        assertThat(userService.getUserById(user.getUserId()).getFullName()).isEqualTo("Cache Tester");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        UpdateUserDTO update = new UpdateUserDTO();
+        update.setFullName("Renamed Tester");
+        userService.updateUser(user.getUserId(), update);
+
+        assertThat(userService.getUserSummary(user.getUserId()).getFullName()).isEqualTo("Renamed Tester");
+        assertThat(userService.getUserById(user.getUserId()).getFullName()).isEqualTo("Renamed Tester");
+        assertThat(gets(CacheConfig.USER_SUMMARIES, "hit")).isPositive();
+    }
+
+    private CourseRequest request(String code, String name) {
+        CourseRequest request = new CourseRequest();
+        request.setCourseCode(code);
+        request.setCourseName(name);
+        request.setCreatedById(user.getUserId());
+        return request;
+    }
+
+    private double gets(String cache, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", result).functionCounter().count();
+    }
+}
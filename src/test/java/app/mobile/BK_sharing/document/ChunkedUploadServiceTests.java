@@ -0,0 +1,259 @@
+package app.mobile.BK_sharing.document;
+
+import app.mobile.BK_sharing.document.dto.CreateUploadSessionRequest;
+import app.mobile.BK_sharing.document.dto.DocumentResponseDto;
+import app.mobile.BK_sharing.document.dto.UploadSessionResponseDto;
+import app.mobile.BK_sharing.document.entity.UploadSession;
+import app.mobile.BK_sharing.document.repository.DocumentRepository;
+import app.mobile.BK_sharing.document.repository.UploadSessionRepository;
+import app.mobile.BK_sharing.exception.DuplicateResourceException;
+import app.mobile.BK_sharing.storage.StorageBackend;
+import app.mobile.BK_sharing.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static app.mobile.BK_sharing.TestFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "app.storage.backend=local",
+        "app.file.upload-dir=target/test-uploads"
+})
+@ActiveProfiles("test")
+class ChunkedUploadServiceTests {
+
+    private static final int CHUNK_SIZE = 256 * 1024;
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StorageBackend storageBackend;
+
+    @Value("${app.upload.session-dir}")
+    private String sessionDir;
+
+    private String title;
+    private Long userId;
+
+    // Two full chunks and a short last one, different on every run so stored files are not shared
+    private final byte[] content = new byte[2 * CHUNK_SIZE + 100];
+
+    @BeforeEach
+    void setUp() {
+        new Random().nextBytes(content);
+        title = "Chunked " + UUID.randomUUID();
+
+        userId = userRepository.save(user("chunks-" + UUID.randomUUID(), "Uploader")).getUserId();
+    }
+
+    @Test
+    void assemblesChunksSentOutOfOrderAndResent() throws Exception {
+        String sessionId = createSession(userId);
+
+        putChunk(sessionId, 2);
+        // A broken chunk is replaced by sending it again
+        UploadSessionResponseDto progress = chunkedUploadService.putChunk(sessionId, 0,
+                new ByteArrayInputStream(new byte[CHUNK_SIZE]));
+        assertThat(progress.getMissingChunks()).containsExactly(1);
+        putChunk(sessionId, 1);
+        putChunk(sessionId, 0);
+
+        DocumentResponseDto document = chunkedUploadService.commit(sessionId);
+
+        assertThat(document.getFileSize()).isEqualTo(content.length);
+        try (InputStream stored = storageBackend.openStream(document.getFilePath())) {
+            assertThat(stored.readAllBytes()).isEqualTo(content);
+        }
+        assertThat(chunkedUploadService.getSession(sessionId).getStatus()).isEqualTo("COMMITTED");
+        assertThat(sessionPath(sessionId)).doesNotExist();
+    }
+
+    @Test
+    void refusesChunksOfTheWrongSize() throws Exception {
+        String sessionId = createSession(userId);
+
+        assertThatThrownBy(() -> chunkedUploadService.putChunk(sessionId, 2,
+                new ByteArrayInputStream(new byte[CHUNK_SIZE])))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("was larger");
+        assertThatThrownBy(() -> chunkedUploadService.putChunk(sessionId, 3, new ByteArrayInputStream(new byte[1])))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(chunkedUploadService.getSession(sessionId).getMissingChunks()).containsExactly(0, 1, 2);
+    }
+
+    @Test
+    void refusesToCommitWhileAChunkIsMissing() throws Exception {
+        String sessionId = createSession(userId);
+        putChunk(sessionId, 0);
+        putChunk(sessionId, 2);
+
+        assertThatThrownBy(() -> chunkedUploadService.commit(sessionId))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("missing chunks: [1]");
+        assertThat(chunkedUploadService.getSession(sessionId).getStatus()).isEqualTo("ACTIVE");
+
+        putChunk(sessionId, 1);
+        assertThat(chunkedUploadService.commit(sessionId).getFileSize()).isEqualTo(content.length);
+    }
+
+    @Test
+    void committingAgainReturnsTheSameDocument() throws Exception {
+        String sessionId = createCompleteSession(userId);
+
+        DocumentResponseDto first = chunkedUploadService.commit(sessionId);
+        DocumentResponseDto second = chunkedUploadService.commit(sessionId);
+
+        assertThat(second.getDocumentId()).isEqualTo(first.getDocumentId());
+        assertThat(documentsTitled(title)).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentCommitsCreateOneDocument() throws Exception {
+        String sessionId = createCompleteSession(userId);
+
+        // The loser either sees the commit in progress (409) or the finished document
+        CountDownLatch start = new CountDownLatch(1);
+        Callable<Long> commit = () -> {
+            start.await(10, TimeUnit.SECONDS);
+            return chunkedUploadService.commit(sessionId).getDocumentId();
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Long> documentIds = new ArrayList<>();
+        int conflicts = 0;
+        try {
+            List<Future<Long>> results = List.of(executor.submit(commit), executor.submit(commit));
+            start.countDown();
+            for (Future<Long> result : results) {
+                try {
+                    documentIds.add(result.get(30, TimeUnit.SECONDS));
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(DuplicateResourceException.class);
+                    conflicts++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(documentIds.size() + conflicts).isEqualTo(2);
+        assertThat(new HashSet<>(documentIds)).hasSize(1);
+        assertThat(documentsTitled(title)).isEqualTo(1);
+    }
+
+    @Test
+    void leavesASessionBeingCommittedAlone() throws Exception {
+        String sessionId = createCompleteSession(userId);
+        UploadSession session = uploadSessionRepository.findById(sessionId).orElseThrow();
+        session.setStatus(UploadSession.Status.COMMITTING);
+        uploadSessionRepository.save(session);
+
+        assertThatThrownBy(() -> chunkedUploadService.commit(sessionId)).isInstanceOf(DuplicateResourceException.class);
+        assertThatThrownBy(() -> chunkedUploadService.abort(sessionId)).isInstanceOf(DuplicateResourceException.class);
+        assertThatThrownBy(() -> putChunk(sessionId, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(sessionPath(sessionId).resolve("0.chunk")).exists();
+        assertThat(documentsTitled(title)).isZero();
+    }
+
+    @Test
+    void reopensTheSessionWhenTheCommitFails() throws Exception {
+        String sessionId = createCompleteSession(-1L);
+
+        // uploadDocument fails on the unknown user
+        assertThatThrownBy(() -> chunkedUploadService.commit(sessionId)).isInstanceOf(RuntimeException.class);
+
+        UploadSession session = uploadSessionRepository.findById(sessionId).orElseThrow();
+        assertThat(session.getStatus()).isEqualTo(UploadSession.Status.ACTIVE);
+        assertThat(session.getDocumentId()).isNull();
+        assertThat(documentsTitled(title)).isZero();
+    }
+
+    @Test
+    void expiredSessionsTakeNothingMoreAndAreCleanedUp() throws Exception {
+        String sessionId = createCompleteSession(userId);
+        UploadSession session = uploadSessionRepository.findById(sessionId).orElseThrow();
+        session.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        uploadSessionRepository.save(session);
+
+        assertThatThrownBy(() -> putChunk(sessionId, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("expired");
+        assertThatThrownBy(() -> chunkedUploadService.commit(sessionId))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("expired");
+
+        chunkedUploadService.deleteExpiredSessions();
+
+        assertThat(uploadSessionRepository.findById(sessionId)).isEmpty();
+        assertThat(sessionPath(sessionId)).doesNotExist();
+        assertThat(documentsTitled(title)).isZero();
+    }
+
+    private String createSession(Long uploaderId) throws Exception {
+        CreateUploadSessionRequest request = new CreateUploadSessionRequest();
+        request.setFileName("lecture.pdf");
+        request.setContentType("application/pdf");
+        request.setTotalSize((long) content.length);
+        request.setChunkSize(CHUNK_SIZE);
+        request.setTitle(title);
+        request.setUserId(uploaderId);
+
+        UploadSessionResponseDto session = chunkedUploadService.createSession(request);
+        assertThat(session.getChunkCount()).isEqualTo(3);
+        return session.getSessionId();
+    }
+
+    private String createCompleteSession(Long uploaderId) throws Exception {
+        String sessionId = createSession(uploaderId);
+        for (int index = 0; index < 3; index++) {
+            putChunk(sessionId, index);
+        }
+        return sessionId;
+    }
+
+    private void putChunk(String sessionId, int index) throws Exception {
+        int from = index * CHUNK_SIZE;
+        byte[] chunk = Arrays.copyOfRange(content, from, Math.min(from + CHUNK_SIZE, content.length));
+        chunkedUploadService.putChunk(sessionId, index, new ByteArrayInputStream(chunk));
+    }
+
+    private Path sessionPath(String sessionId) {
+        return Path.of(sessionDir).toAbsolutePath().normalize().resolve(sessionId);
+    }
+
+    private long documentsTitled(String title) {
+        return documentRepository.findAll().stream().filter(document -> title.equals(document.getTitle())).count();
+    }
+}
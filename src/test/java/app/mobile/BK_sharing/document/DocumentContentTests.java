@@ -0,0 +1,92 @@
+package app.mobile.BK_sharing.document;
+
+import app.mobile.BK_sharing.document.dto.DocumentResponseDto;
+import app.mobile.BK_sharing.user.User;
+import app.mobile.BK_sharing.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static app.mobile.BK_sharing.TestFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.storage.backend=local",
+        "app.file.upload-dir=target/test-uploads"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DocumentContentTests {
+
+    private static final String BODY = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DocumentServiceImpl documentService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long documentId;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(user("reader-" + UUID.randomUUID(), "Reader"));
+
+        // Unique content per test so deduplication does not share files between tests
+        String body = BODY + UUID.randomUUID();
+        DocumentResponseDto document = documentService.uploadDocument(
+                new MockMultipartFile("file", "notes.pdf", "application/pdf", body.getBytes(StandardCharsets.UTF_8)),
+                "Notes", null, user.getUserId(), List.of(), null);
+        documentId = document.getDocumentId();
+    }
+
+    @Test
+    void servesWholeFileWithValidators() throws Exception {
+        mockMvc.perform(get("/api/v1/documents/{id}/content", documentId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/pdf"));
+    }
+
+    @Test
+    void servesByteRanges() throws Exception {
+        mockMvc.perform(get("/api/v1/documents/{id}/content", documentId)
+                        .header(HttpHeaders.RANGE, "bytes=10-15"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, startsWith("bytes 10-15/")))
+                .andExpect(content().string("abcdef"));
+    }
+
+    @Test
+    void answersNotModifiedForMatchingETag() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/v1/documents/{id}/content", documentId))
+                .andExpect(status().isOk())
+                .andReturn();
+        String eTag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).startsWith("\"");
+
+        mockMvc.perform(get("/api/v1/documents/{id}/content", documentId)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+}
@@ -0,0 +1,177 @@
+package app.mobile.BK_sharing.document;
+
+import app.mobile.BK_sharing.ThreadSqlLog;
+import app.mobile.BK_sharing.category.Category;
+import app.mobile.BK_sharing.category.CategoryRepository;
+import app.mobile.BK_sharing.document.entity.Document;
+import app.mobile.BK_sharing.document.repository.DocumentRepository;
+import app.mobile.BK_sharing.user.User;
+import app.mobile.BK_sharing.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static app.mobile.BK_sharing.TestFixtures.document;
+import static app.mobile.BK_sharing.TestFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DocumentFilterQueryTests {
+
+    private static final int DOCUMENTS = 400;
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt", "documentId"));
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private String marker;
+    private List<Seeded> seeded;
+    private Long uploaderId;
+    private Long categoryId;
+
+    // What the test stored, to check the query results against
+    private record Seeded(Long id, String title, Long uploaderId, boolean approved, Document.FileType fileType, Set<Long> categoryIds) {
+    }
+
+    @BeforeEach
+    void setUp() {
+        marker = "filter" + UUID.randomUUID().toString().substring(0, 8);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            List<User> users = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                users.add(userRepository.save(user(marker + "-user-" + i, "Uploader " + i)));
+            }
+            List<Category> categories = List.of(
+                    categoryRepository.save(Category.builder().categoryName(marker + " slides").createdBy(users.get(0)).build()),
+                    categoryRepository.save(Category.builder().categoryName(marker + " exams").createdBy(users.get(0)).build()));
+
+            List<Document> documents = new ArrayList<>();
+            for (int i = 0; i < DOCUMENTS; i++) {
+                // Every third title carries the word the title filter looks for
+                Document document = document(marker + (i % 3 == 0 ? " Giải tích " : " Vật lý ") + i, users.get(i % 5 == 0 ? 1 : 0));
+                document.setFileType(Document.FileType.values()[i % Document.FileType.values().length]);
+                document.setIsApproved(i % 2 == 0);
+                // Some documents sit in both categories, which used to duplicate rows before DISTINCT
+                document.setCategories(i % 4 == 0 ? categories : List.of(categories.get(i % 2)));
+                documents.add(document);
+            }
+            documentRepository.saveAll(documents);
+
+            uploaderId = users.get(0).getUserId();
+            categoryId = categories.get(0).getCategoryId();
+            seeded = documents.stream()
+                    .map(d -> new Seeded(d.getDocumentId(), d.getTitle(), d.getUploadedBy().getUserId(), d.getIsApproved(),
+                            d.getFileType(), Set.copyOf(d.getCategories().stream().map(Category::getCategoryId).toList())))
+                    .toList();
+        });
+    }
+
+    @Test
+    void emitsOnlyTheSuppliedPredicates() {
+        for (int mask = 0; mask < 32; mask++) {
+            Filters filters = filters(mask);
+
+            String select;
+            try (ThreadSqlLog sqlLog = ThreadSqlLog.start()) {
+                query(filters);
+                select = sqlLog.statements().stream()
+                        .filter(sql -> sql.contains(" offset ") || sql.contains(" fetch first "))
+                        .findFirst()
+                        .orElseThrow();
+            }
+            String where = select.contains(" where ") ? select.substring(select.indexOf(" where ")) : "";
+
+            assertThat(select).as(filters.toString()).doesNotContain("distinct").doesNotContain("left join document_categories");
+            assertThat(where.contains("exists")).as(filters.toString()).isEqualTo(filters.categoryId != null);
+            assertThat(where.contains("search_title")).as(filters.toString()).isEqualTo(filters.title != null);
+            assertThat(where.contains("uploaded_by")).as(filters.toString()).isEqualTo(filters.uploaderId != null);
+            assertThat(where.contains("is_approved")).as(filters.toString()).isEqualTo(filters.approved != null);
+            assertThat(where.contains("file_type")).as(filters.toString()).isEqualTo(filters.fileType != null);
+            assertThat(where.contains(" is null")).as(filters.toString()).isFalse();
+        }
+    }
+
+    @Test
+    void returnsMatchingPagesForEveryFilterCombination() {
+        for (int mask = 0; mask < 32; mask++) {
+            Filters filters = filters(mask);
+            Page<Document> page = query(filters);
+
+            // Every returned document satisfies the filters and none repeats
+            List<Long> ids = page.getContent().stream().map(Document::getDocumentId).toList();
+            assertThat(ids).as(filters.toString()).doesNotHaveDuplicates();
+            assertThat(page.getContent()).as(filters.toString()).allSatisfy(document -> {
+                if (filters.uploaderId != null) {
+                    assertThat(document.getUploadedBy().getUserId()).isEqualTo(filters.uploaderId);
+                }
+                if (filters.approved != null) {
+                    assertThat(document.getIsApproved()).isEqualTo(filters.approved);
+                }
+                if (filters.fileType != null) {
+                    assertThat(document.getFileType()).isEqualTo(filters.fileType);
+                }
+            });
+
+            // Filtered to this test's uploader, the page and total match exactly what was stored
+            if (filters.uploaderId != null) {
+                List<Seeded> expected = seeded.stream()
+                        .filter(filters::matches)
+                        .sorted(Comparator.comparing(Seeded::id).reversed())
+                        .toList();
+                assertThat(page.getTotalElements()).as(filters.toString()).isEqualTo(expected.size());
+                assertThat(ids).as(filters.toString()).containsExactlyElementsOf(
+                        expected.stream().limit(FIRST_PAGE.getPageSize()).map(Seeded::id).toList());
+            }
+        }
+    }
+
+    private Page<Document> query(Filters filters) {
+        return documentRepository.findDocumentsByFilters(
+                filters.title, filters.categoryId, filters.uploaderId, filters.approved, filters.fileType, FIRST_PAGE);
+    }
+
+    // One bit per filter, so masks 0..31 cover every combination
+    private Filters filters(int mask) {
+        return new Filters(
+                (mask & 1) != 0 ? "giai tich" : null,
+                (mask & 2) != 0 ? categoryId : null,
+                (mask & 4) != 0 ? uploaderId : null,
+                (mask & 8) != 0 ? Boolean.TRUE : null,
+                (mask & 16) != 0 ? Document.FileType.PDF : null);
+    }
+
+    private record Filters(String title, Long categoryId, Long uploaderId, Boolean approved, Document.FileType fileType) {
+
+        boolean matches(Seeded document) {
+            return (title == null || document.title().contains("Giải tích"))
+                    && (categoryId == null || document.categoryIds().contains(categoryId))
+                    && (uploaderId == null || document.uploaderId().equals(uploaderId))
+                    && (approved == null || document.approved() == approved)
+                    && (fileType == null || document.fileType() == fileType);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package app.mobile.BK_sharing.document;
+
+import app.mobile.BK_sharing.ThreadSqlLog;
+import app.mobile.BK_sharing.document.dto.DocumentResponseDto;
+import app.mobile.BK_sharing.document.entity.Document;
+import app.mobile.BK_sharing.document.repository.DocumentRepository;
+import app.mobile.BK_sharing.dto.CursorPage;
+import app.mobile.BK_sharing.user.User;
+import app.mobile.BK_sharing.user.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static app.mobile.BK_sharing.TestFixtures.document;
+import static app.mobile.BK_sharing.TestFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DocumentListingQueryTests {
+
+    private static final int USERS = 50;
+    private static final int DOCUMENTS = 500;
+
+    @Autowired
+    private DocumentServiceImpl documentService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private String marker;
+    private Long firstUserId;
+
+    @BeforeEach
+    void setUp() {
+        marker = "listing-" + UUID.randomUUID();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            List<User> users = new ArrayList<>();
+            for (int i = 0; i < USERS; i++) {
+                users.add(user(marker + "-user-" + i, "Uploader " + i));
+            }
+            userRepository.saveAll(users);
+            firstUserId = users.get(0).getUserId();
+
+            List<Document> documents = new ArrayList<>();
+            for (int i = 0; i < DOCUMENTS; i++) {
+                Document document = document(marker + " document " + i, users.get(i % USERS));
+                document.setIsApproved(true);
+                documents.add(document);
+            }
+            documentRepository.saveAll(documents);
+        });
+    }
+
+    @Test
+    void listingAllDocumentsUsesOneStatement() {
+        List<DocumentResponseDto> documents = countStatements(1, documentService::getAllDocuments);
+
+        assertThat(documents).filteredOn(d -> d.getTitle().startsWith(marker)).hasSize(DOCUMENTS)
+                .allSatisfy(d -> assertThat(d.getUploadedByUsername()).startsWith(marker));
+    }
+
+    @Test
+    void listingDocumentsLoadsNoEntities() {
+        // The persistence context of this transaction, unlike the factory's statistics, only sees this test
+        transactionTemplate.executeWithoutResult(status -> {
+            documentService.getAllDocuments();
+            assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+        });
+    }
+
+    @Test
+    void listingApprovedDocumentsUsesOneStatement() {
+        List<DocumentResponseDto> documents = countStatements(1, documentService::getApprovedDocuments);
+
+        assertThat(documents).filteredOn(d -> d.getTitle().startsWith(marker)).hasSize(DOCUMENTS);
+    }
+
+    @Test
+    void searchingDocumentsUsesOneStatement() {
+        List<DocumentResponseDto> documents = countStatements(1, () -> documentService.searchDocuments(marker));
+
+        // Search returns the best 50 matches
+        assertThat(documents).hasSize(50).allSatisfy(d -> assertThat(d.getTitle()).startsWith(marker));
+    }
+
+    @Test
+    void searchIgnoresVietnameseAccents() {
+        transactionTemplate.executeWithoutResult(status -> documentRepository.save(
+                document("Đề thi Giải tích " + marker, userRepository.getReferenceById(firstUserId))));
+
+        assertThat(documentService.searchDocuments("de thi giai " + marker))
+                .extracting(DocumentResponseDto::getTitle)
+                .containsExactly("Đề thi Giải tích " + marker);
+    }
+
+    @Test
+    void listingDocumentsByUserLoadsUserOnce() {
+        // One statement for the user lookup, one for the documents
+        List<DocumentResponseDto> documents = countStatements(2, () -> documentService.getDocumentsByUser(firstUserId));
+
+        assertThat(documents).hasSize(DOCUMENTS / USERS);
+    }
+
+    @Test
+    void walkingUserFeedVisitsEachDocumentOnceWithoutCountQueries() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            String after = cursor;
+            CursorPage<DocumentResponseDto> page = countStatements(1, () -> documentService.getUserFeed(firstUserId, after, 3));
+            page.getItems().forEach(d -> seen.add(d.getDocumentId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).hasSize(DOCUMENTS / USERS).doesNotHaveDuplicates();
+        assertThat(seen).isSortedAccordingTo(Comparator.reverseOrder());
+    }
+
+    @Test
+    void recentDocumentsKeepTakingLimitsAboveTheFeedCap() {
+        List<DocumentResponseDto> documents = countStatements(1, () -> documentService.getLatestDocuments(150));
+
+        assertThat(documents).hasSize(150);
+        assertThat(documents).extracting(DocumentResponseDto::getDocumentId).isSortedAccordingTo(Comparator.reverseOrder());
+        assertThatThrownBy(() -> documentService.getRecentDocuments(null, 150)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Helper method to run a listing in a fresh persistence context and check how many statements it issued;
+    // only this thread's statements count, the scheduled workers keep running alongside the test
+    private <T> T countStatements(int expected, Supplier<T> listing) {
+        try (ThreadSqlLog sqlLog = ThreadSqlLog.start()) {
+            return transactionTemplate.execute(status -> {
+                T result = listing.get();
+                assertThat(sqlLog.statements()).hasSize(expected);
+                return result;
+            });
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package app.mobile.BK_sharing.document;
+
+import app.mobile.BK_sharing.document.entity.Document;
+import app.mobile.BK_sharing.document.entity.DocumentInteraction;
+import app.mobile.BK_sharing.document.repository.DocumentInteractionRepository;
+import app.mobile.BK_sharing.document.repository.DocumentRepository;
+import app.mobile.BK_sharing.trending.TrendingService;
+import app.mobile.BK_sharing.user.User;
+import app.mobile.BK_sharing.user.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static app.mobile.BK_sharing.TestFixtures.document;
+import static app.mobile.BK_sharing.TestFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class InteractionIngestServiceTests {
+
+    private static final int THREADS = 8;
+    private static final int EVENTS_PER_THREAD = 500;
+
+    @Autowired
+    private InteractionIngestService interactionIngestService;
+
+    @Autowired
+    private DocumentInteractionRepository interactionRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private InteractionRollupService rollupService;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+    private Document document;
+
+    @BeforeEach
+    void setUp() {
+        String marker = UUID.randomUUID().toString().substring(0, 8);
+        user = userRepository.save(user("ingest-" + marker, "Ingest Tester"));
+        document = documentRepository.save(document("Ingest document " + marker, user));
+    }
+
+    @Test
+    void writesConcurrentEventsInBatches() throws Exception {
+        int total = THREADS * EVENTS_PER_THREAD;
+        AtomicInteger rejected = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                    DocumentInteraction.InteractionType type = i % 4 == 0
+                            ? DocumentInteraction.InteractionType.Download
+                            : DocumentInteraction.InteractionType.View;
+                    if (!interactionIngestService.record(document.getDocumentId(), user.getUserId(), type)) {
+                        rejected.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        long stored = awaitStored(total, Duration.ofSeconds(30));
+
+        assertThat(rejected.get()).isZero();
+        assertThat(stored).isEqualTo(total);
+        assertThat(interactionRepository.countByDocumentDocumentIdAndInteractionType(
+                document.getDocumentId(), DocumentInteraction.InteractionType.Download)).isEqualTo(total / 4);
+    }
+
+    @Test
+    void rejectsEventsWhenTheQueueIsFullAndKeepsTheRest() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // Not started yet, so nothing drains the queue
+        InteractionIngestService service = new InteractionIngestService(interactionRepository, documentRepository,
+                userRepository, rollupService, trendingService, transactionTemplate, meterRegistry, 100, 30, Duration.ofMillis(50));
+
+        // An event for a user that does not exist fails its batch; the other events in it must still be stored
+        assertThat(service.record(document.getDocumentId(), Long.MAX_VALUE, DocumentInteraction.InteractionType.View)).isTrue();
+        int accepted = 1;
+        for (int i = 0; i < 149; i++) {
+            if (service.record(document.getDocumentId(), user.getUserId(), DocumentInteraction.InteractionType.View)) {
+                accepted++;
+            }
+        }
+        assertThat(accepted).isEqualTo(100);
+        assertThat(service.queued()).isEqualTo(100);
+        assertThat(meterRegistry.counter("interactions.ingest.events", "result", "dropped").count()).isEqualTo(50);
+
+        // Stopping writes out everything still queued
+        service.start();
+        service.stop();
+
+        assertThat(interactionRepository.countByDocumentDocumentId(document.getDocumentId())).isEqualTo(99);
+        assertThat(meterRegistry.counter("interactions.ingest.events", "result", "persisted").count()).isEqualTo(99);
+        assertThat(meterRegistry.counter("interactions.ingest.events", "result", "failed").count()).isEqualTo(1);
+    }
+
+    // Helper method to wait for the flusher to store the expected number of events for this test's document
+    private long awaitStored(long expected, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long stored = 0;
+        while (System.nanoTime() < deadline) {
+            stored = interactionRepository.countByDocumentDocumentId(document.getDocumentId());
+            if (stored >= expected) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        return stored;
+    }
+}
@@ -0,0 +1,167 @@
+package app.mobile.BK_sharing.document;
+
+import app.mobile.BK_sharing.document.dto.DocumentStatsDto;
+import app.mobile.BK_sharing.document.dto.PopularDocumentDto;
+import app.mobile.BK_sharing.document.entity.Document;
+import app.mobile.BK_sharing.document.entity.DocumentInteraction;
+import app.mobile.BK_sharing.document.repository.DocumentInteractionRepository;
+import app.mobile.BK_sharing.document.repository.DocumentRepository;
+import app.mobile.BK_sharing.user.User;
+import app.mobile.BK_sharing.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static app.mobile.BK_sharing.document.entity.DocumentInteraction.InteractionType.Download;
+import static app.mobile.BK_sharing.document.entity.DocumentInteraction.InteractionType.View;
+import static app.mobile.BK_sharing.TestFixtures.document;
+import static app.mobile.BK_sharing.TestFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class InteractionRollupServiceTests {
+
+    @Autowired
+    private InteractionRollupService rollupService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private DocumentInteractionRepository interactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Document> documents = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        String marker = UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; i < 3; i++) {
+            User user = userRepository.save(user("rollup-" + marker + "-" + i, "Rollup Tester " + i));
+            users.add(user);
+
+            Document document = document("Rollup document " + marker + " " + i, user);
+            document.setIsApproved(true);
+            documents.add(documentRepository.save(document));
+        }
+    }
+
+    @Test
+    void countsViewsDownloadsAndUniqueUsersPerDay() {
+        Long documentId = documents.get(0).getDocumentId();
+        record(0, 0, View, 5);
+        record(0, 1, Download, 2);
+        record(0, 1, View, 1);
+
+        // Not flushed yet: the pending counters are included
+        assertStats(rollupService.getDocumentStats(documentId, 7), 6, 2, 2);
+
+        rollupService.flush();
+        assertStats(rollupService.getDocumentStats(documentId, 7), 6, 2, 2);
+
+        // A returning user adds a view but is not unique again; an event taken back after failing to store
+        // adds no unique user either
+        record(0, 0, View, 1);
+        rollupService.add(event(0, 2, Download));
+        rollupService.discard(event(0, 2, Download));
+        rollupService.flush();
+
+        DocumentStatsDto stats = rollupService.getDocumentStats(documentId, 7);
+        assertStats(stats, 7, 2, 2);
+        assertThat(stats.getDays()).hasSize(1);
+        assertThat(stats.getDays().get(0).getDate()).isEqualTo(stats.getTo());
+        assertThat(stats.getDays().get(0).getUniqueUsers()).isEqualTo(2);
+    }
+
+    @Test
+    void countsAUserActiveOnSeveralDaysOnceOverTheRange() {
+        Long documentId = documents.get(0).getDocumentId();
+        LocalDateTime now = LocalDateTime.now();
+        for (int daysAgo = 0; daysAgo < 3; daysAgo++) {
+            record(event(0, 0, View, now.minusDays(daysAgo)));
+        }
+        record(event(0, 1, View, now.minusDays(1)));
+        rollupService.flush();
+
+        DocumentStatsDto stats = rollupService.getDocumentStats(documentId, 7);
+
+        assertStats(stats, 4, 0, 2);
+        assertThat(stats.getDays()).extracting(day -> day.getUniqueUsers()).containsExactly(1L, 2L, 1L);
+    }
+
+    @Test
+    void ranksPopularDocumentsFromTheRollups() {
+        record(0, 0, Download, 1);
+        record(0, 0, View, 30);
+        record(1, 0, Download, 5);
+        record(2, 0, Download, 3);
+        record(2, 1, View, 10);
+        rollupService.flush();
+
+        assertThat(rankOfOurs(rollupService.getPopularDocuments(7, Download, 100)))
+                .containsExactly(documents.get(1).getDocumentId(), documents.get(2).getDocumentId(), documents.get(0).getDocumentId());
+        assertThat(rankOfOurs(rollupService.getPopularDocuments(7, View, 100)))
+                .containsExactly(documents.get(0).getDocumentId(), documents.get(2).getDocumentId(), documents.get(1).getDocumentId());
+
+        PopularDocumentDto top = rollupService.getPopularDocuments(7, Download, 100).stream()
+                .filter(popular -> popular.getDocument().getDocumentId().equals(documents.get(2).getDocumentId()))
+                .findFirst()
+                .orElseThrow();
+        assertThat(top.getDownloads()).isEqualTo(3);
+        assertThat(top.getViews()).isEqualTo(10);
+        assertThat(top.getDocument().getTitle()).isEqualTo(documents.get(2).getTitle());
+    }
+
+    private void record(int document, int user, DocumentInteraction.InteractionType type, int times) {
+        for (int i = 0; i < times; i++) {
+            record(event(document, user, type));
+        }
+    }
+
+    // Helper method to count an event and store it, as the ingest flusher does
+    private void record(InteractionIngestService.InteractionEvent event) {
+        rollupService.add(event);
+        DocumentInteraction interaction = new DocumentInteraction();
+        interaction.setDocument(documentRepository.getReferenceById(event.documentId()));
+        interaction.setUser(userRepository.getReferenceById(event.userId()));
+        interaction.setInteractionType(event.type());
+        interaction.setInteractionAt(event.at());
+        interactionRepository.save(interaction);
+    }
+
+    private InteractionIngestService.InteractionEvent event(int document, int user, DocumentInteraction.InteractionType type) {
+        return event(document, user, type, LocalDateTime.now());
+    }
+
+    private InteractionIngestService.InteractionEvent event(int document, int user, DocumentInteraction.InteractionType type,
+                                                            LocalDateTime at) {
+        return new InteractionIngestService.InteractionEvent(
+                documents.get(document).getDocumentId(), users.get(user).getUserId(), type, at);
+    }
+
+    // Other tests share the database, so only the relative order of this test's documents is checked
+    private List<Long> rankOfOurs(List<PopularDocumentDto> popular) {
+        List<Long> ours = documents.stream().map(Document::getDocumentId).toList();
+        return popular.stream()
+                .map(p -> p.getDocument().getDocumentId())
+                .filter(ours::contains)
+                .toList();
+    }
+
+    private void assertStats(DocumentStatsDto stats, long views, long downloads, long uniqueUsers) {
+        assertThat(stats.getViews()).isEqualTo(views);
+        assertThat(stats.getDownloads()).isEqualTo(downloads);
+        assertThat(stats.getUniqueUsers()).isEqualTo(uniqueUsers);
+    }
+}
@@ -0,0 +1,214 @@
+package app.mobile.BK_sharing.notification;
+
+import app.mobile.BK_sharing.TestFixtures;
+import app.mobile.BK_sharing.course.Course;
+import app.mobile.BK_sharing.course.CourseRepository;
+import app.mobile.BK_sharing.document.DocumentService;
+import app.mobile.BK_sharing.document.entity.Document;
+import app.mobile.BK_sharing.document.entity.DocumentAccess;
+import app.mobile.BK_sharing.document.entity.DocumentInteraction;
+import app.mobile.BK_sharing.document.repository.DocumentAccessRepository;
+import app.mobile.BK_sharing.document.repository.DocumentInteractionRepository;
+import app.mobile.BK_sharing.document.repository.DocumentRepository;
+import app.mobile.BK_sharing.user.User;
+import app.mobile.BK_sharing.user.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class NotificationFanoutServiceTests {
+
+    private static final int STUDENTS = 300;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private NotificationFanoutService notificationFanoutService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private DocumentInteractionRepository interactionRepository;
+
+    @Autowired
+    private DocumentAccessRepository documentAccessRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private String marker;
+    private User uploader;
+    private User approver;
+    private User inactive;
+    private User viewer;
+    private Document document;
+    private Document older;
+    private final Set<Long> students = new HashSet<>();
+
+    @BeforeEach
+    void setUp() {
+        marker = UUID.randomUUID().toString().substring(0, 8);
+        uploader = user("uploader", User.UserRole.STUDENT, true);
+        approver = user("approver", User.UserRole.ADMIN, true);
+        inactive = user("inactive", User.UserRole.STUDENT, false);
+        viewer = user("viewer", User.UserRole.STUDENT, true);
+
+        // Every test works inside its own course, so students of other tests are not notified
+        Course course = courseRepository.save(Course.builder()
+                .courseCode("FAN-" + marker).courseName("Fan-out").createdBy(uploader).build());
+        document = document("Lecture notes", course);
+        older = document("Past exam", course);
+
+        // The course audience: students who opened a document of the course
+        List<DocumentInteraction> interactions = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            User student = user("student" + i, User.UserRole.STUDENT, true);
+            students.add(student.getUserId());
+            interactions.add(new DocumentInteraction(null, older, student, DocumentInteraction.InteractionType.View, null));
+        }
+        interactions.add(new DocumentInteraction(null, older, inactive, DocumentInteraction.InteractionType.View, null));
+        interactions.add(new DocumentInteraction(null, older, approver, DocumentInteraction.InteractionType.Download, null));
+        interactionRepository.saveAll(interactions);
+
+        // Granted access without being part of the course
+        DocumentAccess access = new DocumentAccess();
+        access.setDocument(document);
+        access.setUser(viewer);
+        access.setCanView(true);
+        access.setGrantedBy(uploader);
+        documentAccessRepository.save(access);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // The course facet counts documents of every course (see DocumentFacetServiceTests)
+        transactionTemplate.executeWithoutResult(status -> documentRepository
+                .findAllById(List.of(document.getDocumentId(), older.getDocumentId()))
+                .forEach(saved -> saved.setCourse(null)));
+    }
+
+    @Test
+    void approvalReturnsBeforeNotifyingTheCourseInBatches() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        double written = written();
+        statistics.clear();
+
+        // Nothing is written in the approval's own transaction
+        transactionTemplate.executeWithoutResult(status -> {
+            documentService.approveDocument(document.getDocumentId(), approver.getUserId());
+            assertThat(recipients(Notification.NotificationType.DOCUMENT_APPROVED)).isEmpty();
+        });
+
+        Set<Long> expected = new HashSet<>(students);
+        expected.add(uploader.getUserId());
+        expected.add(viewer.getUserId());
+        awaitWritten(written + expected.size());
+
+        // The approval, two recipient queries, then one statement per 50 inserts and per 50 ids
+        long statements = statistics.getPrepareStatementCount();
+        assertThat(statements).isLessThan(expected.size() / 5);
+        assertThat(recipients(Notification.NotificationType.DOCUMENT_APPROVED)).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    void notifiesOnlyAboutCommittedChanges() {
+        // A rolled back approval announces nothing
+        transactionTemplate.executeWithoutResult(status -> {
+            documentService.approveDocument(document.getDocumentId(), approver.getUserId());
+            status.setRollbackOnly();
+        });
+        awaitWritten(written());
+        assertThat(recipients(Notification.NotificationType.DOCUMENT_APPROVED)).isEmpty();
+
+        // Editing an approved document tells everyone but the user who edited it, here the approver
+        double written = written();
+        documentService.approveDocument(document.getDocumentId(), approver.getUserId());
+        documentService.updateDocumentMetadata(document.getDocumentId(), "Lecture notes v2", null, null,
+                document.getCourse().getCourseId(), approver.getUserId());
+
+        Set<Long> expected = new HashSet<>(students);
+        expected.add(uploader.getUserId());
+        expected.add(viewer.getUserId());
+        // Both announcements go to the same users: the approval doesn't reach the approver either
+        awaitWritten(written + 2 * expected.size());
+        assertThat(recipients(Notification.NotificationType.DOCUMENT_UPDATED)).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    private User user(String name, User.UserRole role, boolean active) {
+        User user = TestFixtures.user(name + "-" + marker, "Fan-out " + name);
+        user.setRole(role);
+        user.setIsActive(active);
+        return userRepository.save(user);
+    }
+
+    private Document document(String title, Course course) {
+        Document document = TestFixtures.document(title + " " + marker, uploader);
+        document.setCourse(course);
+        return documentRepository.save(document);
+    }
+
+    private List<Long> recipients(Notification.NotificationType type) {
+        return entityManager.createQuery("SELECT n.user.userId FROM Notification n " +
+                        "WHERE n.relatedDocument.documentId = :documentId AND n.type = :type", Long.class)
+                .setParameter("documentId", document.getDocumentId())
+                .setParameter("type", type)
+                .getResultList();
+    }
+
+    private double written() {
+        return meterRegistry.get("notifications.fanout.notifications").tag("result", "written").counter().count();
+    }
+
+    // Waits on the meters rather than the table, so the statement counts only include the fan-out
+    private void awaitWritten(double count) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (written() < count || notificationFanoutService.queued() > 0) {
+            assertThat(System.currentTimeMillis()).as("waiting for the fan-out").isLessThan(deadline);
+            sleep();
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
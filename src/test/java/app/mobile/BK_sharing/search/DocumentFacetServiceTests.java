@@ -0,0 +1,172 @@
+package app.mobile.BK_sharing.search;
+
+import app.mobile.BK_sharing.category.Category;
+import app.mobile.BK_sharing.category.CategoryRepository;
+import app.mobile.BK_sharing.course.Course;
+import app.mobile.BK_sharing.course.CourseRepository;
+import app.mobile.BK_sharing.document.DocumentServiceImpl;
+import app.mobile.BK_sharing.document.dto.DocumentResponseDto;
+import app.mobile.BK_sharing.document.entity.Document;
+import app.mobile.BK_sharing.document.repository.DocumentRepository;
+import app.mobile.BK_sharing.search.dto.FacetCountDto;
+import app.mobile.BK_sharing.search.dto.FacetedDocumentsDto;
+import app.mobile.BK_sharing.user.User;
+import app.mobile.BK_sharing.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static app.mobile.BK_sharing.TestFixtures.document;
+import static app.mobile.BK_sharing.TestFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DocumentFacetServiceTests {
+
+    @Autowired
+    private DocumentFacetService documentFacetService;
+
+    @Autowired
+    private DocumentServiceImpl documentService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User user;
+    private Course course;
+    private Category algebra;
+    private Category exams;
+
+    @BeforeEach
+    void setUp() {
+        String marker = UUID.randomUUID().toString().substring(0, 8);
+
+        user = userRepository.save(user("facet-" + marker, "Facet Tester"));
+
+        // Every test works inside its own course, so documents created by other tests do not show up
+        course = courseRepository.save(Course.builder()
+                .courseCode("MT-" + marker).courseName("Đại số tuyến tính").createdBy(user).build());
+        algebra = categoryRepository.save(Category.builder().categoryName("Algebra " + marker).createdBy(user).build());
+        exams = categoryRepository.save(Category.builder().categoryName("Exams " + marker).createdBy(user).build());
+    }
+
+    @Test
+    void countsEveryFacetForTheFilteredDocuments() {
+        Long first = save(Document.FileType.PDF, true, algebra);
+        Long second = save(Document.FileType.WORD, false, algebra, exams);
+        Long third = save(Document.FileType.PDF, false, exams);
+
+        FacetedDocumentsDto result = browse(null);
+
+        assertThat(result.getTotalElements()).isEqualTo(3);
+        assertThat(result.getDocuments()).extracting(DocumentResponseDto::getDocumentId).containsExactly(third, second, first);
+        assertThat(counts(result.getFileTypes())).containsExactlyInAnyOrderEntriesOf(Map.of("PDF", 2L, "WORD", 1L));
+        assertThat(counts(result.getCategories())).containsExactlyInAnyOrderEntriesOf(
+                Map.of(algebra.getCategoryId().toString(), 2L, exams.getCategoryId().toString(), 2L));
+        assertThat(counts(result.getCourses())).containsExactly(Map.entry(course.getCourseId().toString(), 3L));
+        assertThat(counts(result.getApproval())).containsExactlyInAnyOrderEntriesOf(Map.of("APPROVED", 1L, "PENDING", 2L));
+
+        // Selecting a file type narrows the other facets but keeps the alternative file types countable
+        FacetedDocumentsDto pdfs = browse(Document.FileType.PDF);
+
+        assertThat(pdfs.getDocuments()).extracting(DocumentResponseDto::getDocumentId).containsExactly(third, first);
+        assertThat(counts(pdfs.getFileTypes())).containsExactlyInAnyOrderEntriesOf(Map.of("PDF", 2L, "WORD", 1L));
+        assertThat(counts(pdfs.getCategories())).containsExactlyInAnyOrderEntriesOf(
+                Map.of(algebra.getCategoryId().toString(), 1L, exams.getCategoryId().toString(), 1L));
+    }
+
+    @Test
+    void followsCommittedChanges() {
+        Long first = save(Document.FileType.PDF, false, algebra);
+        Long second = save(Document.FileType.PDF, false, algebra);
+
+        documentService.approveDocument(first, user.getUserId());
+        assertThat(counts(browse(null).getApproval())).containsEntry("APPROVED", 1L).containsEntry("PENDING", 1L);
+
+        // Only the category links change, which the index still has to notice
+        documentService.updateDocumentMetadata(second, null, null, List.of(exams.getCategoryId()), course.getCourseId(),
+                user.getUserId());
+        assertThat(counts(browse(null).getCategories())).containsExactlyInAnyOrderEntriesOf(
+                Map.of(algebra.getCategoryId().toString(), 1L, exams.getCategoryId().toString(), 1L));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            documentRepository.findById(first).orElseThrow().setFileType(Document.FileType.WORD);
+            status.setRollbackOnly();
+        });
+        assertThat(counts(browse(null).getFileTypes())).containsExactly(Map.entry("PDF", 2L));
+
+        documentRepository.deleteById(first);
+        assertThat(browse(null).getDocuments()).extracting(DocumentResponseDto::getDocumentId).containsExactly(second);
+    }
+
+    @Test
+    void listsOnlyApprovedDocumentsForNonAdmins() {
+        Long approved = save(Document.FileType.PDF, true, algebra);
+        save(Document.FileType.PDF, false, algebra);
+        DocumentFacetIndex.Query pending = new DocumentFacetIndex.Query(null, course.getCourseId(), null, false);
+
+        FacetedDocumentsDto asStudent = documentFacetService.browse(pending, 0, 20, user.getUserId());
+        FacetedDocumentsDto anonymous = documentFacetService.browse(pending, 0, 20, null);
+
+        for (FacetedDocumentsDto result : List.of(asStudent, anonymous)) {
+            assertThat(result.getDocuments()).extracting(DocumentResponseDto::getDocumentId).containsExactly(approved);
+            assertThat(counts(result.getApproval())).containsExactly(Map.entry("APPROVED", 1L));
+        }
+
+        User admin = user(user.getUsername() + "-admin", "Facet Admin");
+        admin.setRole(User.UserRole.ADMIN);
+        userRepository.save(admin);
+        assertThat(documentFacetService.browse(pending, 0, 20, admin.getUserId()).getDocuments()).hasSize(1)
+                .extracting(DocumentResponseDto::getDocumentId).doesNotContain(approved);
+    }
+
+    @Test
+    void pagesPastTheEndAreEmpty() {
+        save(Document.FileType.PDF, true, algebra);
+        DocumentFacetIndex.Query query = new DocumentFacetIndex.Query(null, course.getCourseId(), null, null);
+
+        FacetedDocumentsDto result = documentFacetService.browse(query, Integer.MAX_VALUE, 100);
+
+        assertThat(result.getDocuments()).isEmpty();
+        assertThat(result.getTotalElements()).isEqualTo(1);
+    }
+
+    private Long save(Document.FileType fileType, boolean approved, Category... categories) {
+        Document document = document("Facet document", user);
+        document.setFileType(fileType);
+        document.setIsApproved(approved);
+        document.setCourse(course);
+        document.setCategories(List.of(categories));
+        return documentRepository.save(document).getDocumentId();
+    }
+
+    private FacetedDocumentsDto browse(Document.FileType fileType) {
+        return documentFacetService.browse(
+                new DocumentFacetIndex.Query(null, course.getCourseId(), fileType, null), 0, 20);
+    }
+
+    private Map<String, Long> counts(List<FacetCountDto> facet) {
+        return facet.stream().collect(Collectors.toMap(FacetCountDto::getValue, FacetCountDto::getCount));
+    }
+}
@@ -0,0 +1,73 @@
+package app.mobile.BK_sharing.search;
+
+import app.mobile.BK_sharing.document.entity.Document;
+import app.mobile.BK_sharing.document.repository.DocumentRepository;
+import app.mobile.BK_sharing.search.dto.SuggestionDto;
+import app.mobile.BK_sharing.user.User;
+import app.mobile.BK_sharing.user.UserRepository;
+import app.mobile.BK_sharing.user.UserService;
+import app.mobile.BK_sharing.user.dto.UserDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static app.mobile.BK_sharing.TestFixtures.document;
+import static app.mobile.BK_sharing.TestFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SearchIndexServiceTests {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void keepsUserIndexInSyncWithCommittedChanges() {
+        Long userId = userRepository.save(user("qxzthuong", "Lương Thị Thương")).getUserId();
+
+        // Misspelled and without accents
+        assertThat(userService.searchUsers("qxzthuog")).extracting(UserDto::getUserId).containsExactly(userId);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.findById(userId).orElseThrow().setUsername("qxzrenamed");
+            status.setRollbackOnly();
+        });
+        assertThat(userService.searchUsers("qxzrenamed")).isEmpty();
+        assertThat(userService.searchUsers("qxzthuong")).extracting(UserDto::getUserId).containsExactly(userId);
+
+        userRepository.deleteById(userId);
+        assertThat(userService.searchUsers("qxzthuong")).isEmpty();
+    }
+
+    @Test
+    void suggestsDocumentsOnlyWhileApproved() {
+        User user = userRepository.save(user("qxzuploader", "Uploader"));
+
+        Document document = documentRepository.save(document("Qxzpending notes", user));
+        assertThat(searchIndexService.suggest("qxzpending", 5)).isEmpty();
+
+        document.setIsApproved(true);
+        document = documentRepository.save(document);
+        assertThat(searchIndexService.suggest("qxzpending", 5)).extracting(SuggestionDto::getId)
+                .containsExactly(document.getDocumentId());
+
+        document.setIsApproved(false);
+        documentRepository.save(document);
+        assertThat(searchIndexService.suggest("qxzpending", 5)).isEmpty();
+    }
+}
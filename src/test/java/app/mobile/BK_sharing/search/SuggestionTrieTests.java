@@ -0,0 +1,102 @@
+package app.mobile.BK_sharing.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionTrieTests {
+
+    @Test
+    void suggestsByPrefixOfAnyLeadingWord() {
+        SuggestionTrie trie = new SuggestionTrie();
+        trie.put("DOCUMENT:1", "Đề thi Giải tích 1", 1);
+        trie.put("DOCUMENT:2", "Giáo trình Vật lý", 1);
+        trie.put("COURSE:3", "MT1003 - Giải tích 1", 2);
+
+        assertThat(keys(trie.suggest("gia", 10))).containsExactly("COURSE:3", "DOCUMENT:2", "DOCUMENT:1");
+        assertThat(keys(trie.suggest("mt10", 10))).containsExactly("COURSE:3");
+        assertThat(keys(trie.suggest("vat l", 10))).containsExactly("DOCUMENT:2");
+        assertThat(trie.suggest("hoa", 10)).isEmpty();
+    }
+
+    @Test
+    void returnsHeaviestEntriesFirstAndHonoursTheLimit() {
+        SuggestionTrie trie = new SuggestionTrie();
+        for (int i = 0; i < 100; i++) {
+            trie.put("DOCUMENT:" + i, "Lập trình " + i, i % 10);
+        }
+
+        List<SuggestionTrie.Entry> top = trie.suggest("lap", 5);
+
+        assertThat(top).hasSize(5).allSatisfy(entry -> assertThat(entry.weight()).isEqualTo(9));
+    }
+
+    @Test
+    void replacesAndRemovesEntries() {
+        SuggestionTrie trie = new SuggestionTrie();
+        trie.put("CATEGORY:1", "Toán học", 3);
+        trie.put("CATEGORY:1", "Hóa học", 3);
+
+        assertThat(trie.suggest("toan", 5)).isEmpty();
+        assertThat(keys(trie.suggest("hoa", 5))).containsExactly("CATEGORY:1");
+
+        trie.remove("CATEGORY:1");
+        assertThat(trie.suggest("hoa", 5)).isEmpty();
+        assertThat(trie.size()).isZero();
+    }
+
+    @Test
+    void splitsAndMergesEdgesAsEntriesComeAndGo() {
+        SuggestionTrie trie = new SuggestionTrie();
+        trie.put("DOCUMENT:1", "Giải thuật", 1);
+        // Shares "giai t" with the first title, so the edge is split there
+        trie.put("DOCUMENT:2", "Giải tích", 2);
+        // Ends where an edge used to continue
+        trie.put("DOCUMENT:3", "Giải", 3);
+
+        assertThat(keys(trie.suggest("giai th", 10))).containsExactly("DOCUMENT:1");
+        assertThat(keys(trie.suggest("giai t", 10))).containsExactly("DOCUMENT:2", "DOCUMENT:1");
+        assertThat(keys(trie.suggest("gi", 10))).containsExactly("DOCUMENT:3", "DOCUMENT:2", "DOCUMENT:1");
+        assertThat(trie.suggest("giai tx", 10)).isEmpty();
+
+        // Removing entries merges the edges back; what is left is still found, with the right weights
+        trie.remove("DOCUMENT:3");
+        trie.remove("DOCUMENT:2");
+        assertThat(trie.suggest("giai tich", 10)).isEmpty();
+        assertThat(trie.suggest("giai th", 10)).extracting(SuggestionTrie.Entry::weight).containsExactly(1);
+        assertThat(keys(trie.suggest("thuat", 10))).containsExactly("DOCUMENT:1");
+
+        trie.put("DOCUMENT:2", "Giải tích", 2);
+        assertThat(keys(trie.suggest("g", 10))).containsExactly("DOCUMENT:2", "DOCUMENT:1");
+    }
+
+    @Test
+    void answersInMicroseconds() {
+        SuggestionTrie trie = new SuggestionTrie();
+        String[] subjects = {"Giải tích", "Đại số", "Vật lý", "Hóa học", "Lập trình", "Cấu trúc dữ liệu", "Xác suất"};
+        for (int i = 0; i < 50_000; i++) {
+            trie.put("DOCUMENT:" + i, subjects[i % subjects.length] + " chương " + (i % 12) + " bài " + i, i % 100);
+        }
+
+        String[] prefixes = {"g", "gi", "giai t", "dai so", "chuong 1", "lap trinh ch", "x"};
+        for (int i = 0; i < 2_000; i++) {
+            trie.suggest(prefixes[i % prefixes.length], 8);
+        }
+
+        int runs = 10_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            trie.suggest(prefixes[i % prefixes.length], 8);
+        }
+        double averageMicros = (System.nanoTime() - start) / 1_000.0 / runs;
+
+        // Generous bound so slow CI machines pass
+        assertThat(averageMicros).isLessThan(1_000);
+    }
+
+    private List<String> keys(List<SuggestionTrie.Entry> entries) {
+        return entries.stream().map(SuggestionTrie.Entry::key).toList();
+    }
+}
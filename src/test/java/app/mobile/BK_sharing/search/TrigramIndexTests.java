@@ -0,0 +1,97 @@
+package app.mobile.BK_sharing.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTests {
+
+    private static final String[] FAMILY = {"Nguyễn", "Trần", "Lê", "Phạm", "Hoàng", "Huỳnh", "Phan", "Vũ", "Võ", "Đặng"};
+    private static final String[] MIDDLE = {"Văn", "Thị", "Minh", "Ngọc", "Đức", "Thanh", "Quốc", "Hữu", "Gia", "Bảo"};
+    private static final String[] GIVEN = {"An", "Bình", "Châu", "Dũng", "Giang", "Hải", "Khoa", "Linh", "Nam", "Phúc",
+            "Quân", "Sơn", "Tâm", "Trang", "Tuấn", "Uyên", "Việt", "Xuân", "Yến", "Đạt"};
+
+    @Test
+    void findsTextDespiteTyposAndMissingAccents() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "nguyenvana nguyenvana@hcmut.edu.vn Nguyễn Văn An");
+        index.put(2, "tranthib tranthib@hcmut.edu.vn Trần Thị Bình");
+        index.put(3, "CO2003 Cấu trúc dữ liệu và giải thuật");
+
+        assertThat(ids(index.search("nguyen van an", 5))).first().isEqualTo(1L);
+        assertThat(ids(index.search("tran thi bihn", 5))).first().isEqualTo(2L);
+        assertThat(ids(index.search("cau truc du lieu", 5))).containsExactly(3L);
+        assertThat(ids(index.search("co2003", 5))).containsExactly(3L);
+        assertThat(index.search("xyz", 5)).isEmpty();
+    }
+
+    @Test
+    void replacesAndRemovesEntries() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "Giải tích");
+        index.put(1, "Vật lý");
+
+        assertThat(index.search("giai tich", 5)).isEmpty();
+        assertThat(ids(index.search("vat ly", 5))).containsExactly(1L);
+
+        index.remove(1);
+        assertThat(index.search("vat ly", 5)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void compactsAfterManyUpdates() {
+        TrigramIndex index = new TrigramIndex();
+        for (int round = 0; round < 5; round++) {
+            for (long id = 0; id < 1000; id++) {
+                index.put(id, "user" + id + " round" + round);
+            }
+        }
+
+        assertThat(index.size()).isEqualTo(1000);
+        assertThat(ids(index.search("user42 round4", 1))).containsExactly(42L);
+    }
+
+    @Test
+    void searchesOneHundredThousandUsersQuickly() {
+        Random random = new Random(42);
+        TrigramIndex index = new TrigramIndex();
+        String[] names = new String[100_000];
+
+        for (int id = 0; id < names.length; id++) {
+            names[id] = FAMILY[random.nextInt(FAMILY.length)] + " " + MIDDLE[random.nextInt(MIDDLE.length)] + " "
+                    + GIVEN[random.nextInt(GIVEN.length)];
+            String username = "user" + id;
+            index.put(id, username + " " + username + "@hcmut.edu.vn " + names[id]);
+        }
+
+        // Warm up, then time a mix of exact, accent-free and misspelled queries
+        String[] queries = {"nguyen van an", "Trần Thị Linh", "hoang minh khoa", "phạm ngoc yen", "user12345", "le quoc tuan"};
+        for (int i = 0; i < 200; i++) {
+            index.search(queries[i % queries.length], 20);
+        }
+
+        int runs = 300;
+        long[] latencies = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            index.search(queries[i % queries.length], 20);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        double p50 = latencies[runs / 2] / 1e6;
+
+        assertThat(ids(index.search("user12345", 1))).containsExactly(12345L);
+        assertThat(ids(index.search("usr12345", 5))).contains(12345L);
+        // Generous bound so slow CI machines pass; a LIKE scan of the same table takes far longer
+        assertThat(p50).isLessThan(100);
+    }
+
+    private List<Long> ids(List<TrigramIndex.Match> matches) {
+        return matches.stream().map(TrigramIndex.Match::id).toList();
+    }
+}
@@ -0,0 +1,122 @@
+package app.mobile.BK_sharing.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BlobCacheTests {
+
+    @TempDir
+    Path cacheDir;
+
+    private final FakeStorage storage = new FakeStorage();
+
+    @BeforeEach
+    void setUp() {
+        storage.files.put("a.pdf", bytes(400, 'a'));
+        storage.files.put("b.pdf", bytes(400, 'b'));
+        storage.files.put("c.pdf", bytes(400, 'c'));
+    }
+
+    @Test
+    void evictsLeastRecentlyReadFilesPastTheSizeLimit() throws Exception {
+        BlobCache cache = newCache();
+
+        cache.get("https://storage/a.pdf");
+        cache.get("https://storage/b.pdf");
+        cache.get("https://storage/a.pdf"); // a is now more recent than b
+        cache.get("https://storage/c.pdf");
+
+        assertThat(cache.size()).isEqualTo(800);
+        assertThat(cacheDir.resolve("a.pdf")).exists();
+        assertThat(cacheDir.resolve("b.pdf")).doesNotExist();
+        assertThat(cacheDir.resolve("c.pdf")).exists();
+        assertThat(storage.downloads.get()).isEqualTo(3);
+    }
+
+    @Test
+    void rebuildsIndexFromDiskAndDropsPartialDownloads() throws Exception {
+        Files.write(cacheDir.resolve("a.pdf"), bytes(400, 'a'));
+        Files.write(cacheDir.resolve("b.pdf.1234.part"), bytes(100, 'b'));
+
+        BlobCache cache = newCache();
+        cache.get("https://storage/a.pdf");
+
+        assertThat(cache.size()).isEqualTo(400);
+        assertThat(storage.downloads.get()).isZero();
+        assertThat(cacheDir.resolve("b.pdf.1234.part")).doesNotExist();
+    }
+
+    @Test
+    void mappedResourceSkipsToRangeOffsets() throws Exception {
+        storage.files.put("abc.pdf", "0123456789".getBytes());
+        BlobCache cache = newCache();
+
+        Resource resource = cache.getResource("https://storage/abc.pdf");
+        try (InputStream in = resource.getInputStream()) {
+            assertThat(in.skip(6)).isEqualTo(6);
+            assertThat(new String(in.readAllBytes())).isEqualTo("6789");
+        }
+        assertThat(resource.contentLength()).isEqualTo(10);
+    }
+
+    private BlobCache newCache() throws IOException {
+        BlobCache cache = new BlobCache(storage, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "cacheDir", cacheDir.toString());
+        ReflectionTestUtils.setField(cache, "uploadDir", cacheDir.resolveSibling("uploads").toString());
+        ReflectionTestUtils.setField(cache, "maxSize", DataSize.ofBytes(1000));
+        cache.init();
+        return cache;
+    }
+
+    private static byte[] bytes(int size, char fill) {
+        byte[] bytes = new byte[size];
+        Arrays.fill(bytes, (byte) fill);
+        return bytes;
+    }
+
+    // Remote-only backend that serves files from memory and counts downloads
+    private static class FakeStorage implements StorageBackend {
+
+        final Map<String, byte[]> files = new HashMap<>();
+        final AtomicInteger downloads = new AtomicInteger();
+
+        @Override
+        public String uploadFile(MultipartFile file, String objectName) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void deleteFile(String fileUrl) {
+            files.remove(StorageBackend.extractFilename(fileUrl));
+        }
+
+        @Override
+        public boolean fileExists(String fileUrl) {
+            return files.containsKey(StorageBackend.extractFilename(fileUrl));
+        }
+
+        @Override
+        public InputStream openStream(String fileUrl) {
+            downloads.incrementAndGet();
+            return new ByteArrayInputStream(files.get(StorageBackend.extractFilename(fileUrl)));
+        }
+    }
+}
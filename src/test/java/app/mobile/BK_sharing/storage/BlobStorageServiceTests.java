@@ -0,0 +1,236 @@
+package app.mobile.BK_sharing.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.storage.deletion.poll-interval=1h",
+        "app.storage.deletion.initial-backoff=1s",
+        "app.storage.deletion.max-backoff=2s",
+        "app.storage.deletion.max-attempts=3"
+})
+@Import(RecordingStorageBackend.Config.class)
+@ActiveProfiles("test")
+class BlobStorageServiceTests {
+
+    @Autowired
+    private BlobStorageService blobStorageService;
+
+    @Autowired
+    private StorageDeletionWorker worker;
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    @Autowired
+    private StorageDeletionTaskRepository taskRepository;
+
+    @Autowired
+    private RecordingStorageBackend storageBackend;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private MockMultipartFile file;
+
+    @BeforeEach
+    void setUp() {
+        storageBackend.reset();
+        // One DELETE statement: a worker of another test context may remove a row between a load and its delete
+        taskRepository.deleteAllInBatch();
+        file = new MockMultipartFile("file", "notes.pdf", "application/pdf",
+                ("Lecture notes " + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void uploadsIdenticalContentOnceAndCountsItsReferences() throws Exception {
+        String first = blobStorageService.store(file);
+        String second = blobStorageService.store(copy(file, "copy.pdf"));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(storageBackend.uploaded).containsExactly(first);
+        assertThat(blob(first).orElseThrow().getRefCount()).isEqualTo(2);
+        assertThat(taskRepository.count()).isZero();
+    }
+
+    @Test
+    void deletesTheFileOnceTheLastReferenceIsReleased() throws Exception {
+        String path = blobStorageService.store(file);
+        blobStorageService.store(file);
+
+        release(path);
+        assertThat(blob(path).orElseThrow().getRefCount()).isEqualTo(1);
+        assertThat(taskRepository.count()).isZero();
+
+        // The row stays, without references, until the worker has deleted the file
+        release(path);
+        assertThat(blob(path).orElseThrow().getRefCount()).isZero();
+        assertThat(taskRepository.count()).isEqualTo(1);
+        assertThat(storageBackend.objects).containsKey(path);
+
+        worker.drain();
+        assertThat(storageBackend.deleted).containsExactly(path);
+        assertThat(blob(path)).isEmpty();
+        assertThat(taskRepository.count()).isZero();
+    }
+
+    @Test
+    void keepsContentUploadedAgainWhileItsDeletionIsQueued() throws Exception {
+        String path = blobStorageService.store(file);
+        release(path);
+
+        // Uploading the same bytes again cancels the queued deletion, and the file is neither checked nor uploaded
+        assertThat(blobStorageService.store(file)).isEqualTo(path);
+        assertThat(storageBackend.uploaded).containsExactly(path);
+        assertThat(blob(path).orElseThrow().getRefCount()).isEqualTo(1);
+        assertThat(taskRepository.count()).isZero();
+
+        // A task the re-upload did not see (claimed by a worker just before) is dropped, not carried out
+        transactionTemplate.executeWithoutResult(status -> taskRepository.save(new StorageDeletionTask(path)));
+        worker.drain();
+
+        assertThat(storageBackend.deleted).isEmpty();
+        assertThat(storageBackend.objects).containsKey(path);
+        assertThat(blob(path).orElseThrow().getRefCount()).isEqualTo(1);
+        assertThat(taskRepository.count()).isZero();
+    }
+
+    @Test
+    void uploadsUnderANewNameWhileADeletionIsInProgress() throws Exception {
+        String path = blobStorageService.store(file);
+        release(path);
+
+        // The worker is deleting the file, holding no rows, when the same content is uploaded again
+        CountDownLatch deleting = new CountDownLatch(1);
+        CountDownLatch stored = new CountDownLatch(1);
+        storageBackend.beforeDelete = () -> {
+            deleting.countDown();
+            await(stored);
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        String newPath;
+        try {
+            Future<?> drain = executor.submit(worker::drain);
+            assertThat(deleting.await(10, TimeUnit.SECONDS)).isTrue();
+
+            newPath = blobStorageService.store(file);
+            stored.countDown();
+            drain.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(newPath).isNotEqualTo(path);
+        assertThat(storageBackend.deleted).containsExactly(path);
+        assertThat(storageBackend.objects).containsKey(newPath).doesNotContainKey(path);
+        assertThat(blob(newPath).orElseThrow().getRefCount()).isEqualTo(1);
+        assertThat(blob(path)).isEmpty();
+        assertThat(taskRepository.count()).isZero();
+    }
+
+    @Test
+    void deletesTheNewCopyWhenTheUploadRollsBack() throws Exception {
+        String path = blobStorageService.store(file);
+        release(path);
+        // The worker has claimed the file and given up after a failure, so the blob stays marked as deleting
+        storageBackend.failingDeletes.set(1);
+        worker.drain();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                blobStorageService.store(file);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            status.setRollbackOnly();
+        });
+        String copy = storageBackend.uploaded.get(1);
+        assertThat(copy).isNotEqualTo(path);
+        assertThat(taskRepository.findAll()).extracting(StorageDeletionTask::getFilePath).contains(copy);
+    }
+
+    @Test
+    void deletesANewFileWhenTheUploadRollsBack() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                blobStorageService.store(file);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            status.setRollbackOnly();
+        });
+        String path = storageBackend.uploaded.get(0);
+        assertThat(blob(path).orElseThrow().getRefCount()).isZero();
+
+        worker.drain();
+        assertThat(storageBackend.objects).doesNotContainKey(path);
+        assertThat(blob(path)).isEmpty();
+    }
+
+    @Test
+    void concurrentFirstUploadsOfTheSameContentShareOneBlob() throws Exception {
+        // Both uploads are past the lookup before either records the new content
+        CyclicBarrier bothUploading = new CyclicBarrier(2);
+        storageBackend.beforeUpload = () -> {
+            try {
+                bothUploading.await(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        };
+
+        Callable<String> store = () -> blobStorageService.store(file);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<String> paths;
+        try {
+            List<Future<String>> results = executor.invokeAll(List.of(store, store), 20, TimeUnit.SECONDS);
+            paths = List.of(results.get(0).get(), results.get(1).get());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(paths.get(1)).isEqualTo(paths.get(0));
+        assertThat(blob(paths.get(0)).orElseThrow().getRefCount()).isEqualTo(2);
+        assertThat(taskRepository.count()).isZero();
+    }
+
+    private void release(String path) {
+        transactionTemplate.executeWithoutResult(status -> blobStorageService.release(path));
+    }
+
+    private Optional<StoredBlob> blob(String path) {
+        return transactionTemplate.execute(status -> storedBlobRepository.findByFilePath(path));
+    }
+
+    private static MockMultipartFile copy(MockMultipartFile file, String filename) throws Exception {
+        return new MockMultipartFile(file.getName(), filename, file.getContentType(), file.getBytes());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package app.mobile.BK_sharing.storage;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory storage backend for the storage tests. It records uploads and deletes, and can be told to
+ * fail the next deletes or to run a hook before each upload.
+ */
+class RecordingStorageBackend implements StorageBackend {
+
+    static final String PUBLIC_URL = "stub://bucket/";
+
+    final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    final List<String> uploaded = new CopyOnWriteArrayList<>();
+    final List<String> deleted = new CopyOnWriteArrayList<>();
+    final List<List<String>> deleteCalls = new CopyOnWriteArrayList<>();
+    final AtomicInteger failingDeletes = new AtomicInteger();
+    volatile Runnable beforeUpload = () -> { };
+    volatile Runnable beforeDelete = () -> { };
+
+    void reset() {
+        objects.clear();
+        uploaded.clear();
+        deleted.clear();
+        deleteCalls.clear();
+        failingDeletes.set(0);
+        beforeUpload = () -> { };
+        beforeDelete = () -> { };
+    }
+
+    @Override
+    public String uploadFile(MultipartFile file, String objectName) throws IOException {
+        beforeUpload.run();
+        String fileUrl = PUBLIC_URL + objectName;
+        objects.put(fileUrl, file.getBytes());
+        uploaded.add(fileUrl);
+        return fileUrl;
+    }
+
+    @Override
+    public void deleteFile(String fileUrl) throws IOException {
+        beforeDelete.run();
+        if (failingDeletes.getAndUpdate(failures -> Math.max(failures - 1, 0)) > 0) {
+            throw new IOException("Storage unavailable");
+        }
+        objects.remove(fileUrl);
+        deleted.add(fileUrl);
+    }
+
+    // One call, failing or succeeding as a whole, like a bulk delete request
+    @Override
+    public void deleteFiles(List<String> fileUrls) throws IOException {
+        beforeDelete.run();
+        if (failingDeletes.getAndUpdate(failures -> Math.max(failures - 1, 0)) > 0) {
+            throw new IOException("Storage unavailable");
+        }
+        fileUrls.forEach(objects::remove);
+        deleted.addAll(fileUrls);
+        deleteCalls.add(List.copyOf(fileUrls));
+    }
+
+    @Override
+    public boolean fileExists(String fileUrl) {
+        return objects.containsKey(fileUrl);
+    }
+
+    @Override
+    public InputStream openStream(String fileUrl) throws IOException {
+        byte[] content = objects.get(fileUrl);
+        if (content == null) {
+            throw new FileNotFoundException(fileUrl);
+        }
+        return new ByteArrayInputStream(content);
+    }
+
+    // Replaces the configured backend; the worker only polls once an hour so tests drain it themselves
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        @Primary
+        RecordingStorageBackend recordingStorageBackend() {
+            return new RecordingStorageBackend();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package app.mobile.BK_sharing.storage;
+
+import app.mobile.BK_sharing.BkSharingApplication;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.storage.deletion.poll-interval=1h",
+        "app.storage.deletion.initial-backoff=1s",
+        "app.storage.deletion.max-backoff=2s",
+        "app.storage.deletion.max-attempts=3"
+})
+@Import(RecordingStorageBackend.Config.class)
+@ActiveProfiles("test")
+class StorageDeletionWorkerTests {
+
+    @Autowired
+    private StorageDeletionWorker worker;
+
+    @Autowired
+    private StorageDeletionOutbox outbox;
+
+    @Autowired
+    private StorageDeletionTaskRepository taskRepository;
+
+    @Autowired
+    private RecordingStorageBackend storageBackend;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        storageBackend.reset();
+        // One DELETE statement: a worker of another test context may remove a row between a load and its delete
+        taskRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void deletesQueuedFilesAndRemovesTheirTasks() {
+        String first = file();
+        String second = file();
+        enqueue(first, second);
+
+        worker.drain();
+
+        // One call to the backend for the batch
+        assertThat(storageBackend.deleteCalls).singleElement().satisfies(files -> assertThat(files).containsExactlyInAnyOrder(first, second));
+        assertThat(storageBackend.deleted).containsExactlyInAnyOrder(first, second);
+        assertThat(storageBackend.objects).doesNotContainKeys(first, second);
+        assertThat(taskRepository.count()).isZero();
+    }
+
+    @Test
+    void backsOffAfterEachFailureAndGivesUpAfterTheLastAttempt() {
+        String path = file();
+        storageBackend.failingDeletes.set(Integer.MAX_VALUE);
+        enqueue(path);
+
+        // 1. Rescheduled one initial backoff later
+        LocalDateTime before = LocalDateTime.now();
+        worker.drain();
+        StorageDeletionTask task = task(path);
+        assertThat(task.getStatus()).isEqualTo(StorageDeletionTask.Status.PENDING);
+        assertThat(task.getAttempts()).isEqualTo(1);
+        assertThat(task.getLastError()).isEqualTo("Storage unavailable");
+        assertThat(Duration.between(before, task.getNextAttemptAt())).isBetween(Duration.ofSeconds(1), Duration.ofSeconds(2));
+
+        // 2. Not retried before then
+        worker.drain();
+        assertThat(task(path).getAttempts()).isEqualTo(1);
+
+        // 3. Then twice as long, capped at the maximum backoff
+        makeDue(path);
+        before = LocalDateTime.now();
+        worker.drain();
+        task = task(path);
+        assertThat(task.getAttempts()).isEqualTo(2);
+        assertThat(Duration.between(before, task.getNextAttemptAt())).isBetween(Duration.ofSeconds(2), Duration.ofSeconds(3));
+
+        // 4. The last attempt marks it failed, and failed tasks are never claimed again
+        makeDue(path);
+        worker.drain();
+        makeDue(path);
+        worker.drain();
+        task = task(path);
+        assertThat(task.getStatus()).isEqualTo(StorageDeletionTask.Status.FAILED);
+        assertThat(task.getAttempts()).isEqualTo(3);
+        assertThat(storageBackend.objects).containsKey(path);
+    }
+
+    @Test
+    void deletesOnTheNextAttemptAfterATransientFailure() {
+        String path = file();
+        storageBackend.failingDeletes.set(1);
+        enqueue(path);
+
+        worker.drain();
+        assertThat(task(path).getAttempts()).isEqualTo(1);
+
+        makeDue(path);
+        worker.drain();
+        assertThat(storageBackend.deleted).containsExactly(path);
+        assertThat(taskRepository.count()).isZero();
+    }
+
+    @Test
+    void claimedTasksStayHiddenFromOtherWorkersWhileTheirFilesAreDeleted() throws Exception {
+        String path = file();
+        enqueue(path);
+
+        // A second worker runs while the first one is deleting: the lease keeps it away from the task
+        AtomicInteger deletes = new AtomicInteger();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            storageBackend.beforeDelete = () -> {
+                if (deletes.incrementAndGet() == 1) {
+                    try {
+                        executor.submit(worker::drain).get(10, TimeUnit.SECONDS);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            };
+            worker.drain();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(deletes).hasValue(1);
+        assertThat(storageBackend.deleted).containsExactly(path);
+    }
+
+    // H2 ignores SKIP LOCKED (Hibernate's H2 dialect leaves it out), so this one needs PostgreSQL
+    @Test
+    @EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+    void skipsTasksLockedByAnotherWorker() throws Exception {
+        String url = System.getenv("TEST_POSTGRES_URL");
+        String user = System.getenv().getOrDefault("TEST_POSTGRES_USER", "postgres");
+        String password = System.getenv().getOrDefault("TEST_POSTGRES_PASSWORD", "");
+        String schema = "deletion_" + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA " + schema);
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                    BkSharingApplication.class, RecordingStorageBackend.Config.class)
+                    .web(WebApplicationType.NONE)
+                    .run("--spring.profiles.active=test",
+                            "--spring.datasource.url=" + url,
+                            "--spring.datasource.username=" + user,
+                            "--spring.datasource.password=" + password,
+                            "--spring.datasource.driver-class-name=org.postgresql.Driver",
+                            "--spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+                            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+                            "--spring.jpa.properties.hibernate.default_schema=" + schema,
+                            "--app.storage.deletion.poll-interval=1h")) {
+                skipsLockedTasks(context.getBean(StorageDeletionWorker.class),
+                        context.getBean(StorageDeletionOutbox.class),
+                        context.getBean(StorageDeletionTaskRepository.class),
+                        context.getBean(RecordingStorageBackend.class),
+                        context.getBean(TransactionTemplate.class));
+            } finally {
+                statement.execute("DROP SCHEMA " + schema + " CASCADE");
+            }
+        }
+    }
+
+    private static void skipsLockedTasks(StorageDeletionWorker worker,
+                                         StorageDeletionOutbox outbox,
+                                         StorageDeletionTaskRepository taskRepository,
+                                         RecordingStorageBackend storageBackend,
+                                         TransactionTemplate transactionTemplate) throws Exception {
+        String path = RecordingStorageBackend.PUBLIC_URL + UUID.randomUUID() + ".pdf";
+        storageBackend.objects.put(path, new byte[]{1, 2, 3});
+        transactionTemplate.executeWithoutResult(status -> outbox.enqueue(path));
+
+        // Another worker holds the row lock (it has claimed the task but not committed yet)
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> other = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                assertThat(taskRepository.findDueTasks(StorageDeletionTask.Status.PENDING, LocalDateTime.now(),
+                        PageRequest.of(0, 10))).hasSize(1);
+                locked.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // Returns right away instead of waiting for the lock
+            long start = System.nanoTime();
+            worker.drain();
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+            assertThat(storageBackend.deleted).isEmpty();
+
+            release.countDown();
+            other.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        worker.drain();
+        assertThat(storageBackend.deleted).containsExactly(path);
+    }
+
+    // Helper method to put a file in the stub backend
+    private String file() {
+        String path = RecordingStorageBackend.PUBLIC_URL + UUID.randomUUID() + ".pdf";
+        storageBackend.objects.put(path, new byte[]{1, 2, 3});
+        return path;
+    }
+
+    private void enqueue(String... paths) {
+        transactionTemplate.executeWithoutResult(status -> List.of(paths).forEach(outbox::enqueue));
+    }
+
+    private StorageDeletionTask task(String path) {
+        return taskRepository.findAll().stream()
+                .filter(task -> task.getFilePath().equals(path))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    // Helper method to skip the backoff instead of waiting it out
+    private void makeDue(String path) {
+        StorageDeletionTask task = task(path);
+        task.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        taskRepository.save(task);
+    }
+}
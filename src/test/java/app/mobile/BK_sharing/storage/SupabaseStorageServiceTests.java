@@ -0,0 +1,144 @@
+package app.mobile.BK_sharing.storage;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SupabaseStorageServiceTests {
+
+    private HttpServer server;
+    private CloseableHttpClient httpClient;
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private final AtomicLong declaredLength = new AtomicLong(-1);
+    private SupabaseStorageService storageService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Fake storage endpoint that counts the bytes it receives and throws them away
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/storage/v1/object/", exchange -> {
+            String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+            if (contentLength != null) {
+                declaredLength.set(Long.parseLong(contentLength));
+            }
+            byte[] buffer = new byte[64 * 1024];
+            try (InputStream body = exchange.getRequestBody()) {
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    receivedBytes.addAndGet(read);
+                }
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+
+        httpClient = HttpClients.createDefault();
+        storageService = new SupabaseStorageService(RestClient.builder()
+                .requestFactory(new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build());
+        ReflectionTestUtils.setField(storageService, "supabaseUrl", "http://127.0.0.1:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(storageService, "supabaseKey", "test-key");
+        ReflectionTestUtils.setField(storageService, "bucketName", "bk-docs");
+        ReflectionTestUtils.setField(storageService, "uploadChunkSize", 64 * 1024);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void uploadFileStreamsFilesLargerThanTheHeap() throws Exception {
+        // Surefire runs with a small -Xmx, so buffering this file would fail with OutOfMemoryError
+        long size = Runtime.getRuntime().maxMemory() + 32L * 1024 * 1024;
+
+        String publicUrl = storageService.uploadFile(new GeneratedMultipartFile("lecture.pdf", size));
+
+        assertThat(publicUrl).contains("/storage/v1/object/public/bk-docs/").endsWith(".pdf");
+        assertThat(declaredLength.get()).isEqualTo(size);
+        assertThat(receivedBytes.get()).isEqualTo(size);
+    }
+
+    // Multipart file that produces its content on the fly and refuses to be loaded into memory
+    private record GeneratedMultipartFile(String originalFilename, long size) implements MultipartFile {
+
+        @Override
+        public String getName() {
+            return "file";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return originalFilename;
+        }
+
+        @Override
+        public String getContentType() {
+            return "application/pdf";
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            throw new UnsupportedOperationException("The upload must not buffer the whole file");
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new InputStream() {
+                private long remaining = size;
+
+                @Override
+                public int read() {
+                    if (remaining == 0) {
+                        return -1;
+                    }
+                    remaining--;
+                    return 'x';
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    if (remaining == 0) {
+                        return -1;
+                    }
+                    int count = (int) Math.min(len, remaining);
+                    Arrays.fill(b, off, off + count, (byte) 'x');
+                    remaining -= count;
+                    return count;
+                }
+            };
+        }
+
+        @Override
+        public void transferTo(File dest) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package app.mobile.BK_sharing.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TrendingIndexTests {
+
+    private static final long HOUR = 3600;
+    private static final long DAY = 24 * HOUR;
+    private static final long START = 1_700_000_000L;
+
+    @Test
+    void recentActivityOutranksOlderActivity() {
+        TrendingIndex index = new TrendingIndex(DAY, 10, START);
+        // Ten views two days (two half-lives) ago are worth 2.5 views now
+        for (int i = 0; i < 10; i++) {
+            index.add(1, null, List.of(), 1, START);
+        }
+        long now = START + 2 * DAY;
+        for (int i = 0; i < 4; i++) {
+            index.add(2, null, List.of(), 1, now);
+        }
+        index.add(3, null, List.of(), 2, now);
+
+        List<TrendingIndex.Scored> top = index.topDocuments(null, null, 10, id -> true, now);
+        assertThat(top).extracting(TrendingIndex.Scored::id).containsExactly(2L, 1L, 3L);
+        assertThat(top.get(0).score()).isCloseTo(4.0, within(1e-9));
+        assertThat(top.get(1).score()).isCloseTo(2.5, within(1e-9));
+    }
+
+    @Test
+    void ranksWithinCoursesAndCategoriesAndRanksThemToo() {
+        TrendingIndex index = new TrendingIndex(DAY, 10, START);
+        index.add(1, 100L, List.of(7L), 5, START);
+        index.add(2, 100L, List.of(8L), 3, START);
+        index.add(3, 200L, List.of(7L, 8L), 4, START);
+
+        assertThat(ids(index.topDocuments(100L, null, 10, id -> true, START))).containsExactly(1L, 2L);
+        assertThat(ids(index.topDocuments(null, 8L, 10, id -> true, START))).containsExactly(3L, 2L);
+        assertThat(ids(index.topDocuments(null, 9L, 10, id -> true, START))).isEmpty();
+        // Filtered entries are skipped, not counted against the limit
+        assertThat(ids(index.topDocuments(null, null, 2, id -> id != 1, START))).containsExactly(3L, 2L);
+
+        assertThat(ids(index.topCourses(10, id -> true, START))).containsExactly(100L, 200L);
+        assertThat(index.topCategories(10, id -> true, START)).extracting(TrendingIndex.Scored::score)
+                .containsExactly(9.0, 7.0);
+    }
+
+    @Test
+    void boundedRankingMatchesBruteForce() {
+        int k = 20;
+        double halfLife = 6 * HOUR;
+        TrendingIndex index = new TrendingIndex(halfLife, k, START);
+        Map<Long, Double> expected = new HashMap<>();
+
+        // A few days of events skewed towards low ids, time moving forward, with rescales along the way
+        Random random = new Random(42);
+        long now = START;
+        for (int i = 0; i < 200_000; i++) {
+            now += random.nextInt(4);
+            long documentId = (long) Math.abs(random.nextGaussian() * 300);
+            double weight = random.nextInt(4) == 0 ? 3 : 1;
+            index.add(documentId, null, List.of(), weight, now);
+            // Value of the event at the end of the week
+            expected.merge(documentId, weight * Math.pow(0.5, (START + 7 * DAY - now) / halfLife), Double::sum);
+            if (i % 50_000 == 49_999) {
+                index.rescale(now, 0.0);
+            }
+        }
+        long end = START + 7 * DAY;
+
+        List<Long> bruteForce = expected.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+                .limit(k)
+                .map(Map.Entry::getKey)
+                .toList();
+        List<TrendingIndex.Scored> top = index.topDocuments(null, null, k, id -> true, end);
+
+        assertThat(ids(top)).containsExactlyElementsOf(bruteForce);
+        for (TrendingIndex.Scored scored : top) {
+            assertThat(scored.score()).isCloseTo(expected.get(scored.id()), within(expected.get(scored.id()) * 1e-9));
+        }
+    }
+
+    @Test
+    void rescaleForgetsDecayedScoresAndKeepsTheRanking() {
+        TrendingIndex index = new TrendingIndex(HOUR, 10, START);
+        index.add(1, 100L, List.of(), 1, START);
+        index.add(2, 100L, List.of(), 1000, START);
+        index.add(3, 100L, List.of(), 500, START);
+
+        // After ten half-lives a single view is worth under 0.001
+        long later = START + 10 * HOUR;
+        List<TrendingIndex.Scored> before = index.topDocuments(null, null, 10, id -> true, later);
+        assertThat(index.rescale(later, 0.01)).isEqualTo(2);
+
+        List<TrendingIndex.Scored> after = index.topDocuments(null, null, 10, id -> true, later);
+        assertThat(ids(after)).containsExactly(2L, 3L);
+        assertThat(after.get(0).score()).isCloseTo(before.get(0).score(), within(1e-9));
+        assertThat(ids(index.topDocuments(100L, null, 10, id -> true, later))).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void answersFromMemoryWithoutScanning() {
+        TrendingIndex index = new TrendingIndex(DAY, 100, START);
+        Random random = new Random(7);
+        for (int i = 0; i < 1_000_000; i++) {
+            long documentId = random.nextInt(100_000);
+            index.add(documentId, documentId % 500, List.of(documentId % 40), random.nextInt(4) == 0 ? 3 : 1,
+                    START + i / 10);
+        }
+
+        // The filter only sees the entries returned, not the 100k scored documents
+        long now = START + 100_000;
+        AtomicInteger checked = new AtomicInteger();
+        assertThat(index.topDocuments(null, null, 20, id -> checked.incrementAndGet() > 0, now))
+                .hasSize(20)
+                .isSortedAccordingTo(Comparator.comparingDouble(TrendingIndex.Scored::score).reversed());
+        assertThat(checked).hasValue(20);
+
+        checked.set(0);
+        assertThat(index.topDocuments(42L, null, 20, id -> checked.incrementAndGet() > 0, now)).hasSize(20);
+        assertThat(checked).hasValue(20);
+    }
+
+    @Test
+    void fillsTheLimitWhenRejectedDocumentsTakeUpTheRanking() {
+        // Documents 1-3 score highest but are rejected (pending or deleted, say) and take the whole ranking
+        TrendingIndex index = new TrendingIndex(DAY, 3, START);
+        for (long id = 1; id <= 6; id++) {
+            index.add(id, id % 2 == 0 ? 100L : 200L, List.of(7L), 10 - id, START);
+        }
+        LongPredicate accepted = id -> id > 3;
+
+        assertThat(ids(index.topDocuments(null, null, 3, accepted, START))).containsExactly(4L, 5L, 6L);
+        assertThat(ids(index.topDocuments(null, null, 2, accepted, START))).containsExactly(4L, 5L);
+        assertThat(ids(index.topDocuments(100L, null, 3, accepted, START))).containsExactly(4L, 6L);
+        assertThat(ids(index.topDocuments(null, 7L, 3, accepted, START))).containsExactly(4L, 5L, 6L);
+        assertThat(ids(index.topDocuments(null, 8L, 3, accepted, START))).isEmpty();
+    }
+
+    private static List<Long> ids(List<TrendingIndex.Scored> scored) {
+        return scored.stream().map(TrendingIndex.Scored::id).toList();
+    }
+}
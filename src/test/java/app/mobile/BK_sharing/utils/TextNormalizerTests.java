@@ -0,0 +1,22 @@
+package app.mobile.BK_sharing.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextNormalizerTests {
+
+    @Test
+    void foldsVietnameseAccentsAndCase() {
+        assertThat(TextNormalizer.fold("Giải Tích 1")).isEqualTo("giai tich 1");
+        assertThat(TextNormalizer.fold("Đại số tuyến tính")).isEqualTo("dai so tuyen tinh");
+        assertThat(TextNormalizer.fold("Vật lý (đề thi) - 2024")).isEqualTo("vat ly de thi 2024");
+    }
+
+    @Test
+    void splitsIntoFoldedWords() {
+        assertThat(TextNormalizer.tokens("  Cấu trúc  dữ liệu ")).containsExactly("cau", "truc", "du", "lieu");
+        assertThat(TextNormalizer.tokens("...")).isEmpty();
+        assertThat(TextNormalizer.tokens(null)).isEmpty();
+    }
+}